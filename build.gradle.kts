@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.4.2"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.webscraper"
@@ -27,10 +28,12 @@ repositories {
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework:spring-webflux:6.2.1")
+    implementation("io.projectreactor.netty:reactor-netty-http")
     implementation("com.twelvemonkeys.imageio:imageio-webp:3.12.0")
-    implementation("org.springframework.retry:spring-retry:2.0.11")
     implementation("com.google.guava:guava:33.4.0-jre")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     implementation("org.apache.httpcomponents.client5:httpclient5:5.4.2")
     implementation ("com.github.crawler-commons:crawler-commons:1.4")
     implementation("org.flywaydb:flyway-core")
@@ -40,10 +43,18 @@ dependencies {
     runtimeOnly("org.postgresql:postgresql")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    jmh("com.h2database:h2")
     implementation("org.jsoup:jsoup:1.18.3")
+    implementation("org.brotli:dec:0.1.2")
 
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+jmh {
+    warmupIterations = 2
+    iterations = 5
+    fork = 1
+}
@@ -0,0 +1,111 @@
+package com.webscraper.config;
+
+import com.sun.net.httpserver.HttpServer;
+import com.webscraper.providers.HttpClientProvider;
+import com.webscraper.services.impl.DocumentServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pages fetched per second by the fixed link pool and the virtual-thread executor
+ * against a local stub HTTP server with a fixed response latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExecutorModeBenchmark {
+
+    private static final int PAGES_PER_INVOCATION = 200;
+
+    @Param({"FIXED", "VIRTUAL"})
+    public ExecutorMode mode;
+
+    @Param({"10"})
+    public int poolSize;
+
+    @Param({"20"})
+    public int latencyMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ExecutorService linkExecutor;
+    private DocumentServiceImpl documentService;
+    private HttpClientProvider httpClientProvider;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] page = ("<html><body>" + "<a href=\"/next\">next</a>".repeat(50) + "</body></html>")
+                .getBytes(StandardCharsets.UTF_8);
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, page.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(page);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/page/";
+
+        linkExecutor = ExecutorConfig.createExecutor(mode, poolSize);
+        httpClientProvider = new HttpClientProvider(HttpClient.Version.HTTP_2, 10000, 60, 0);
+        documentService = new DocumentServiceImpl(httpClientProvider, 30000, 10485760);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        linkExecutor.shutdownNow();
+        httpClientProvider.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES_PER_INVOCATION)
+    public int fetchPages() {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(PAGES_PER_INVOCATION);
+        for (int i = 0; i < PAGES_PER_INVOCATION; i++) {
+            String url = baseUrl + i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return documentService.fetchDocument(url, null).select("a").size();
+                } catch (Exception e) {
+                    return 0;
+                }
+            }, linkExecutor));
+        }
+        int links = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            links += future.join();
+        }
+        return links;
+    }
+}
@@ -0,0 +1,73 @@
+package com.webscraper.durable;
+
+import com.webscraper.entities.CrawlTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to reopen a memory-mapped frontier after a crash, i.e. to read the checkpoint,
+ * scan the segments to the tail and walk the pending tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FrontierRecoveryBenchmark {
+
+    private static final int SEGMENT_BYTES = 16 * 1024 * 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int pendingTasks;
+
+    private Path directory;
+    private MappedFrontierQueue recovered;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("frontier-recovery");
+        try (MappedFrontierQueue queue = new MappedFrontierQueue(directory, SEGMENT_BYTES, Integer.MAX_VALUE, () -> { })) {
+            for (int i = 0; i < pendingTasks; i++) {
+                queue.add(new CrawlTask("https://example.com/catalog/item-" + i + "?page=" + (i % 50), i % 5));
+            }
+        }
+    }
+
+    /**
+     * Unmaps the segments of the recovered queue outside the measured time, so every invocation starts from the
+     * same files.
+     */
+    @TearDown(Level.Invocation)
+    public void closeRecovered() {
+        if (recovered != null) {
+            recovered.close();
+            recovered = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int recover() throws IOException {
+        MappedFrontierQueue queue = new MappedFrontierQueue(directory, SEGMENT_BYTES, Integer.MAX_VALUE, () -> { });
+        recovered = queue;
+        int[] urlBytes = new int[1];
+        queue.forEachPending(task -> urlBytes[0] += task.url().length());
+        return queue.size() + urlBytes[0];
+    }
+}
@@ -0,0 +1,152 @@
+package com.webscraper.services;
+
+import com.webscraper.entities.EncodedImage;
+import com.webscraper.services.strategy.JpegImageEncoder;
+import com.webscraper.services.strategy.PngImageEncoder;
+import com.webscraper.services.strategy.WebpImageEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JPEG-only compression with the output format selection of {@link ImageOutputSelector}.
+ * <p>
+ * The corpus is fixed: photo-like JPEGs, flat PNG graphics with few colors and transparent PNG logos. Each
+ * invocation compresses the next image of the corpus. JMH reports the wall time per image; the bytes saved per
+ * CPU second of the process, which includes the parallel encode threads, are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImageOutputFormatBenchmark {
+
+    public enum Output { JPEG_ONLY, SELECTED }
+
+    @Param({"JPEG_ONLY", "SELECTED"})
+    public Output output;
+
+    private final List<byte[]> corpus = new ArrayList<>();
+    private JpegCompressor compressor;
+    private ImageOutputSelector selector;
+    private int next;
+    private long originalBytes;
+    private long outputBytes;
+    private long cpuNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(7);
+        for (int i = 0; i < 3; i++) {
+            corpus.add(encode(generatePhoto(random, 1600 + 200 * i, 1200), "jpg"));
+            corpus.add(encode(generateGraphic(random, 1400 + 200 * i, 1000, false), "png"));
+            corpus.add(encode(generateGraphic(random, 1000 + 200 * i, 1000, true), "png"));
+        }
+        compressor = new JpegCompressor();
+        selector = new ImageOutputSelector(compressor,
+                List.of(new JpegImageEncoder(compressor), new PngImageEncoder(), new WebpImageEncoder(true, 0.75f)), 0.4f);
+    }
+
+    @Benchmark
+    public int compress() throws IOException {
+        byte[] image = corpus.get(next++ % corpus.size());
+        long start = processCpuTime();
+        int size;
+        if (output == Output.JPEG_ONLY) {
+            BufferedImage rgb = JpegCompressor.toRgb(compressor.decode(image, image.length).image());
+            size = compressor.compress(rgb, image.length / 2).bytes().length;
+        } else {
+            EncodedImage encoded = selector.encode(image, image.length);
+            size = encoded.bytes().length;
+        }
+        cpuNanos += processCpuTime() - start;
+        originalBytes += image.length;
+        outputBytes += size;
+        return size;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%n%s: %.1f%% of the original size, %.0f KB saved per CPU second%n", output,
+                100.0 * outputBytes / originalBytes, (originalBytes - outputBytes) / 1024.0 / (cpuNanos / 1e9));
+        compressor.shutdown();
+    }
+
+    private static long processCpuTime() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    private static BufferedImage generatePhoto(Random random, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(random.nextInt()), width, height, new Color(random.nextInt())));
+        graphics.fillRect(0, 0, width, height);
+        for (int i = 0; i < 300; i++) {
+            graphics.setColor(new Color(random.nextInt(), true));
+            graphics.fillOval(random.nextInt(width), random.nextInt(height), random.nextInt(200), random.nextInt(200));
+        }
+        graphics.dispose();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int n = random.nextInt(13);
+                int rgb = image.getRGB(x, y);
+                image.setRGB(x, y, (Math.min(255, ((rgb >> 16) & 0xFF) + n) << 16)
+                        | (Math.min(255, ((rgb >> 8) & 0xFF) + n) << 8) | Math.min(255, (rgb & 0xFF) + n));
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage generateGraphic(Random random, int width, int height, boolean transparent) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        if (transparent) {
+            graphics.setComposite(AlphaComposite.Clear);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setComposite(AlphaComposite.Src);
+        } else {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+        }
+        Color[] colors = new Color[12];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = new Color(random.nextInt() & 0xFFFFFF);
+        }
+        for (int i = 0; i < 80; i++) {
+            graphics.setColor(colors[random.nextInt(colors.length)]);
+            graphics.fillRect(random.nextInt(width), random.nextInt(height), random.nextInt(300), random.nextInt(300));
+        }
+        graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 48));
+        graphics.setColor(Color.BLACK);
+        graphics.drawString("WebScraper", width / 4, height / 2);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,90 @@
+package com.webscraper.services;
+
+import com.webscraper.entities.ImageEntity;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares inserting one image row per processed image with the write-behind batches of {@link ImageBatchWriter}.
+ * <p>
+ * Runs against H2 in PostgreSQL mode with the columns of {@code image_entity}. Each invocation stores
+ * {@value #ROWS} new rows and only ends when all of them are written; the score is rows per second. H2 runs in
+ * process, so the per-row round trip it saves is far smaller than with a PostgreSQL server on the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImagePersistenceBenchmark {
+
+    private static final int ROWS = 1000;
+
+    public enum Persistence { PER_ROW, WRITE_BEHIND }
+
+    @Param({"PER_ROW", "WRITE_BEHIND"})
+    public Persistence persistence;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ImageBatchWriter writer;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:images-" + persistence + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(4);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table image_entity ("
+                + "id bigint generated by default as identity primary key, "
+                + "original_url varchar(2048) unique not null, "
+                + "path varchar(2048) not null, "
+                + "original_size bigint not null, "
+                + "size_after_compression bigint not null, "
+                + "content_hash varchar(64), "
+                + "format varchar(16))");
+        writer = new ImageBatchWriter(jdbcTemplate, 10_000, 100, 500, 10_000);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void store() {
+        for (int i = 0; i < ROWS; i++) {
+            ImageEntity entity = newImage(next++);
+            if (persistence == Persistence.PER_ROW) {
+                jdbcTemplate.update(ImageBatchWriter.INSERT_SQL, entity.getOriginalUrl(), entity.getPath(),
+                        entity.getOriginalSize(), entity.getSizeAfterCompression(), entity.getContentHash(), entity.getFormat());
+            } else {
+                writer.enqueue(entity);
+            }
+        }
+        writer.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        writer.shutdown();
+        long stored = jdbcTemplate.queryForObject("select count(*) from image_entity", Long.class);
+        System.out.printf("%n%s: %d of %d rows stored%n", persistence, stored, next);
+        dataSource.close();
+    }
+
+    private static ImageEntity newImage(long n) {
+        return new ImageEntity(0, "https://cdn.example.com/images/" + n + ".jpg", "compressed-images/example.com/" + n + ".jpg",
+                400_000 + n % 1000, 180_000 + n % 1000, String.format("%064x", n), "jpeg");
+    }
+}
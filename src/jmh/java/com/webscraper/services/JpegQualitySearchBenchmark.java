@@ -0,0 +1,126 @@
+package com.webscraper.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary quality search of {@link JpegCompressor} with the predictive search.
+ * <p>
+ * Each invocation compresses one of a fixed set of generated photo-like images to half the size of its
+ * quality-0.95 JPEG, as {@code compressAndSave} does for downloaded images. JMH reports the wall time per image;
+ * the average number of full encodes and the size error against the target are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JpegQualitySearchBenchmark {
+
+    private static final int IMAGE_COUNT = 6;
+
+    @Param({"BINARY", "PREDICTIVE"})
+    public QualitySearchMode mode;
+
+    private List<BufferedImage> images;
+    private long[] targets;
+    private JpegCompressor compressor;
+    private int next;
+    private long compressed;
+    private long fullEncodes;
+    private double sizeError;
+    private long overTarget;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        images = new ArrayList<>();
+        targets = new long[IMAGE_COUNT];
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            BufferedImage image = generatePhoto(random, 1600 + 100 * i, 1200, i * 6);
+            images.add(image);
+            targets[i] = encode(image, 0.95f) / 2;
+        }
+        compressor = new JpegCompressor(mode);
+    }
+
+    @Benchmark
+    public int compress() throws IOException {
+        int index = next++ % IMAGE_COUNT;
+        JpegCompressor.Encoding encoding = compressor.compress(images.get(index), targets[index]);
+        long size = encoding.bytes().length;
+        compressed++;
+        fullEncodes += encoding.fullEncodes();
+        sizeError += Math.abs(size - targets[index]) / (double) targets[index];
+        if (size > targets[index]) {
+            overTarget++;
+        }
+        return encoding.bytes().length;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%n%s: %.2f full encodes per image, mean size error %.2f%%, %d of %d images over target%n",
+                mode, (double) fullEncodes / compressed, 100 * sizeError / compressed, overTarget, compressed);
+    }
+
+    private static BufferedImage generatePhoto(Random random, int width, int height, int noise) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(random.nextInt()), width, height, new Color(random.nextInt())));
+        graphics.fillRect(0, 0, width, height);
+        for (int i = 0; i < 300; i++) {
+            graphics.setColor(new Color(random.nextInt(), true));
+            graphics.fillOval(random.nextInt(width), random.nextInt(height), random.nextInt(200), random.nextInt(200));
+        }
+        graphics.dispose();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int n = random.nextInt(noise + 1);
+                int rgb = image.getRGB(x, y);
+                int r = Math.min(255, ((rgb >> 16) & 0xFF) + n);
+                int g = Math.min(255, ((rgb >> 8) & 0xFF) + n);
+                int b = Math.min(255, (rgb & 0xFF) + n);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+
+    private static long encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,63 @@
+package com.webscraper.utils;
+
+import com.webscraper.entities.NormalizedUrl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link org.apache.hc.core5.net.URIBuilder} round-trip plus {@code isSameDomain} reparse
+ * with the single-pass {@link URLUtils#normalize(String)} and host-based domain check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class URLNormalizerBenchmark {
+
+    private static final String DOMAIN = "example.com";
+    private static final String[] TEMPLATES = {
+            "https://www.example.com/news/%d/article-%d",
+            "HTTPS://WWW.EXAMPLE.COM:443/catalog/%d/?page=%d#top",
+            "http://blog.example.com/%d/./posts/../posts/%d/",
+            "https://example.com/search?q=term%d&offset=%d",
+            "https://cdn.other.org/assets/%d/%d.js"
+    };
+
+    private List<String> urls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        urls = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            urls.add(String.format(TEMPLATES[random.nextInt(TEMPLATES.length)], random.nextInt(10000), random.nextInt(100)));
+        }
+    }
+
+    @Benchmark
+    public void uriBuilderNormalizeAndReparse(Blackhole blackhole) {
+        for (String url : urls) {
+            String normalized = URLUtils.normalizeWithUriBuilder(url.trim());
+            blackhole.consume(normalized != null && URLUtils.isSameDomain(normalized, DOMAIN));
+        }
+    }
+
+    @Benchmark
+    public void singlePassNormalize(Blackhole blackhole) {
+        for (String url : urls) {
+            NormalizedUrl normalized = URLUtils.normalize(url);
+            blackhole.consume(normalized != null && URLUtils.isSameDomainHost(normalized.host(), DOMAIN));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.webscraper.utils;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the regex-based anchor classification previously used by {@link LinkExtractor} with {@link UrlClassifier}.
+ * <p>
+ * The corpus is a fixed set of generated pages whose URL mix follows a typical site crawl: article and category
+ * links with query strings, product images from a CDN, icons, fragments and inline CSS backgrounds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UrlClassifierBenchmark {
+
+    private static final String LEGACY_IMAGE_REGEX = "(?i).*\\.(png|jpg|jpeg|gif|bmp)(\\?.*)?$";
+    private static final String LEGACY_CSS_REGEX = "url\\(['\"]?(.*?)['\"]?\\)";
+    private static final Pattern CSS_URL_PATTERN = Pattern.compile(LEGACY_CSS_REGEX);
+
+    private static final String[] PAGE_PATTERNS = {
+            "/news/%d/some-article-title-%d", "/catalog/category-%d?page=%d&sort=price", "/blog/%d/%d/post.html",
+            "/search?q=term%d&offset=%d", "/products/item-%d#reviews-%d", "/docs/v%d/guide/index.php?id=%d"
+    };
+    private static final String[] IMAGE_PATTERNS = {
+            "https://cdn.example.com/media/%d/photo-%d.JPG", "/static/img/icon-%d.png?v=%d",
+            "/uploads/%d/banner-%d.jpeg", "/assets/%d/logo-%d.gif"
+    };
+
+    private List<Document> pages;
+    private List<String> hrefs;
+    private List<String> styles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        pages = new ArrayList<>();
+        hrefs = new ArrayList<>();
+        styles = new ArrayList<>();
+        for (int p = 0; p < 50; p++) {
+            StringBuilder html = new StringBuilder("<html><head><style>");
+            for (int i = 0; i < 5; i++) {
+                html.append(".b").append(i).append("{background:url('/img/bg-").append(random.nextInt(1000)).append(".png')}");
+            }
+            html.append("</style></head><body>");
+            for (int i = 0; i < 200; i++) {
+                String[] patterns = random.nextInt(5) == 0 ? IMAGE_PATTERNS : PAGE_PATTERNS;
+                String href = String.format(patterns[random.nextInt(patterns.length)], random.nextInt(10000), random.nextInt(100));
+                html.append("<div style=\"color:red\"><a href=\"").append(href).append("\">link</a></div>");
+            }
+            html.append("</body></html>");
+            Document document = Jsoup.parse(html.toString(), "https://www.example.com/page/" + p);
+            pages.add(document);
+            document.select("a[href]").forEach(a -> hrefs.add(a.attr("abs:href")));
+            document.select("[style], style").forEach(e -> styles.add(e.tagName().equals("style") ? e.data() : e.attr("style")));
+        }
+    }
+
+    @Benchmark
+    public void legacyRegexClassification(Blackhole blackhole) {
+        // page links and anchor images were extracted in two passes, each matching every anchor
+        for (String href : hrefs) {
+            blackhole.consume(!href.matches(LEGACY_IMAGE_REGEX));
+        }
+        for (String href : hrefs) {
+            blackhole.consume(href.matches(LEGACY_IMAGE_REGEX));
+        }
+    }
+
+    @Benchmark
+    public void classifier(Blackhole blackhole) {
+        for (String href : hrefs) {
+            blackhole.consume(UrlClassifier.classify(href));
+        }
+    }
+
+    @Benchmark
+    public void legacyCssPatternPerCall(Blackhole blackhole) {
+        for (String css : styles) {
+            Matcher matcher = Pattern.compile(LEGACY_CSS_REGEX).matcher(css);
+            while (matcher.find()) {
+                blackhole.consume(matcher.group(1));
+            }
+        }
+    }
+
+    @Benchmark
+    public void precompiledCssPattern(Blackhole blackhole) {
+        for (String css : styles) {
+            Matcher matcher = CSS_URL_PATTERN.matcher(css);
+            while (matcher.find()) {
+                blackhole.consume(matcher.group(1));
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacyAnchorExtraction(Blackhole blackhole) {
+        for (Document page : pages) {
+            Set<String> links = new HashSet<>();
+            Set<String> images = new HashSet<>();
+            page.select("a[href]").forEach(a -> {
+                String href = a.attr("abs:href");
+                if (!href.matches(LEGACY_IMAGE_REGEX)) {
+                    links.add(href);
+                }
+            });
+            page.select("a[href]").forEach(a -> {
+                String href = a.attr("abs:href");
+                if (href.matches(LEGACY_IMAGE_REGEX)) {
+                    images.add(href);
+                }
+            });
+            blackhole.consume(links);
+            blackhole.consume(images);
+        }
+    }
+
+    @Benchmark
+    public void singlePassAnchorExtraction(Blackhole blackhole) {
+        for (Document page : pages) {
+            Set<String> links = new HashSet<>();
+            Set<String> images = new HashSet<>();
+            LinkExtractor.extractAnchors(page, links, images);
+            blackhole.consume(links);
+            blackhole.consume(images);
+        }
+    }
+}
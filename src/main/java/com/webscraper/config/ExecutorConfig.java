@@ -11,11 +11,27 @@ import java.util.concurrent.Executors;
 public class ExecutorConfig {
 
     @Bean
-    public ExecutorService linkExecutor(@Value("${crawler.linkPoolSize}") int poolSize) {
-        return Executors.newFixedThreadPool(poolSize);
+    public ExecutorService linkExecutor(@Value("${crawler.executorMode:FIXED}") ExecutorMode mode,
+                                        @Value("${crawler.linkPoolSize}") int poolSize) {
+        return createExecutor(mode, poolSize);
     }
     @Bean
-    public ExecutorService imageExecutor(@Value("${crawler.imagePoolSize}") int poolSize) {
+    public ExecutorService imageExecutor(@Value("${crawler.executorMode:FIXED}") ExecutorMode mode,
+                                         @Value("${crawler.imagePoolSize}") int poolSize) {
+        return createExecutor(mode, poolSize);
+    }
+
+    /**
+     * Creates an executor for the given mode.
+     *
+     * @param mode     the execution model
+     * @param poolSize the number of threads used in {@link ExecutorMode#FIXED} mode
+     * @return the executor service
+     */
+    public static ExecutorService createExecutor(ExecutorMode mode, int poolSize) {
+        if (mode == ExecutorMode.VIRTUAL) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
         return Executors.newFixedThreadPool(poolSize);
     }
-}
\ No newline at end of file
+}
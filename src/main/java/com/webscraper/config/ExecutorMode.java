@@ -0,0 +1,17 @@
+package com.webscraper.config;
+
+/**
+ * Execution model used for the link and image executors.
+ */
+public enum ExecutorMode {
+
+    /**
+     * Fixed-size platform thread pools sized by {@code crawler.linkPoolSize} and {@code crawler.imagePoolSize}.
+     */
+    FIXED,
+
+    /**
+     * One virtual thread per submitted task; pool sizes are ignored.
+     */
+    VIRTUAL
+}
@@ -1,8 +0,0 @@
-package com.webscraper.config;
-
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-
-public class RetryConfig {
-}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.webscraper.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs streamed responses on virtual threads.
+ * <p>
+ * An event stream stays open for the whole crawl and mostly waits for events or for the client, so each one gets
+ * its own virtual thread instead of holding one of the few threads of the default task executor.
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    private final long timeoutMillis;
+
+    public StreamingConfig(@Value("${crawler.stream.timeoutMillis:0}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor()));
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+}
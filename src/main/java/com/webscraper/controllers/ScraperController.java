@@ -1,18 +1,29 @@
 package com.webscraper.controllers;
 
+import com.webscraper.engines.CrawlEventStream;
+import com.webscraper.engines.CrawlJob;
+import com.webscraper.entities.CrawlJobStatus;
 import com.webscraper.entities.ScraperBody;
+import com.webscraper.entities.SessionState;
+import com.webscraper.services.CrawlEventStreamer;
 import com.webscraper.services.impl.ScraperServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.concurrent.CompletableFuture;
+import java.util.List;
+import java.util.Set;
 
 
 /**
- * REST controller for starting web scraping.
+ * REST controller for starting web scraping and following the started sessions.
  */
 @RestController
 @RequiredArgsConstructor
@@ -20,38 +31,121 @@ import java.util.concurrent.CompletableFuture;
 public class ScraperController {
 
     private final ScraperServiceImpl scraperService;
+    private final CrawlEventStreamer crawlEventStreamer;
 
     /**
-     * Starts the scraping process with the provided parameters.
+     * Starts a scraping session in the background.
      *
-     * @param scraperBody the body containing URL, recursion depth, delay and proxies
-     * @return a CompletableFuture with the response entity containing scraped links or an error message
+     * @param scraperBody the body containing URL, recursion depth, delay, proxies and the optional budget
+     * @return 202 Accepted with the status of the new session, whose id is used to poll, cancel and fetch results
      * @throws URISyntaxException if the provided URL is invalid
      */
     @PostMapping("/start")
-    public CompletableFuture<ResponseEntity<?>> startScraping(@RequestBody ScraperBody scraperBody) throws URISyntaxException {
+    public ResponseEntity<?> startScraping(@RequestBody ScraperBody scraperBody) throws URISyntaxException {
         if (scraperBody == null) {
-            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("No scraper body found"));
+            return ResponseEntity.badRequest().body("No scraper body found");
         }
 
-        return scraperService.startScraping(
-                        scraperBody.getUrl(),
-                        scraperBody.getRecursionDepth(),
-                        scraperBody.getRequestDelay(),
-                        scraperBody.getProxies()
-                )
-                .thenApply(result -> {
-                    if (result.isEmpty()) {
-                        return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No links found");
-                    }
-                    return ResponseEntity.ok(result);
-                })
-                .exceptionally(ex -> {
-                    // Log the full exception (could be improved by adding a proper logging statement)
-                    return ResponseEntity.internalServerError().body("Processing error: " + ex.getMessage());
-                });
+        CrawlJob job = scraperService.startScraping(
+                scraperBody.getUrl(),
+                scraperBody.getRecursionDepth(),
+                scraperBody.getRequestDelay(),
+                scraperBody.getProxies(),
+                scraperBody.getLimits()
+        );
+        return accepted(job);
     }
 
+    /**
+     * Resumes a scraping session that was interrupted before it finished.
+     *
+     * @param sessionId the identifier of the session to resume
+     * @return 202 Accepted with the status of the resumed session
+     * @throws URISyntaxException if the stored URL is invalid
+     */
+    @PostMapping("/resume/{sessionId}")
+    public ResponseEntity<?> resumeScraping(@PathVariable String sessionId) throws URISyntaxException {
+        return accepted(scraperService.resumeScraping(sessionId));
+    }
+
+    /**
+     * Returns the progress of a session.
+     *
+     * @param sessionId the identifier of the session
+     * @return the status of the session
+     */
+    @GetMapping("/sessions/{sessionId}")
+    public ResponseEntity<CrawlJobStatus> getStatus(@PathVariable String sessionId) {
+        return ResponseEntity.ok(scraperService.getStatus(sessionId));
+    }
+
+    /**
+     * Cancels a running session, or deletes the results and stored state of a finished one.
+     *
+     * @param sessionId the identifier of the session
+     * @return the status of the session after the cancellation
+     */
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<CrawlJobStatus> cancel(@PathVariable String sessionId) {
+        return ResponseEntity.ok(scraperService.cancel(sessionId));
+    }
+
+    /**
+     * Returns the links visited by a finished session.
+     *
+     * @param sessionId the identifier of the session
+     * @return the visited links, or 409 Conflict while the session is still running
+     */
+    @GetMapping("/sessions/{sessionId}/result")
+    public ResponseEntity<?> getResult(@PathVariable String sessionId) {
+        Set<String> result = scraperService.getResult(sessionId);
+        if (result.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No links found");
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Streams the visited pages, processed images and errors of a session as they happen, followed by an
+     * {@code end} event once the session has finished.
+     * <p>
+     * Clients asking for {@code application/x-ndjson} get one JSON object per line; all others get Server-Sent Events.
+     *
+     * @param sessionId the identifier of the session
+     * @param accept    the media types accepted by the client
+     * @return the event stream
+     */
+    @GetMapping(value = "/sessions/{sessionId}/events",
+            produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamEvents(@PathVariable String sessionId,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        CrawlEventStream events = scraperService.getEvents(sessionId);
+        if (accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(crawlEventStreamer.ndjson(events));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noCache())
+                .body(crawlEventStreamer.serverSentEvents(events));
+    }
+
+    /**
+     * Lists the sessions that can be resumed.
+     *
+     * @return the unfinished sessions
+     */
+    @GetMapping("/sessions/resumable")
+    public ResponseEntity<List<SessionState>> getResumableSessions() {
+        return ResponseEntity.ok(scraperService.getResumableSessions());
+    }
+
+    private static ResponseEntity<CrawlJobStatus> accepted(CrawlJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/sessions/" + job.getSessionId()))
+                .body(job.status());
+    }
 
 //    @GetMapping("/images")
 //    public ResponseEntity<?> getImagesInfo(@RequestParam String site) {
@@ -0,0 +1,193 @@
+package com.webscraper.durable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.engines.FrontierQueue;
+import com.webscraper.engines.InMemoryFrontierQueue;
+import com.webscraper.entities.SessionState;
+import com.webscraper.exceptions.SessionNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the on-disk state of scraping sessions: the session description and the memory-mapped frontier.
+ * <p>
+ * Layout: {@code <crawler.durable.directory>/<sessionId>/session.json} and
+ * {@code <crawler.durable.directory>/<sessionId>/frontier/}. When durability is disabled the store hands out
+ * in-memory queues and keeps nothing on disk.
+ */
+@Slf4j
+@Component
+public class CrawlStateStore {
+
+    private static final String SESSION_FILE = "session.json";
+    private static final String FRONTIER_DIRECTORY = "frontier";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int checkpointInterval;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a CrawlStateStore.
+     *
+     * @param enabled            whether sessions are persisted and can be resumed
+     * @param directory          the root directory for session state
+     * @param segmentBytes       the size of each frontier segment file
+     * @param checkpointInterval the number of completed pages between frontier checkpoints
+     * @param objectMapper       the mapper used for session files
+     */
+    public CrawlStateStore(@Value("${crawler.durable.enabled:false}") boolean enabled,
+                           @Value("${crawler.durable.directory:crawl-state}") String directory,
+                           @Value("${crawler.durable.segmentBytes:16777216}") int segmentBytes,
+                           @Value("${crawler.durable.checkpointInterval:100}") int checkpointInterval,
+                           ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.checkpointInterval = checkpointInterval;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens the frontier queue of a session, recovering pending tasks if the session ran before.
+     *
+     * @param sessionId        the session identifier
+     * @param beforeCheckpoint called before each checkpoint is written
+     * @return a memory-mapped queue, or an in-memory queue if durability is disabled
+     * @throws IOException if the frontier files cannot be opened
+     */
+    public FrontierQueue openFrontier(String sessionId, Runnable beforeCheckpoint) throws IOException {
+        if (!enabled) {
+            return new InMemoryFrontierQueue();
+        }
+        return new MappedFrontierQueue(directory.resolve(sessionId).resolve(FRONTIER_DIRECTORY),
+                segmentBytes, checkpointInterval, beforeCheckpoint);
+    }
+
+    /**
+     * Writes the session description.
+     *
+     * @param state the session state
+     * @throws IOException if the file cannot be written
+     */
+    public void save(SessionState state) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path sessionDirectory = directory.resolve(state.id());
+        Files.createDirectories(sessionDirectory);
+        Path temp = sessionDirectory.resolve(SESSION_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), state);
+        Files.move(temp, sessionDirectory.resolve(SESSION_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the description of a session that has not finished yet.
+     *
+     * @param sessionId the session identifier
+     * @return the session state
+     * @throws SessionNotFoundException if there is no unfinished session with this id
+     */
+    public SessionState load(String sessionId) {
+        Path file = directory.resolve(sessionId).normalize().resolve(SESSION_FILE);
+        if (!enabled || !file.startsWith(directory) || !Files.exists(file)) {
+            throw new SessionNotFoundException("No resumable session: " + sessionId);
+        }
+        try {
+            SessionState state = objectMapper.readValue(file.toFile(), SessionState.class);
+            if (state.completed()) {
+                throw new SessionNotFoundException("Session already completed: " + sessionId);
+            }
+            return state;
+        } catch (IOException e) {
+            throw new SessionNotFoundException("Unreadable session " + sessionId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the sessions that were started but have not finished.
+     *
+     * @return the unfinished sessions, oldest first
+     */
+    public List<SessionState> listUnfinished() {
+        List<SessionState> sessions = new ArrayList<>();
+        if (!enabled || !Files.isDirectory(directory)) {
+            return sessions;
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                Path file = dir.resolve(SESSION_FILE);
+                if (!Files.exists(file)) {
+                    continue;
+                }
+                try {
+                    SessionState state = objectMapper.readValue(file.toFile(), SessionState.class);
+                    if (!state.completed()) {
+                        sessions.add(state);
+                    }
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable session file {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to list sessions in {}: {}", directory, e.getMessage());
+        }
+        sessions.sort(Comparator.comparingLong(SessionState::startedAt));
+        return sessions;
+    }
+
+    /**
+     * Marks a session as finished and deletes its frontier files.
+     *
+     * @param state the session state
+     */
+    public void markCompleted(SessionState state) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            save(state.withCompleted());
+            FileSystemUtils.deleteRecursively(directory.resolve(state.id()).resolve(FRONTIER_DIRECTORY));
+        } catch (IOException e) {
+            log.error("Failed to mark session {} as completed: {}", state.id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the session description and frontier of a session.
+     *
+     * @param sessionId the session identifier
+     */
+    public void delete(String sessionId) {
+        if (!enabled) {
+            return;
+        }
+        Path sessionDirectory = directory.resolve(sessionId).normalize();
+        if (!sessionDirectory.startsWith(directory)) {
+            return;
+        }
+        try {
+            FileSystemUtils.deleteRecursively(sessionDirectory);
+        } catch (IOException e) {
+            log.error("Failed to delete state of session {}: {}", sessionId, e.getMessage());
+        }
+    }
+}
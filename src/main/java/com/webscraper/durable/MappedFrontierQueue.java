@@ -0,0 +1,201 @@
+package com.webscraper.durable;
+
+import com.webscraper.engines.FrontierQueue;
+import com.webscraper.entities.CrawlTask;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * {@link FrontierQueue} kept in a {@link MappedSegmentLog}, so pending tasks survive a restart.
+ * <p>
+ * Enqueue appends to the log tail and dequeue advances a read cursor, both in O(1). Every
+ * {@code checkpointInterval} completed tasks the oldest position still needed (the first in-flight task,
+ * or the read cursor if nothing is in flight) is written to a mapped checkpoint file and segments before it
+ * are deleted. After a restart the queue resumes from the checkpoint, so tasks that were in flight are
+ * processed again.
+ * <p>
+ * The queue is used under the frontier lock, so a checkpoint only takes the position there. Flushing the
+ * segments, writing the checkpoint file and deleting old segments happen on a background thread; if
+ * checkpoints are requested faster than they are written, only the latest position is persisted.
+ */
+@Slf4j
+public class MappedFrontierQueue implements FrontierQueue {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final ExecutorService CHECKPOINT_WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "frontier-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MappedSegmentLog segmentLog;
+    private final MappedByteBuffer checkpoint;
+    private final int checkpointInterval;
+    private final Runnable beforeCheckpoint;
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private final AtomicReference<Snapshot> requested = new AtomicReference<>();
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private volatile CompletableFuture<Void> writer = CompletableFuture.completedFuture(null);
+    private long head;
+    private int size;
+    private int completedSinceCheckpoint;
+
+    /**
+     * Opens the queue stored in the given directory, recovering any tasks left by a previous run.
+     *
+     * @param directory          the directory for the segment and checkpoint files
+     * @param segmentBytes       the size of each segment file
+     * @param checkpointInterval the number of completed tasks between checkpoints
+     * @param beforeCheckpoint   called before a checkpoint is written, e.g. to flush the visited log
+     * @throws IOException if the files cannot be opened
+     */
+    public MappedFrontierQueue(Path directory, int segmentBytes, int checkpointInterval,
+                               Runnable beforeCheckpoint) throws IOException {
+        this.segmentLog = new MappedSegmentLog(directory, segmentBytes);
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+        this.beforeCheckpoint = beforeCheckpoint;
+        try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.checkpoint = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        }
+        this.head = checkpoint.getLong(0);
+        this.size = segmentLog.recover(head, task -> { });
+        if (size > 0) {
+            log.info("Recovered {} pending tasks from {}", size, directory);
+        }
+    }
+
+    @Override
+    public void add(CrawlTask task) {
+        try {
+            segmentLog.append(task);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to frontier log", e);
+        }
+        size++;
+    }
+
+    @Override
+    public Entry poll() {
+        MappedSegmentLog.Record record;
+        try {
+            record = segmentLog.read(head);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read frontier log", e);
+        }
+        if (record == null) {
+            return null;
+        }
+        head = record.next();
+        size--;
+        inFlight.add(record.position());
+        return new Entry(record.position(), record.task());
+    }
+
+    @Override
+    public void complete(Entry entry) {
+        inFlight.remove(entry.position());
+        if (++completedSinceCheckpoint >= checkpointInterval) {
+            requested.set(snapshot());
+            if (writing.compareAndSet(false, true)) {
+                writer = CompletableFuture.runAsync(this::drain, CHECKPOINT_WRITER);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEachPending(Consumer<CrawlTask> consumer) {
+        try {
+            long position = head;
+            MappedSegmentLog.Record record;
+            while ((record = segmentLog.read(position)) != null) {
+                consumer.accept(record.task());
+                position = record.next();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read frontier log", e);
+        }
+    }
+
+    /**
+     * Persists the oldest position that still has to be processed and drops the segments before it.
+     * <p>
+     * Waits for a checkpoint being written in the background first, so positions are persisted in order.
+     */
+    public void checkpoint() {
+        awaitCheckpoint();
+        requested.set(null);
+        write(snapshot());
+    }
+
+    /**
+     * Waits until the checkpoints requested so far have been written.
+     */
+    void awaitCheckpoint() {
+        writer.join();
+    }
+
+    private Snapshot snapshot() {
+        long position = inFlight.isEmpty() ? head : inFlight.first();
+        completedSinceCheckpoint = 0;
+        return new Snapshot(position, segmentLog.retainFrom(position));
+    }
+
+    private void drain() {
+        do {
+            Snapshot snapshot;
+            while ((snapshot = requested.getAndSet(null)) != null) {
+                write(snapshot);
+            }
+            writing.set(false);
+        } while (requested.get() != null && writing.compareAndSet(false, true));
+    }
+
+    private void write(Snapshot snapshot) {
+        try {
+            beforeCheckpoint.run();
+            snapshot.segments().forEach(MappedByteBuffer::force);
+            checkpoint.putLong(0, snapshot.position());
+            checkpoint.force();
+            segmentLog.deleteFilesBefore(snapshot.position());
+        } catch (IOException e) {
+            log.warn("Failed to delete consumed frontier segments: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Failed to write frontier checkpoint: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        checkpoint();
+        segmentLog.close();
+    }
+
+    /**
+     * A checkpoint taken under the frontier lock, to be written in the background.
+     *
+     * @param position the oldest position that still has to be processed
+     * @param segments the mapped segments from the one holding {@code position} up to the tail
+     */
+    private record Snapshot(long position, List<MappedByteBuffer> segments) {
+    }
+}
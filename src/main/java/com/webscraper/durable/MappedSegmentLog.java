@@ -0,0 +1,223 @@
+package com.webscraper.durable;
+
+import com.webscraper.entities.CrawlTask;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of crawl tasks stored in fixed-size memory-mapped segment files.
+ * <p>
+ * Each record is laid out as {@code [int length][int depth][length bytes of UTF-8 URL]}. New segments are
+ * zero-filled, so a length of 0 marks the end of the written data in a segment. The length is written last,
+ * which makes a record visible only once it is complete. Positions are global byte offsets:
+ * {@code segmentIndex * segmentBytes + offsetInSegment}.
+ * <p>
+ * Segments stay mapped until {@link #retainFrom(long)} drops them, so only the span between the last
+ * checkpoint and the tail is mapped. The log is not thread-safe.
+ */
+public class MappedSegmentLog implements Closeable {
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private long tail;
+
+    /**
+     * Opens (or creates) a segment log in the given directory.
+     *
+     * @param directory    the directory holding the segment files
+     * @param segmentBytes the size of each segment file
+     * @throws IOException if the directory cannot be created
+     */
+    public MappedSegmentLog(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Scans the log from the given position to find the tail left by a previous run.
+     *
+     * @param from     the position to start scanning from, usually the last checkpoint
+     * @param consumer receives every task found after {@code from}
+     * @return the number of records found
+     * @throws IOException if a segment cannot be mapped
+     */
+    public int recover(long from, Consumer<CrawlTask> consumer) throws IOException {
+        long position = from;
+        int count = 0;
+        while (Files.exists(segmentPath(position / segmentBytes))) {
+            long segment = position / segmentBytes;
+            MappedByteBuffer buffer = segment(segment);
+            int offset = (int) (position % segmentBytes);
+            while (offset + HEADER_BYTES <= segmentBytes && buffer.getInt(offset) != 0) {
+                Record record = decode(buffer, segment, offset);
+                consumer.accept(record.task());
+                offset = (int) (record.next() - segment * segmentBytes);
+                count++;
+            }
+            position = segment * segmentBytes + offset;
+            if (!Files.exists(segmentPath(segment + 1))) {
+                break;
+            }
+            position = (segment + 1) * segmentBytes;
+        }
+        tail = position;
+        return count;
+    }
+
+    /**
+     * Appends a task at the tail of the log, starting a new segment when the current one is full.
+     *
+     * @param task the task to append
+     * @return the position of the new record
+     * @throws IOException if a new segment cannot be mapped
+     */
+    public long append(CrawlTask task) throws IOException {
+        byte[] url = task.url().getBytes(StandardCharsets.UTF_8);
+        int recordBytes = HEADER_BYTES + url.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("URL does not fit into a log segment: " + task.url());
+        }
+        if (tail % segmentBytes + recordBytes > segmentBytes) {
+            tail = (tail / segmentBytes + 1) * segmentBytes;
+        }
+        long position = tail;
+        int offset = (int) (position % segmentBytes);
+        MappedByteBuffer buffer = segment(position / segmentBytes);
+        buffer.putInt(offset + Integer.BYTES, task.depth());
+        buffer.put(offset + HEADER_BYTES, url);
+        buffer.putInt(offset, url.length);
+        tail += recordBytes;
+        return position;
+    }
+
+    /**
+     * Reads the first record at or after the given position.
+     *
+     * @param position the read position
+     * @return the record, or null if the position is at the tail
+     * @throws IOException if a segment cannot be mapped
+     */
+    public Record read(long position) throws IOException {
+        if (position >= tail) {
+            return null;
+        }
+        int offset = (int) (position % segmentBytes);
+        MappedByteBuffer buffer = segment(position / segmentBytes);
+        if (offset + HEADER_BYTES > segmentBytes || buffer.getInt(offset) == 0) {
+            return read((position / segmentBytes + 1) * segmentBytes);
+        }
+        return decode(buffer, position / segmentBytes, offset);
+    }
+
+    /**
+     * Returns the position the next record will be written at.
+     *
+     * @return the tail position
+     */
+    public long tail() {
+        return tail;
+    }
+
+    /**
+     * Flushes the mapped segments to the storage device.
+     */
+    public void force() {
+        segments.values().forEach(MappedByteBuffer::force);
+    }
+
+    /**
+     * Unmaps the segments that lie entirely before the given position and returns the ones still mapped.
+     *
+     * @param position the oldest position that must be kept
+     * @return the mapped segments from the one holding {@code position} up to the tail
+     */
+    public List<MappedByteBuffer> retainFrom(long position) {
+        segments.headMap(position / segmentBytes).clear();
+        return new ArrayList<>(segments.values());
+    }
+
+    /**
+     * Deletes the segment files that lie entirely before the given position.
+     * <p>
+     * Only touches files that {@link #retainFrom(long)} has unmapped, so unlike the rest of the log it may be
+     * called from another thread.
+     *
+     * @param position the oldest position that must be kept
+     * @throws IOException if a segment file cannot be deleted
+     */
+    public void deleteFilesBefore(long position) throws IOException {
+        long firstKept = position / segmentBytes;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                if (segmentIndex(file) < firstKept) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        segments.clear();
+    }
+
+    private Record decode(MappedByteBuffer buffer, long segment, int offset) {
+        int length = buffer.getInt(offset);
+        int depth = buffer.getInt(offset + Integer.BYTES);
+        byte[] url = new byte[length];
+        buffer.get(offset + HEADER_BYTES, url);
+        long position = segment * segmentBytes + offset;
+        return new Record(position, new CrawlTask(new String(url, StandardCharsets.UTF_8), depth),
+                position + HEADER_BYTES + length);
+    }
+
+    private MappedByteBuffer segment(long index) throws IOException {
+        MappedByteBuffer buffer = segments.get(index);
+        if (buffer == null) {
+            try (FileChannel channel = FileChannel.open(segmentPath(index),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            }
+            segments.put(index, buffer);
+        }
+        return buffer;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * A record read from the log.
+     *
+     * @param position the position of the record
+     * @param task     the stored task
+     * @param next     the position right after the record
+     */
+    public record Record(long position, CrawlTask task, long next) {
+    }
+}
@@ -0,0 +1,130 @@
+package com.webscraper.engines;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caps the pages, bytes, images and wall-clock time of a scraping session.
+ * <p>
+ * Pages and images are reserved when they are scheduled, so the page and image limits stop new work while the
+ * work already scheduled finishes. The byte limit and the deadline exhaust the budget: the crawl then stops
+ * dispatching queued pages and ends with what it has. All checks are single atomic operations on the hot path.
+ */
+public class CrawlBudget {
+
+    private final long maxPages;
+    private final long maxBytes;
+    private final long maxImages;
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong images = new AtomicLong();
+    private final AtomicReference<String> limitReached = new AtomicReference<>();
+    private volatile boolean exhausted;
+
+    /**
+     * Constructs a CrawlBudget; non-positive values mean no limit.
+     *
+     * @param maxPages       the maximum number of pages scheduled for fetching
+     * @param maxBytes       the maximum number of page body bytes downloaded
+     * @param maxImages      the maximum number of images processed
+     * @param durationMillis the maximum wall-clock time of the crawl, counted from now
+     */
+    public CrawlBudget(long maxPages, long maxBytes, long maxImages, long durationMillis) {
+        this.maxPages = maxPages > 0 ? maxPages : Long.MAX_VALUE;
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        this.maxImages = maxImages > 0 ? maxImages : Long.MAX_VALUE;
+        this.hasDeadline = durationMillis > 0;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, durationMillis));
+    }
+
+    /**
+     * Returns a budget without limits.
+     *
+     * @return the budget
+     */
+    public static CrawlBudget unlimited() {
+        return new CrawlBudget(0, 0, 0, 0);
+    }
+
+    /**
+     * Checks whether the byte limit or the deadline was reached.
+     *
+     * @return true if the crawl has to stop
+     */
+    public boolean isExhausted() {
+        if (exhausted) {
+            return true;
+        }
+        if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+            exhaust("deadline");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reserves a page.
+     *
+     * @return true if the page may be scheduled; false if the budget is exhausted or the page limit was reached
+     */
+    public boolean tryAcquirePage() {
+        return !isExhausted() && reserve(pages, maxPages, "page limit");
+    }
+
+    /**
+     * Reserves an image.
+     *
+     * @return true if the image may be processed; false if the budget is exhausted or the image limit was reached
+     */
+    public boolean tryAcquireImage() {
+        return !isExhausted() && reserve(images, maxImages, "image limit");
+    }
+
+    /**
+     * Records downloaded page bytes and exhausts the budget once the byte limit is reached.
+     *
+     * @param count the number of bytes read
+     */
+    public void onBytes(long count) {
+        if (bytes.addAndGet(count) >= maxBytes) {
+            exhaust("byte limit");
+        }
+    }
+
+    private boolean reserve(AtomicLong counter, long max, String limit) {
+        if (counter.get() >= max || counter.incrementAndGet() > max) {
+            limitReached.compareAndSet(null, limit);
+            return false;
+        }
+        return true;
+    }
+
+    private void exhaust(String limit) {
+        limitReached.compareAndSet(null, limit);
+        exhausted = true;
+    }
+
+    /**
+     * Returns the first limit the session ran into.
+     *
+     * @return the limit, e.g. {@code page limit}, or null if the crawl stayed within its budget
+     */
+    public String getLimitReached() {
+        return limitReached.get();
+    }
+
+    public long getPages() {
+        return Math.min(pages.get(), maxPages);
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getImages() {
+        return Math.min(images.get(), maxImages);
+    }
+}
@@ -0,0 +1,106 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.CrawlEvent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded buffer of the events of one scraping session, read by at most one client at a time.
+ * <p>
+ * Crawl threads never wait for the client: when the buffer is full, events are dropped and counted, and the
+ * client receives a {@code DROPPED} event with the count before the next buffered one. Visited links that were
+ * dropped are still in the session's result. Once the session ends, the client receives an {@code END} event
+ * after the remaining buffered events.
+ */
+public class CrawlEventStream {
+
+    private final BlockingQueue<CrawlEvent> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile CrawlEvent end;
+
+    /**
+     * Constructs a CrawlEventStream.
+     *
+     * @param capacity the maximum number of events waiting for the client
+     */
+    public CrawlEventStream(int capacity) {
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Adds an event without waiting; the event is dropped if the buffer is full or the stream has ended.
+     *
+     * @param event the event to add
+     */
+    public void publish(CrawlEvent event) {
+        if (end != null) {
+            return;
+        }
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Ends the stream; the client receives the given event once it has read the buffered ones.
+     *
+     * @param event the final event
+     */
+    public void close(CrawlEvent event) {
+        if (end != null) {
+            return;
+        }
+        end = event;
+        // wakes up a waiting client; if the buffer is full the client finds the end once it has drained it
+        buffer.offer(event);
+    }
+
+    /**
+     * Claims the stream for a client.
+     *
+     * @return false if another client is reading the stream
+     */
+    public boolean subscribe() {
+        return subscribed.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases the stream, so another client can read the rest of it.
+     */
+    public void unsubscribe() {
+        subscribed.set(false);
+    }
+
+    /**
+     * Returns the next event, waiting for one up to the given time.
+     *
+     * @param timeoutMillis the longest time to wait
+     * @return the next event, the {@code END} event once the stream has ended and is drained, or null on timeout
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public CrawlEvent poll(long timeoutMillis) throws InterruptedException {
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            return CrawlEvent.dropped(lost);
+        }
+        CrawlEvent event = buffer.poll();
+        if (event == null && end == null) {
+            event = buffer.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return event != null ? event : end;
+    }
+
+    /**
+     * Checks whether an event can be read without waiting.
+     *
+     * @return true if events are buffered or were dropped
+     */
+    public boolean hasPending() {
+        return !buffer.isEmpty() || dropped.get() > 0;
+    }
+}
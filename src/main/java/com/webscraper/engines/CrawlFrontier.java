@@ -0,0 +1,318 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.CrawlTask;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded URL frontier for a single scraping session.
+ * <p>
+ * Holds pending {@link CrawlTask}s in a {@link FrontierQueue} and hands them to a worker function while
+ * at most {@code maxInFlight} tasks are running. The frontier completes once the queue is empty
+ * and no task is in flight or waiting to be requeued, so no chain of futures has to be kept for the crawl tree.
+ */
+@Slf4j
+public class CrawlFrontier {
+
+    private final FrontierQueue queue;
+    private final int capacity;
+    private final int maxInFlight;
+    private final Function<CrawlTask, CompletableFuture<Void>> worker;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final AtomicLong droppedTasks = new AtomicLong();
+    private int inFlight;
+    private int delayed;
+    private int reserved;
+    private boolean cancelled;
+    private boolean stopped;
+    private boolean dispatching;
+    private boolean dispatchRequested;
+
+    /**
+     * Constructs a new CrawlFrontier backed by an in-memory queue.
+     *
+     * @param capacity    the maximum number of pending tasks kept in the queue
+     * @param maxInFlight the maximum number of tasks processed concurrently
+     * @param worker      the function that processes a task and completes when it is done
+     */
+    public CrawlFrontier(int capacity, int maxInFlight, Function<CrawlTask, CompletableFuture<Void>> worker) {
+        this(new InMemoryFrontierQueue(), capacity, maxInFlight, worker);
+    }
+
+    /**
+     * Constructs a new CrawlFrontier.
+     *
+     * @param queue       the queue holding pending tasks; may already contain tasks of a resumed crawl
+     * @param capacity    the maximum number of pending tasks kept in the queue
+     * @param maxInFlight the maximum number of tasks processed concurrently
+     * @param worker      the function that processes a task and completes when it is done
+     */
+    public CrawlFrontier(FrontierQueue queue, int capacity, int maxInFlight,
+                         Function<CrawlTask, CompletableFuture<Void>> worker) {
+        this.queue = queue;
+        this.capacity = capacity;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.worker = worker;
+    }
+
+    /**
+     * Reserves a place in the queue for a task that is about to be offered.
+     * <p>
+     * Callers reserve before they mark a URL as visited, so a URL that does not fit is not recorded and can be
+     * offered again when it is discovered on a later page. A reservation is either used by {@link #offer} or
+     * returned with {@link #release}.
+     *
+     * @return true if a place was reserved; false if the queue is full or the crawl is finished
+     */
+    public boolean reserve() {
+        synchronized (this) {
+            if (completion.isDone() || cancelled || stopped) {
+                return false;
+            }
+            if (queue.size() + reserved >= capacity) {
+                if (droppedTasks.incrementAndGet() == 1) {
+                    log.warn("Frontier is full ({} tasks). Discovered URLs are skipped until it drains.", capacity);
+                }
+                return false;
+            }
+            reserved++;
+            return true;
+        }
+    }
+
+    /**
+     * Returns a reservation that is not used.
+     */
+    public void release() {
+        synchronized (this) {
+            reserved--;
+        }
+        dispatch();
+    }
+
+    /**
+     * Adds a task to the frontier, using a place reserved with {@link #reserve}.
+     *
+     * @param task the task to enqueue
+     * @return true if the task was accepted; false if the crawl ended since the reservation
+     */
+    public boolean offer(CrawlTask task) {
+        synchronized (this) {
+            reserved--;
+            if (completion.isDone() || cancelled || stopped) {
+                return false;
+            }
+            queue.add(task);
+        }
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Puts a task back into the frontier after a delay, e.g. to retry a page that failed.
+     * <p>
+     * The wait runs on the given timer rather than a worker thread. The frontier does not complete while a
+     * delayed task is pending, and requeued tasks are accepted even when the queue is full.
+     *
+     * @param task        the task to retry
+     * @param delayMillis the delay before the task is queued again
+     * @param timer       the scheduler that runs the delay
+     */
+    public void requeue(CrawlTask task, long delayMillis, ScheduledExecutorService timer) {
+        synchronized (this) {
+            if (completion.isDone() || cancelled || stopped) {
+                return;
+            }
+            delayed++;
+        }
+        try {
+            timer.schedule(() -> {
+                synchronized (this) {
+                    delayed--;
+                    if (!cancelled && !stopped) {
+                        queue.add(task);
+                    }
+                }
+                dispatch();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Retry timer is shut down. Dropping URL: {}", task.url());
+            synchronized (this) {
+                delayed--;
+            }
+            dispatch();
+        }
+    }
+
+    /**
+     * Starts dispatching queued tasks.
+     *
+     * @return a CompletableFuture that completes when the frontier is drained and no task is in flight
+     */
+    public CompletableFuture<Void> start() {
+        dispatch();
+        return completion;
+    }
+
+    /**
+     * Stops the crawl: queued and delayed tasks are no longer dispatched, and the frontier completes with a
+     * {@link CancellationException} as soon as the tasks in flight have returned. Tasks that return after the
+     * cancellation are not marked as processed in the queue, so a resumed crawl runs them again.
+     */
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled || completion.isDone()) {
+                return;
+            }
+            cancelled = true;
+            log.info("Crawl cancelled with {} URLs queued and {} in flight.", queue.size(), inFlight);
+        }
+        dispatch();
+    }
+
+    /**
+     * Ends the crawl early, e.g. when the session's budget is used up: queued and delayed tasks are no longer
+     * dispatched, and the frontier completes normally as soon as the tasks in flight have returned.
+     *
+     * @param reason the reason for stopping, logged once
+     */
+    public void stop(String reason) {
+        synchronized (this) {
+            if (cancelled || stopped || completion.isDone()) {
+                return;
+            }
+            stopped = true;
+            log.info("Crawl stopped ({}) with {} URLs queued and {} in flight.", reason, queue.size(), inFlight);
+        }
+        dispatch();
+    }
+
+    /**
+     * Returns the number of tasks waiting in the queue.
+     *
+     * @return the queue depth
+     */
+    public synchronized int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of tasks currently being processed.
+     *
+     * @return the in-flight task count
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Returns the number of discovered URLs skipped because the queue was full.
+     *
+     * @return the dropped task count
+     */
+    public long droppedTasks() {
+        return droppedTasks.get();
+    }
+
+    /**
+     * Moves as many queued tasks to the worker as the in-flight limit allows and completes
+     * the frontier once there is nothing left to do.
+     * <p>
+     * Only one thread dispatches at a time. A call made while another one is dispatching, e.g. by a task that
+     * completed immediately inside {@link #run}, only asks the running dispatch for another pass, so a long run
+     * of such tasks loops instead of growing the stack.
+     */
+    private void dispatch() {
+        synchronized (this) {
+            if (dispatching) {
+                dispatchRequested = true;
+                return;
+            }
+            dispatching = true;
+        }
+        while (true) {
+            List<FrontierQueue.Entry> ready = new ArrayList<>();
+            boolean finished = false;
+            boolean aborted = false;
+            synchronized (this) {
+                dispatchRequested = false;
+                if (completion.isDone()) {
+                    dispatching = false;
+                    return;
+                }
+                if (cancelled) {
+                    aborted = inFlight == 0;
+                } else if (stopped) {
+                    finished = inFlight == 0;
+                } else {
+                    while (inFlight < maxInFlight && !queue.isEmpty()) {
+                        ready.add(queue.poll());
+                        inFlight++;
+                    }
+                    if (inFlight == 0 && delayed == 0 && reserved == 0 && queue.isEmpty()) {
+                        finished = true;
+                    }
+                }
+                if (aborted || finished) {
+                    dispatching = false;
+                }
+            }
+            if (aborted) {
+                completion.completeExceptionally(new CancellationException("Crawl cancelled"));
+                return;
+            }
+            if (finished) {
+                if (droppedTasks.get() > 0) {
+                    log.warn("Crawl finished with {} discovered URLs skipped due to a full frontier.", droppedTasks.get());
+                }
+                completion.complete(null);
+                return;
+            }
+            for (FrontierQueue.Entry entry : ready) {
+                run(entry);
+            }
+            synchronized (this) {
+                if (!dispatchRequested) {
+                    dispatching = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a single task and releases its in-flight slot when the task completes.
+     *
+     * @param entry the queue entry of the task to run
+     */
+    private void run(FrontierQueue.Entry entry) {
+        CrawlTask task = entry.task();
+        CompletableFuture<Void> future;
+        try {
+            future = worker.apply(task);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((v, ex) -> {
+            if (ex != null) {
+                log.error("Error processing URL: {}. Error: {}", task.url(), ex.getMessage());
+            }
+            synchronized (this) {
+                inFlight--;
+                if (!cancelled) {
+                    queue.complete(entry);
+                }
+            }
+            dispatch();
+        });
+    }
+}
@@ -0,0 +1,173 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.CrawlEvent;
+import com.webscraper.entities.CrawlJobStatus;
+import com.webscraper.entities.ScraperSession;
+import com.webscraper.visited.VisitedUrlLog;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * A scraping session started through the job API.
+ * <p>
+ * Cancelling the job never interrupts threads: the session's tracked fetches are cancelled, and tasks that start
+ * afterwards see the cancelled {@link CrawlProgress} and stop. Threads that are appending to the result file or
+ * the frontier log finish their write, so both stay intact and the session can be resumed. Its state only moves
+ * forward; a cancelled job stays cancelled when its crawl future completes afterwards.
+ */
+public class CrawlJob {
+
+    private final String sessionId;
+    private final String url;
+    private final long startedAt = System.currentTimeMillis();
+    private final Executor linkExecutor;
+    private final CrawlEventStream events;
+    private final CrawlProgress progress;
+    private volatile ScraperSession session;
+    private volatile VisitedUrlLog results;
+    private CrawlJobStatus.State state = CrawlJobStatus.State.STARTING;
+    private long finishedAt;
+    private String error;
+
+    /**
+     * Constructs a CrawlJob.
+     *
+     * @param sessionId     the session identifier
+     * @param url           the starting URL
+     * @param linkExecutor  the shared executor for page fetches
+     * @param eventBuffer   the maximum number of events buffered for a streaming client
+     */
+    public CrawlJob(String sessionId, String url, Executor linkExecutor, int eventBuffer) {
+        this.sessionId = sessionId;
+        this.url = url;
+        this.linkExecutor = linkExecutor;
+        this.events = new CrawlEventStream(eventBuffer);
+        this.progress = new CrawlProgress(events);
+    }
+
+    /**
+     * Attaches the session once it is set up and marks the job as running.
+     *
+     * @param session the session being crawled
+     * @param results the log receiving the visited links
+     * @return false if the job was cancelled in the meantime
+     */
+    public synchronized boolean attach(ScraperSession session, VisitedUrlLog results) {
+        session.setProgress(progress);
+        this.session = session;
+        this.results = results;
+        if (state != CrawlJobStatus.State.STARTING) {
+            return false;
+        }
+        state = CrawlJobStatus.State.RUNNING;
+        return true;
+    }
+
+    /**
+     * Cancels the job: no new pages or images are started, running fetches are cancelled and the session's
+     * frontier completes. The frontier is cancelled first, so a fetch that ends early because of the cancellation
+     * cannot let it drain and complete normally.
+     *
+     * @return false if the job had already finished
+     */
+    public boolean cancel() {
+        synchronized (this) {
+            if (state.isFinished()) {
+                return false;
+            }
+            finish(CrawlJobStatus.State.CANCELLED, null);
+        }
+        ScraperSession current = session;
+        if (current != null && current.getFrontier() != null) {
+            current.getFrontier().cancel();
+        }
+        progress.cancel();
+        return true;
+    }
+
+    /**
+     * Marks the job as completed unless it already ended.
+     */
+    public synchronized void complete() {
+        if (!state.isFinished()) {
+            finish(CrawlJobStatus.State.COMPLETED, null);
+        }
+    }
+
+    /**
+     * Marks the job as failed unless it already ended.
+     *
+     * @param cause the failure
+     */
+    public synchronized void fail(Throwable cause) {
+        if (!state.isFinished()) {
+            finish(CrawlJobStatus.State.FAILED, cause.getMessage());
+        }
+    }
+
+    private void finish(CrawlJobStatus.State finalState, String reason) {
+        state = finalState;
+        error = reason;
+        finishedAt = System.currentTimeMillis();
+        events.close(CrawlEvent.end(finalState));
+    }
+
+    /**
+     * Returns a snapshot of the job's progress.
+     *
+     * @return the status
+     */
+    public synchronized CrawlJobStatus status() {
+        CrawlFrontier frontier = session != null ? session.getFrontier() : null;
+        return new CrawlJobStatus(sessionId, url, state, startedAt, finishedAt,
+                progress.getPages(), progress.getImages(), progress.getErrors(),
+                frontier != null ? frontier.queueDepth() : 0, frontier != null ? frontier.inFlight() : 0, error,
+                session != null ? session.getBudget().getLimitReached() : null);
+    }
+
+    /**
+     * Returns the links visited so far, streamed from the session's result file.
+     *
+     * @return the visited links; empty while the session is being set up
+     */
+    public Set<String> visitedLinks() {
+        VisitedUrlLog log = results;
+        return log != null ? log.asSet() : Set.of();
+    }
+
+    /**
+     * Deletes the session's result file; the visited links are empty afterwards.
+     */
+    public void deleteResults() {
+        VisitedUrlLog log = results;
+        if (log != null) {
+            log.delete();
+        }
+    }
+
+    /**
+     * Checks whether the job ended in a way that can be resumed from its checkpoint.
+     *
+     * @return true if the job was cancelled or failed
+     */
+    public synchronized boolean isResumable() {
+        return state == CrawlJobStatus.State.CANCELLED || state == CrawlJobStatus.State.FAILED;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public CrawlEventStream getEvents() {
+        return events;
+    }
+
+    public synchronized boolean isFinished() {
+        return state.isFinished();
+    }
+
+    public Executor getLinkExecutor() {
+        return linkExecutor;
+    }
+}
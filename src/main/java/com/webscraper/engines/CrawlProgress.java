@@ -0,0 +1,118 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.CompressionResult;
+import com.webscraper.entities.CrawlEvent;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the work done by a scraping session, reports it to the session's event stream and carries its
+ * cancellation flag.
+ * <p>
+ * Running fetches are registered with {@link #track(CompletableFuture)}; cancelling the session cancels them
+ * instead of interrupting the threads that run them.
+ */
+public class CrawlProgress {
+
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder images = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Set<CompletableFuture<?>> running = ConcurrentHashMap.newKeySet();
+    private final CrawlEventStream events;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a CrawlProgress that only counts.
+     */
+    public CrawlProgress() {
+        this(null);
+    }
+
+    /**
+     * Constructs a CrawlProgress.
+     *
+     * @param events the stream receiving the session's events, or null
+     */
+    public CrawlProgress(CrawlEventStream events) {
+        this.events = events;
+    }
+
+    /**
+     * Records a page that was fetched and handed to the content handlers.
+     *
+     * @param url the URL of the page
+     */
+    public void onPage(String url) {
+        pages.increment();
+        if (events != null) {
+            events.publish(CrawlEvent.page(url));
+        }
+    }
+
+    /**
+     * Records an image that was processed.
+     *
+     * @param url    the URL of the image
+     * @param result the compression result, or null if the image was skipped
+     */
+    public void onImage(String url, CompressionResult result) {
+        images.increment();
+        if (events != null && result != null) {
+            events.publish(CrawlEvent.image(url, result));
+        }
+    }
+
+    /**
+     * Records a page or image that failed for good.
+     *
+     * @param url     the URL of the page or image
+     * @param message the reason of the failure
+     */
+    public void onError(String url, String message) {
+        errors.increment();
+        if (events != null) {
+            events.publish(CrawlEvent.error(url, message));
+        }
+    }
+
+    /**
+     * Registers a running fetch, so cancelling the session cancels it. A fetch registered after the
+     * cancellation is cancelled at once.
+     *
+     * @param future the future of the fetch; its cancellation must abort the request
+     */
+    public void track(CompletableFuture<?> future) {
+        running.add(future);
+        future.whenComplete((result, ex) -> running.remove(future));
+        if (cancelled) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Marks the session as cancelled and cancels the tracked fetches; tasks check the flag before they start work.
+     */
+    public void cancel() {
+        cancelled = true;
+        running.forEach(future -> future.cancel(true));
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getPages() {
+        return pages.sum();
+    }
+
+    public long getImages() {
+        return images.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+}
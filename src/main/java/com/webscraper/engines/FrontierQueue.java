@@ -0,0 +1,62 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.CrawlTask;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+/**
+ * FIFO storage behind a {@link CrawlFrontier}.
+ * <p>
+ * Implementations are not thread-safe; the frontier calls them while holding its own lock.
+ */
+public interface FrontierQueue extends Closeable {
+
+    /**
+     * Appends a task to the tail of the queue.
+     *
+     * @param task the task to enqueue
+     */
+    void add(CrawlTask task);
+
+    /**
+     * Removes the task at the head of the queue.
+     *
+     * @return the head entry, or null if the queue is empty
+     */
+    Entry poll();
+
+    /**
+     * Marks a polled entry as fully processed.
+     *
+     * @param entry the entry returned by {@link #poll()}
+     */
+    void complete(Entry entry);
+
+    /**
+     * Returns the number of queued tasks.
+     *
+     * @return the queue size
+     */
+    int size();
+
+    /**
+     * Passes every queued task, head first, to the consumer without removing it.
+     *
+     * @param consumer the consumer of pending tasks
+     */
+    void forEachPending(Consumer<CrawlTask> consumer);
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * A polled task together with its position in the queue.
+     *
+     * @param position the position of the task, increasing in queue order
+     * @param task     the crawl task
+     */
+    record Entry(long position, CrawlTask task) {
+    }
+}
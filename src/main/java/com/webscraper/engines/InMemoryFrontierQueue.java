@@ -0,0 +1,47 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.CrawlTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Heap-only {@link FrontierQueue}; its content is lost when the JVM stops.
+ */
+public class InMemoryFrontierQueue implements FrontierQueue {
+
+    private final Deque<CrawlTask> queue = new ArrayDeque<>();
+    private long position;
+
+    @Override
+    public void add(CrawlTask task) {
+        queue.addLast(task);
+    }
+
+    @Override
+    public Entry poll() {
+        CrawlTask task = queue.pollFirst();
+        return task == null ? null : new Entry(position++, task);
+    }
+
+    @Override
+    public void complete(Entry entry) {
+        // nothing to release
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void forEachPending(Consumer<CrawlTask> consumer) {
+        queue.forEach(consumer);
+    }
+
+    @Override
+    public void close() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,78 @@
+package com.webscraper.engines;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how many pages of a scraping session were served from the validator cache.
+ * <p>
+ * A hit is a page the server answered with 304 Not Modified; its links and images were taken from the cache
+ * and the saved bytes are the size of the body stored for it.
+ */
+public class PageCacheStats {
+
+    private final LongAdder fetched = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+
+    /**
+     * Records a page whose body was downloaded.
+     *
+     * @param bodyBytes the number of body bytes read
+     * @param sameHash  whether the body matched the cached content hash
+     */
+    public void onFetched(long bodyBytes, boolean sameHash) {
+        fetched.increment();
+        bytesRead.add(bodyBytes);
+        if (sameHash) {
+            unchanged.increment();
+        }
+    }
+
+    /**
+     * Records a page answered with 304 Not Modified.
+     *
+     * @param cachedBytes the size of the cached body that did not have to be downloaded
+     */
+    public void onNotModified(long cachedBytes) {
+        notModified.increment();
+        bytesSaved.add(cachedBytes);
+    }
+
+    /**
+     * Returns the share of pages answered with 304 Not Modified.
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public double hitRate() {
+        long hits = notModified.sum();
+        long total = hits + fetched.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    public long getFetched() {
+        return fetched.sum();
+    }
+
+    /**
+     * Returns the number of downloaded pages whose body had not changed although the server sent it again.
+     *
+     * @return the number of unchanged pages
+     */
+    public long getUnchanged() {
+        return unchanged.sum();
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+}
@@ -0,0 +1,56 @@
+package com.webscraper.engines;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the retries of a scraping session to a fraction of its requests.
+ * <p>
+ * A retry is allowed while {@code retries < minRetries + ratio * requests}, so a crawl against a failing site
+ * cannot multiply its own load.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final long minRetries;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * Constructs a RetryBudget.
+     *
+     * @param ratio      the number of retries allowed per request
+     * @param minRetries the number of retries allowed regardless of the request count
+     */
+    public RetryBudget(double ratio, long minRetries) {
+        this.ratio = ratio;
+        this.minRetries = minRetries;
+    }
+
+    /**
+     * Records a request sent by the session.
+     */
+    public void onRequest() {
+        requests.incrementAndGet();
+    }
+
+    /**
+     * Takes one retry from the budget.
+     *
+     * @return true if the retry is allowed; false if the budget is exhausted
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long used = retries.get();
+            if (used >= minRetries + (long) (ratio * requests.get())) {
+                return false;
+            }
+            if (retries.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+}
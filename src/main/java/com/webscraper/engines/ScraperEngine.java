@@ -1,42 +1,60 @@
 package com.webscraper.engines;
 
+import com.webscraper.entities.CrawlTask;
+import com.webscraper.entities.FetchedPage;
+import com.webscraper.entities.HttpValidators;
+import com.webscraper.entities.NormalizedUrl;
+import com.webscraper.entities.PageContent;
+import com.webscraper.entities.PageValidatorEntity;
 import com.webscraper.entities.ProxyInfo;
 import com.webscraper.entities.ScraperSession;
+import com.webscraper.services.AdaptiveConcurrencyLimiter;
 import com.webscraper.services.DocumentService;
+import com.webscraper.services.HostCircuitBreaker;
+import com.webscraper.services.PageValidatorCache;
+import com.webscraper.services.PolitenessScheduler;
 import com.webscraper.services.ProxySelectorService;
+import com.webscraper.services.RetryScheduler;
 import com.webscraper.services.RobotsTxtService;
 import com.webscraper.services.handlers.ContentHandler;
+import com.webscraper.utils.FetchErrorClassifier;
 import com.webscraper.utils.URLUtils;
-import crawlercommons.robots.BaseRobotRules;
-import com.google.common.util.concurrent.RateLimiter;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Core engine for crawling and processing webpages.
+ * <p>
+ * Discovered links are placed into the session's {@link CrawlFrontier}, which feeds a bounded
+ * number of fetch tasks to the link executor once the {@link PolitenessScheduler} opens a slot for their host.
  */
 @Component
 @Scope("prototype")
 @Slf4j
 public class ScraperEngine {
 
-    private final ExecutorService linkExecutor;
+    private final Executor linkExecutor;
     private final DocumentService documentService;
     private final RobotsTxtService robotsTxtService;
     private final ProxySelectorService proxySelectorService;
+    private final PolitenessScheduler politenessScheduler;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final HostCircuitBreaker circuitBreaker;
+    private final RetryScheduler retryScheduler;
+    private final PageValidatorCache pageValidatorCache;
     private final List<ContentHandler> contentHandlers;
+    private final int frontierCapacity;
+    private final int maxInFlight;
+    private final boolean documentRequired;
 
     /**
      * Constructs a new ScraperEngine.
@@ -45,90 +63,287 @@ public class ScraperEngine {
      * @param documentService      the service to fetch documents
      * @param robotsTxtService     the service to handle robots.txt rules
      * @param proxySelectorService the service to select proxies
+     * @param politenessScheduler  the scheduler spacing out requests per host
+     * @param concurrencyLimiter   the adaptive limiter for concurrent fetches per host
+     * @param circuitBreaker       the breaker that pauses requests to failing hosts
+     * @param retryScheduler       the scheduler for retries of failed pages
+     * @param pageValidatorCache   the cache of page validators used for conditional re-crawls
      * @param contentHandlers      the list of content handlers for processing documents
+     * @param frontierCapacity     the maximum number of pending URLs per session
+     * @param maxInFlight          the maximum number of pages fetched concurrently per session
      */
-    public ScraperEngine(ExecutorService linkExecutor,
+    public ScraperEngine(Executor linkExecutor,
                          DocumentService documentService,
                          RobotsTxtService robotsTxtService,
                          ProxySelectorService proxySelectorService,
-                         List<ContentHandler> contentHandlers) {
+                         PolitenessScheduler politenessScheduler,
+                         AdaptiveConcurrencyLimiter concurrencyLimiter,
+                         HostCircuitBreaker circuitBreaker,
+                         RetryScheduler retryScheduler,
+                         PageValidatorCache pageValidatorCache,
+                         List<ContentHandler> contentHandlers,
+                         @Value("${crawler.frontierCapacity:10000}") int frontierCapacity,
+                         @Value("${crawler.maxInFlightPerSession:${crawler.linkPoolSize}}") int maxInFlight) {
         this.linkExecutor = linkExecutor;
         this.documentService = documentService;
         this.robotsTxtService = robotsTxtService;
         this.proxySelectorService = proxySelectorService;
+        this.politenessScheduler = politenessScheduler;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.retryScheduler = retryScheduler;
+        this.pageValidatorCache = pageValidatorCache;
         this.contentHandlers = contentHandlers;
+        this.frontierCapacity = frontierCapacity;
+        this.maxInFlight = maxInFlight;
+        this.documentRequired = contentHandlers.stream().anyMatch(ContentHandler::requiresDocument);
     }
 
     /**
-     * Crawls the provided URL.
+     * Starts crawling the session's start URL.
+     *
+     * @param session the scraper session
+     * @return a CompletableFuture that completes when the frontier is drained
+     */
+    public CompletableFuture<Void> start(ScraperSession session) {
+        return start(session, new InMemoryFrontierQueue());
+    }
+
+    /**
+     * Starts crawling the session's start URL together with any tasks already in the queue.
+     * <p>
+     * When a session is resumed the start URL is already in the visited set, so only the recovered tasks run.
+     *
+     * @param session the scraper session
+     * @param queue   the queue backing the session's frontier
+     * @return a CompletableFuture that completes when the frontier is drained
+     */
+    public CompletableFuture<Void> start(ScraperSession session, FrontierQueue queue) {
+        CrawlFrontier frontier = new CrawlFrontier(queue, frontierCapacity, maxInFlight, task -> fetchAndProcess(task, session));
+        session.setFrontier(frontier);
+        crawl(session.getUrl(), session, 0);
+        return frontier.start();
+    }
+
+    /**
+     * Schedules the provided URL for crawling by adding it to the session's frontier.
      *
      * @param url          the URL to crawl
      * @param session      the scraper session
      * @param currentDepth the current recursion depth
-     * @return a CompletableFuture that completes when crawling is done
+     * @return a completed CompletableFuture; the page itself is fetched later by the frontier
      */
     public CompletableFuture<Void> crawl(String url, ScraperSession session, int currentDepth) {
-        String normalizedUrl = URLUtils.normalizeUrl(url);
-        if (!shouldProcess(normalizedUrl, session, currentDepth)) {
+        NormalizedUrl normalizedUrl = URLUtils.normalize(url);
+        if (normalizedUrl == null || !shouldProcess(normalizedUrl, session, currentDepth)) {
             return CompletableFuture.completedFuture(null);
         }
-        log.info("Crawling URL: {} at depth {}", normalizedUrl, currentDepth);
+        if (!session.getFrontier().offer(new CrawlTask(normalizedUrl.url(), currentDepth))) {
+            log.debug("Crawl ended before URL {} was queued", normalizedUrl.url());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
 
-        if (session.getRateLimiter() != null) {
-            session.getRateLimiter().acquire();
+    /**
+     * Fetches the page of the given task and processes it with the content handlers.
+     * <p>
+     * The fetch waits for a concurrency slot and then a politeness slot for the page's host. Tasks for a host
+     * whose circuit is open are postponed, and failed pages are retried later through the {@link RetryScheduler},
+     * so no worker thread waits for a retry. Once the session's budget is exhausted the frontier is stopped and
+     * the remaining tasks are skipped. Pages of a host seen for the first time wait, without holding a thread,
+     * until its robots.txt is loaded, and are skipped if it disallows them.
+     *
+     * @param task    the task taken from the frontier
+     * @param session the scraper session
+     * @return a CompletableFuture that completes when the page has been processed
+     */
+    private CompletableFuture<Void> fetchAndProcess(CrawlTask task, ScraperSession session) {
+        if (session.getBudget().isExhausted()) {
+            session.getFrontier().stop(session.getBudget().getLimitReached() + " reached");
+            return CompletableFuture.completedFuture(null);
         }
+        return robotsTxtService.getRules(task.url()).thenCompose(rules -> {
+            if (!robotsTxtService.isAllowed(task.url(), rules)) {
+                log.info("URL disallowed by robots.txt: {}", task.url());
+                return CompletableFuture.completedFuture(null);
+            }
+            return fetchAndProcessAllowed(task, session);
+        });
+    }
 
-        return CompletableFuture.supplyAsync(() -> {
-                    try {
-                        ProxyInfo proxy = proxySelectorService.selectProxy(session.getUserProxies());
-                        return documentService.fetchDocument(normalizedUrl, proxy);
-                    } catch (IOException e) {
-                        throw new CompletionException(e);
-                    }
+    /**
+     * Fetches and processes a page that robots.txt allows.
+     * <p>
+     * Once {@link #fetch} has been called it owns the host's concurrency slot and releases it. If the chain fails
+     * before that, e.g. because the politeness timer or the link executor rejected the task, the slot is released
+     * here, so it cannot leak.
+     *
+     * @param task    the task taken from the frontier
+     * @param session the scraper session
+     * @return a CompletableFuture that completes when the page has been processed
+     */
+    private CompletableFuture<Void> fetchAndProcessAllowed(CrawlTask task, ScraperSession session) {
+        String host = URLUtils.extractHost(task.url());
+        long circuitWait = circuitBreaker.tryAcquire(host);
+        if (circuitWait > 0) {
+            if (!retryScheduler.defer(session.getFrontier(), task, circuitWait)) {
+                log.warn("Circuit for host {} is open. Dropping URL: {}", host, task.url());
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        AtomicBoolean fetchStarted = new AtomicBoolean();
+        return concurrencyLimiter.acquire(host)
+                .thenCompose(v -> politenessScheduler.acquire(host, session.getCrawlDelayMillis()))
+                .thenComposeAsync(v -> {
+                    fetchStarted.set(true);
+                    return fetch(task, session, host);
                 }, linkExecutor)
-                .thenCompose(document -> processDocument(document, session, currentDepth))
+                .whenComplete((page, ex) -> {
+                    if (ex != null && !fetchStarted.get()) {
+                        concurrencyLimiter.release(host, AdaptiveConcurrencyLimiter.Outcome.IGNORE, 0);
+                    }
+                })
+                .thenCompose(page -> processPage(page, session, task.depth()))
                 .exceptionally(ex -> {
-                    log.error("Error processing URL: {}. Error: {}", normalizedUrl, ex.getMessage());
+                    handleFailure(task, session, host, ex);
                     return null;
                 });
     }
 
     /**
-     * Processes a fetched document using the registered content handlers (LinkHandler, ImageHandler).
+     * Fetches a page while holding the host's concurrency slot and reports the outcome to the limiters.
+     * The slot is released in every case, also when the fetch cannot be started.
+     * <p>
+     * Pages crawled before are requested conditionally, and a 304 response is served from the validator cache.
+     * Conditional requests are skipped when a content handler needs the full document, which is not cached.
+     *
+     * @param task    the task to fetch
+     * @param session the scraper session
+     * @param host    the host of the page
+     * @return a CompletableFuture with the extracted page content
+     */
+    private CompletableFuture<PageContent> fetch(CrawlTask task, ScraperSession session, String host) {
+        if (session.getProgress().isCancelled()) {
+            concurrencyLimiter.release(host, AdaptiveConcurrencyLimiter.Outcome.IGNORE, 0);
+            return CompletableFuture.failedFuture(new CancellationException("Crawl cancelled"));
+        }
+        log.info("Crawling URL: {} at depth {}", task.url(), task.depth());
+        session.getRetryBudget().onRequest();
+        long start = System.nanoTime();
+        CompletableFuture<PageContent> page;
+        try {
+            PageValidatorEntity cached = pageValidatorCache.find(task.url());
+            HttpValidators conditions = documentRequired ? null : pageValidatorCache.conditionsFor(cached);
+            ProxyInfo proxy = proxySelectorService.selectProxy(session.getUserProxies());
+            CompletableFuture<FetchedPage> fetching =
+                    documentService.fetchPageAsync(task.url(), proxy, documentRequired, conditions, linkExecutor);
+            session.getProgress().track(fetching);
+            page = fetching.thenApply(fetched -> {
+                session.getBudget().onBytes(fetched.bodyBytes());
+                return pageValidatorCache.resolve(task.url(), cached, fetched, session.getPageCacheStats());
+            });
+        } catch (RuntimeException e) {
+            page = CompletableFuture.failedFuture(e);
+        }
+        return page.whenComplete((content, ex) -> {
+            long latency = System.nanoTime() - start;
+            if (ex == null) {
+                session.getProgress().onPage(task.url());
+                concurrencyLimiter.release(host, AdaptiveConcurrencyLimiter.Outcome.SUCCESS, latency);
+                politenessScheduler.onSuccess(host);
+                circuitBreaker.onSuccess(host);
+                return;
+            }
+            concurrencyLimiter.release(host, FetchErrorClassifier.isOverload(ex)
+                    ? AdaptiveConcurrencyLimiter.Outcome.OVERLOAD
+                    : AdaptiveConcurrencyLimiter.Outcome.IGNORE, latency);
+            if (FetchErrorClassifier.isRetryable(ex)) {
+                circuitBreaker.onFailure(host);
+            } else {
+                circuitBreaker.onSuccess(host);
+            }
+        });
+    }
+
+    /**
+     * Handles a failed task: slows the host down if it is throttling and schedules a retry for transient errors.
      *
-     * @param doc          the fetched document
+     * @param task    the failed task
+     * @param session the scraper session
+     * @param host    the host of the page
+     * @param ex      the failure
+     */
+    private void handleFailure(CrawlTask task, ScraperSession session, String host, Throwable ex) {
+        if (session.getProgress().isCancelled()) {
+            log.debug("Stopped URL {} of cancelled session: {}", task.url(), ex.getMessage());
+            return;
+        }
+        long retryAfter = FetchErrorClassifier.retryAfterMillis(ex);
+        if (FetchErrorClassifier.isThrottled(ex)) {
+            politenessScheduler.onThrottled(host, retryAfter);
+        }
+        if (FetchErrorClassifier.isRetryable(ex)
+                && retryScheduler.retry(session.getFrontier(), session.getRetryBudget(), task, retryAfter)) {
+            return;
+        }
+        session.getProgress().onError(task.url(), ex.getMessage());
+        log.error("Error processing URL: {}. Error: {}", task.url(), ex.getMessage());
+    }
+
+    /**
+     * Processes a fetched page using the registered content handlers (LinkHandler, ImageHandler).
+     *
+     * @param page         the extracted page content
      * @param session      the scraper session
      * @param currentDepth the current recursion depth
      * @return a CompletableFuture that completes when all handlers have finished processing
      */
-    private CompletableFuture<Void> processDocument(Document doc, ScraperSession session, int currentDepth) {
-        if (doc == null) return CompletableFuture.completedFuture(null);
+    private CompletableFuture<Void> processPage(PageContent page, ScraperSession session, int currentDepth) {
+        if (page == null) return CompletableFuture.completedFuture(null);
 
         List<CompletableFuture<Void>> handlerFutures = new ArrayList<>();
         for (ContentHandler handler : contentHandlers) {
-            handlerFutures.add(handler.process(doc, session, currentDepth));
+            handlerFutures.add(handler.process(page, session, currentDepth));
         }
         return CompletableFuture.allOf(handlerFutures.toArray(new CompletableFuture[0]));
     }
 
     /**
-     * Checks whether the URL should be processed based on depth, domain, robots.txt rules, and whether it was already visited.
+     * Checks whether the URL should be processed based on the session's budget, depth, domain, robots.txt rules,
+     * and whether it was already visited. A new URL takes one page from the budget and a place in the frontier,
+     * which is reserved before the URL is marked as visited: a URL that does not fit stays unvisited, so it can be
+     * queued when it is found again. The robots.txt check uses the rules cached for the URL's host and never
+     * waits for a download.
      *
-     * @param url          the URL to check
+     * @param url          the normalized URL to check
      * @param session      the scraper session
      * @param currentDepth the current recursion depth
      * @return true if the URL should be processed; false otherwise
      */
-    private boolean shouldProcess(String url, ScraperSession session, int currentDepth) {
+    private boolean shouldProcess(NormalizedUrl url, ScraperSession session, int currentDepth) {
+        if (session.getBudget().isExhausted()) {
+            return false;
+        }
         if (currentDepth > session.getMaxDepth()) {
             return false;
         }
-        if (!URLUtils.isSameDomain(url, session.getDomain())) {
+        if (!URLUtils.isSameDomainHost(url.host(), session.getDomain())) {
             return false;
         }
-        if (!robotsTxtService.isAllowed(url, session.getRobotsTxtRules())) {
+        if (!robotsTxtService.isAllowed(url.url())) {
             return false;
         }
-        return session.getVisitedLinksUrl().add(url);
+        CrawlFrontier frontier = session.getFrontier();
+        if (!frontier.reserve()) {
+            return false;
+        }
+        if (!session.getVisitedLinksUrl().add(url.url()) || !session.getBudget().tryAcquirePage()) {
+            frontier.release();
+            return false;
+        }
+        if (session.getVisitedLinksLog() != null) {
+            session.getVisitedLinksLog().append(url.url());
+        }
+        return true;
     }
 }
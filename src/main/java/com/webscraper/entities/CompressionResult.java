@@ -5,6 +5,7 @@ package com.webscraper.entities;
  *
  * @param compressedSize the size of the compressed image in bytes
  * @param fileLink       the file path or link to the compressed image
+ * @param format         the format the image was written in, e.g. {@code jpeg}, {@code png} or {@code webp}
  */
-public record CompressionResult(long compressedSize, String fileLink) {
-}
\ No newline at end of file
+public record CompressionResult(long compressedSize, String fileLink, String format) {
+}
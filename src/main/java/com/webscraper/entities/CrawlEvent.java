@@ -0,0 +1,48 @@
+package com.webscraper.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Record describing something that happened during a scraping session, as streamed to clients.
+ *
+ * @param type           the kind of event
+ * @param url            the page or image URL; null for {@code DROPPED} and {@code END}
+ * @param compressedSize the size of the compressed image in bytes; only set for {@code IMAGE}
+ * @param format         the format the image was written in; only set for {@code IMAGE}
+ * @param path           the file the image was written to; only set for {@code IMAGE}
+ * @param message        the error for {@code ERROR}, the final job state for {@code END}
+ * @param count          the number of events lost to a full buffer; only set for {@code DROPPED}
+ * @param timestamp      the time of the event, in epoch milliseconds
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CrawlEvent(Type type, String url, Long compressedSize, String format, String path, String message,
+                         Long count, long timestamp) {
+
+    /**
+     * Kinds of crawl events.
+     */
+    public enum Type {
+        PAGE, IMAGE, ERROR, DROPPED, END
+    }
+
+    public static CrawlEvent page(String url) {
+        return new CrawlEvent(Type.PAGE, url, null, null, null, null, null, System.currentTimeMillis());
+    }
+
+    public static CrawlEvent image(String url, CompressionResult result) {
+        return new CrawlEvent(Type.IMAGE, url, result.compressedSize(), result.format(), result.fileLink(), null, null,
+                System.currentTimeMillis());
+    }
+
+    public static CrawlEvent error(String url, String message) {
+        return new CrawlEvent(Type.ERROR, url, null, null, null, message, null, System.currentTimeMillis());
+    }
+
+    public static CrawlEvent dropped(long count) {
+        return new CrawlEvent(Type.DROPPED, null, null, null, null, null, count, System.currentTimeMillis());
+    }
+
+    public static CrawlEvent end(CrawlJobStatus.State state) {
+        return new CrawlEvent(Type.END, null, null, null, null, state.name(), null, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,33 @@
+package com.webscraper.entities;
+
+/**
+ * Record describing the progress of a scraping job, as returned by the job API.
+ *
+ * @param sessionId    the session identifier
+ * @param url          the starting URL
+ * @param state        the state of the job
+ * @param startedAt    the time the job was started, in epoch milliseconds
+ * @param finishedAt   the time the job ended, in epoch milliseconds, or 0 while it is running
+ * @param pages        the number of pages fetched
+ * @param images       the number of images processed
+ * @param errors       the number of pages and images that failed
+ * @param queueDepth   the number of URLs waiting in the frontier
+ * @param inFlight     the number of pages being fetched
+ * @param error        the reason the job failed; null unless the state is {@code FAILED}
+ * @param limitReached the budget limit that cut the crawl short, e.g. {@code page limit}, or null
+ */
+public record CrawlJobStatus(String sessionId, String url, State state, long startedAt, long finishedAt,
+                             long pages, long images, long errors, int queueDepth, int inFlight, String error,
+                             String limitReached) {
+
+    /**
+     * States of a scraping job.
+     */
+    public enum State {
+        STARTING, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+}
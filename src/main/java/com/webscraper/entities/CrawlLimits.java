@@ -0,0 +1,12 @@
+package com.webscraper.entities;
+
+/**
+ * Record describing the budget of a scraping session. A missing or non-positive limit means no limit.
+ *
+ * @param maxPages           the maximum number of pages scheduled for fetching
+ * @param maxBytes           the maximum number of page body bytes downloaded
+ * @param maxImages          the maximum number of images processed
+ * @param maxDurationSeconds the maximum wall-clock time of the crawl, counted from its start or resume
+ */
+public record CrawlLimits(Long maxPages, Long maxBytes, Long maxImages, Long maxDurationSeconds) {
+}
@@ -0,0 +1,24 @@
+package com.webscraper.entities;
+
+/**
+ * Record representing a single unit of work in the crawl frontier.
+ *
+ * @param url     the normalized URL to fetch
+ * @param depth   the recursion depth at which the URL was discovered
+ * @param attempt the number of earlier attempts that failed with a retryable error
+ */
+public record CrawlTask(String url, int depth, int attempt) {
+
+    public CrawlTask(String url, int depth) {
+        this(url, depth, 0);
+    }
+
+    /**
+     * Returns a copy of this task for the next attempt.
+     *
+     * @return the task with its attempt counter incremented
+     */
+    public CrawlTask nextAttempt() {
+        return new CrawlTask(url, depth, attempt + 1);
+    }
+}
@@ -0,0 +1,12 @@
+package com.webscraper.entities;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Record representing a decoded source image.
+ *
+ * @param image  the decoded pixels
+ * @param format the lower-case format name reported by the reader, e.g. {@code jpeg} or {@code png}
+ */
+public record DecodedImage(BufferedImage image, String format) {
+}
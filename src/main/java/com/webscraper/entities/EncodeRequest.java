@@ -0,0 +1,23 @@
+package com.webscraper.entities;
+
+/**
+ * Record describing what an {@code ImageEncoder} has to produce.
+ *
+ * @param sourceFormat the format of the downloaded image
+ * @param targetSize   the desired size of lossy encodings in bytes
+ * @param qualityFloor the lowest quality a lossy encoding may use
+ * @param transparent  whether the image has pixels that are not fully opaque
+ * @param best         the smallest encoding produced by the encoders that ran before; may be null
+ */
+public record EncodeRequest(String sourceFormat, long targetSize, float qualityFloor, boolean transparent, EncodedImage best) {
+
+    /**
+     * Returns a copy of this request with another best encoding.
+     *
+     * @param best the new best encoding
+     * @return the updated request
+     */
+    public EncodeRequest withBest(EncodedImage best) {
+        return new EncodeRequest(sourceFormat, targetSize, qualityFloor, transparent, best);
+    }
+}
@@ -0,0 +1,21 @@
+package com.webscraper.entities;
+
+/**
+ * Record representing one candidate encoding of an image.
+ *
+ * @param format    the format name, e.g. {@code jpeg}
+ * @param extension the file extension without the dot
+ * @param bytes     the encoded image
+ * @param quality   the quality setting used; 1 for lossless encodings
+ */
+public record EncodedImage(String format, String extension, byte[] bytes, float quality) {
+
+    /**
+     * Checks whether the encoding is lossless.
+     *
+     * @return true if the quality is 1; false otherwise
+     */
+    public boolean isLossless() {
+        return quality >= 1f;
+    }
+}
@@ -0,0 +1,31 @@
+package com.webscraper.entities;
+
+/**
+ * Record representing the result of a possibly conditional page fetch.
+ *
+ * @param content     the extracted page content, or null if the server answered 304 Not Modified
+ * @param validators  the validators returned with the response
+ * @param bodyBytes   the number of decoded body bytes read
+ * @param contentHash the hex SHA-256 of the decoded body, or null if the page was not modified
+ */
+public record FetchedPage(PageContent content, HttpValidators validators, long bodyBytes, String contentHash) {
+
+    /**
+     * Creates the result of a 304 Not Modified response.
+     *
+     * @param validators the validators returned with the response
+     * @return a result without content
+     */
+    public static FetchedPage notModified(HttpValidators validators) {
+        return new FetchedPage(null, validators, 0, null);
+    }
+
+    /**
+     * Returns whether the server reported the page as unchanged.
+     *
+     * @return true for a 304 Not Modified response
+     */
+    public boolean isNotModified() {
+        return content == null;
+    }
+}
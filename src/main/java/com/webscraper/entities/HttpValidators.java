@@ -0,0 +1,19 @@
+package com.webscraper.entities;
+
+/**
+ * Record representing the cache validators a server returned for a page.
+ *
+ * @param etag         the ETag header value, or null if none was sent
+ * @param lastModified the Last-Modified header value, or null if none was sent
+ */
+public record HttpValidators(String etag, String lastModified) {
+
+    /**
+     * Returns whether neither validator is present, so a conditional request is not possible.
+     *
+     * @return true if both validators are missing
+     */
+    public boolean isEmpty() {
+        return etag == null && lastModified == null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.webscraper.entities;
+
+import com.webscraper.services.ImageBufferPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+
+/**
+ * Record holding downloaded image bytes in the first {@code length} bytes of a possibly larger buffer.
+ * <p>
+ * Buffers taken from an {@link ImageBufferPool} are handed back on {@link #close()}; the bytes must not be used
+ * afterwards.
+ *
+ * @param buffer the buffer holding the image
+ * @param length the number of valid bytes in the buffer
+ * @param pool   the pool the buffer belongs to, or null if it is not pooled
+ */
+public record ImageData(byte[] buffer, int length, ImageBufferPool pool) implements Closeable {
+
+    /**
+     * Wraps a complete byte array that does not belong to a pool.
+     *
+     * @param bytes the image bytes
+     * @return the image data
+     */
+    public static ImageData of(byte[] bytes) {
+        return new ImageData(bytes, bytes.length, null);
+    }
+
+    /**
+     * Returns a stream over the valid bytes without copying them.
+     *
+     * @return the input stream
+     */
+    public InputStream inputStream() {
+        return new ByteArrayInputStream(buffer, 0, length);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.release(buffer);
+        }
+    }
+}
@@ -25,4 +25,9 @@ public class ImageEntity {
 
     @Column(name = "size_after_compression")
     private long sizeAfterCompression;
+
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    private String format;
 }
@@ -0,0 +1,10 @@
+package com.webscraper.entities;
+
+/**
+ * Record representing a normalized URL together with its host.
+ *
+ * @param url  the normalized URL
+ * @param host the lowercase host of the URL, or null if the URL has none
+ */
+public record NormalizedUrl(String url, String host) {
+}
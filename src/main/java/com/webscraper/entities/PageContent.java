@@ -0,0 +1,16 @@
+package com.webscraper.entities;
+
+import org.jsoup.nodes.Document;
+
+import java.util.Set;
+
+/**
+ * Record representing what was extracted from a fetched page.
+ *
+ * @param url      the URL of the page
+ * @param links    absolute URLs of linked pages
+ * @param images   absolute URLs of images referenced by <code>img</code> tags, CSS and anchors
+ * @param document the full JSoup Document, or null if the page was parsed in streaming mode
+ */
+public record PageContent(String url, Set<String> links, Set<String> images, Document document) {
+}
@@ -0,0 +1,42 @@
+package com.webscraper.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.List;
+
+/**
+ * Entity representing the cache validators of a crawled page and the links and images extracted from it.
+ */
+@Entity
+@Table(name = "page_validator")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageValidatorEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(unique = true)
+    private String url;
+
+    private String etag;
+
+    @Column(name = "last_modified")
+    private String lastModified;
+
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    @Column(name = "body_bytes")
+    private long bodyBytes;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private List<String> links;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private List<String> images;
+}
@@ -19,4 +19,5 @@ public class ScraperBody {
     private int recursionDepth;
     private Long requestDelay;
     private List<ProxyInfo> proxies;
+    private CrawlLimits limits;
 }
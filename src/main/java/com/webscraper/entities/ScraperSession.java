@@ -1,14 +1,18 @@
 package com.webscraper.entities;
 
-import com.google.common.util.concurrent.RateLimiter;
-import crawlercommons.robots.BaseRobotRules;
+import com.webscraper.engines.CrawlBudget;
+import com.webscraper.engines.CrawlFrontier;
+import com.webscraper.engines.CrawlProgress;
+import com.webscraper.engines.PageCacheStats;
+import com.webscraper.engines.RetryBudget;
+import com.webscraper.visited.ExactVisitedSet;
+import com.webscraper.visited.VisitedSet;
+import com.webscraper.visited.VisitedUrlLog;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
 
 
 /**
@@ -18,25 +22,30 @@ import java.util.concurrent.ConcurrentHashMap;
 @Setter
 public class ScraperSession {
 
+    private String id = UUID.randomUUID().toString();
     private String url;
     private String domain;
     private int maxDepth;
 
-    private BaseRobotRules robotsTxtRules;
-    private RateLimiter rateLimiter;
+    private long crawlDelayMillis;
+    private CrawlFrontier frontier;
+    private RetryBudget retryBudget = new RetryBudget(0.1, 10);
+    private CrawlBudget budget = CrawlBudget.unlimited();
+    private PageCacheStats pageCacheStats = new PageCacheStats();
+    private CrawlProgress progress = new CrawlProgress();
 
-    private Set<String> visitedLinksUrl = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    private Set<String> visitedImagesUrl = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private VisitedSet visitedLinksUrl = new ExactVisitedSet();
+    private VisitedSet visitedImagesUrl = new ExactVisitedSet();
+    private VisitedUrlLog visitedLinksLog;
 
 
     private Long userDelay;
     private List<ProxyInfo> userProxies;
 
-    public ScraperSession(String url, String domain, int maxDepth, BaseRobotRules robotsTxtRules, Long userDelay, List<ProxyInfo> userProxies) {
+    public ScraperSession(String url, String domain, int maxDepth, Long userDelay, List<ProxyInfo> userProxies) {
         this.url = url;
         this.domain = domain;
         this.maxDepth = maxDepth;
-        this.robotsTxtRules = robotsTxtRules;
         this.userDelay = userDelay;
         this.userProxies = userProxies;
     }
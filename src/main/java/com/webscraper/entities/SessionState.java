@@ -0,0 +1,23 @@
+package com.webscraper.entities;
+
+import java.util.List;
+
+/**
+ * Record describing a scraping session as stored on disk, used to resume the session after a restart.
+ *
+ * @param id        the session identifier
+ * @param url       the starting URL
+ * @param maxDepth  the maximum recursion depth
+ * @param userDelay the delay between requests requested by the user (may be null)
+ * @param proxies   the proxies requested by the user (may be null)
+ * @param startedAt the time the session was first started, in epoch milliseconds
+ * @param completed whether the crawl has finished
+ * @param limits    the budget requested by the user (may be null); a resumed session gets a fresh budget
+ */
+public record SessionState(String id, String url, int maxDepth, Long userDelay, List<ProxyInfo> proxies,
+                           long startedAt, boolean completed, CrawlLimits limits) {
+
+    public SessionState withCompleted() {
+        return new SessionState(id, url, maxDepth, userDelay, proxies, startedAt, true, limits);
+    }
+}
@@ -0,0 +1,7 @@
+package com.webscraper.exceptions;
+
+public class CrawlJobRunningException extends RuntimeException {
+  public CrawlJobRunningException(String message) {
+    super(message);
+  }
+}
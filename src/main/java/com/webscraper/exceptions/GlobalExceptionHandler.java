@@ -1,6 +1,8 @@
 package com.webscraper.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
@@ -11,8 +13,18 @@ import java.net.URISyntaxException;
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     @ExceptionHandler(URISyntaxException.class)
-    protected void handleBadRequest(URISyntaxException ex) {
+    protected ResponseEntity<String> handleBadRequest(URISyntaxException ex) {
         log.error(ex.getMessage(), ex);
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(SessionNotFoundException.class)
+    protected ResponseEntity<String> handleSessionNotFound(SessionNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
 
+    @ExceptionHandler({CrawlJobRunningException.class, StreamBusyException.class})
+    protected ResponseEntity<String> handleConflict(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 }
@@ -0,0 +1,10 @@
+package com.webscraper.exceptions;
+
+/**
+ * Thrown when an image download is abandoned because the image is smaller or larger than the configured limits.
+ */
+public class ImageSizeException extends RuntimeException {
+  public ImageSizeException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,19 @@
+package com.webscraper.exceptions;
+
+import lombok.Getter;
+import org.jsoup.HttpStatusException;
+
+/**
+ * Thrown when a host answers with a status that signals overload (429, 502, 503).
+ * The request may be repeated later, after {@code retryAfterMillis} if the host sent a Retry-After header.
+ */
+@Getter
+public class RetryableFetchException extends HttpStatusException {
+
+  private final long retryAfterMillis;
+
+  public RetryableFetchException(int statusCode, String url, long retryAfterMillis) {
+    super("Retryable HTTP error fetching URL", statusCode, url);
+    this.retryAfterMillis = retryAfterMillis;
+  }
+}
@@ -0,0 +1,7 @@
+package com.webscraper.exceptions;
+
+public class SessionNotFoundException extends RuntimeException {
+  public SessionNotFoundException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.webscraper.exceptions;
+
+public class StreamBusyException extends RuntimeException {
+  public StreamBusyException(String message) {
+    super(message);
+  }
+}
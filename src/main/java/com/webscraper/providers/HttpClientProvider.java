@@ -0,0 +1,92 @@
+package com.webscraper.providers;
+
+import com.webscraper.entities.ProxyInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides shared {@link HttpClient} instances for blocking page fetches.
+ * <p>
+ * Every client keeps its own pool of keep-alive connections and multiplexes requests to the same host over
+ * one HTTP/2 connection when the server supports it, so TLS handshakes are not repeated for every page.
+ * A client is created once per proxy and reused afterwards. The JDK pool size and keep-alive timeouts are
+ * JVM-wide {@code jdk.httpclient.*} properties; they are only set here when not passed on the command line.
+ */
+@Component
+@ConditionalOnProperty(name = "crawler.fetchMode", havingValue = "blocking", matchIfMissing = true)
+public class HttpClientProvider {
+
+    private static final ProxyInfo NO_PROXY = new ProxyInfo("", -1);
+
+    private final HttpClient.Version version;
+    private final Duration connectTimeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<ProxyInfo, HttpClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an HttpClientProvider.
+     *
+     * @param version              the preferred HTTP version; HTTP_2 falls back to HTTP/1.1 when not negotiated
+     * @param connectTimeoutMillis the connect timeout in milliseconds
+     * @param keepAliveSeconds     how long idle connections stay in the pool
+     * @param maxPooledConnections the maximum number of idle HTTP/1.1 connections kept per client; 0 is unlimited
+     */
+    public HttpClientProvider(@Value("${crawler.http.version:HTTP_2}") HttpClient.Version version,
+                              @Value("${crawler.http.connectTimeoutMillis:10000}") int connectTimeoutMillis,
+                              @Value("${crawler.http.keepAliveSeconds:60}") int keepAliveSeconds,
+                              @Value("${crawler.http.maxPooledConnections:0}") int maxPooledConnections) {
+        this.version = version;
+        this.connectTimeout = Duration.ofMillis(connectTimeoutMillis);
+        setIfAbsent("jdk.httpclient.keepalive.timeout", keepAliveSeconds);
+        setIfAbsent("jdk.httpclient.keepalive.timeout.h2", keepAliveSeconds);
+        setIfAbsent("jdk.httpclient.connectionPoolSize", maxPooledConnections);
+    }
+
+    /**
+     * Returns the HttpClient for the given proxy.
+     *
+     * @param proxy the proxy to route requests through; may be null
+     * @return the shared HttpClient for that proxy
+     */
+    public HttpClient forProxy(ProxyInfo proxy) {
+        return clients.computeIfAbsent(proxy != null ? proxy : NO_PROXY, this::createClient);
+    }
+
+    private HttpClient createClient(ProxyInfo proxy) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .executor(executor);
+        if (proxy != NO_PROXY) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(proxy.host(), proxy.port())));
+        }
+        return builder.build();
+    }
+
+    private static void setIfAbsent(String property, int value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Closes the pooled connections of all clients.
+     */
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(HttpClient::shutdownNow);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,106 @@
+package com.webscraper.providers;
+
+import com.webscraper.entities.ProxyInfo;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+import reactor.netty.transport.ProxyProvider;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Provides shared {@link WebClient} instances backed by Reactor Netty.
+ * <p>
+ * All clients share one small event-loop group and one connection provider. Reactor Netty keeps a separate
+ * connection pool for every remote host, each capped at {@code crawler.maxConnectionsPerHost}.
+ * A client is created once per proxy and reused afterwards.
+ * <p>
+ * Redirects are followed by Reactor Netty, so the Spring response only knows the requested URI. A request that
+ * needs the URL of the response that answered it puts an {@code AtomicReference<String>} under
+ * {@link #RESPONSE_URL} into its Reactor context.
+ */
+@Component
+@ConditionalOnProperty(name = "crawler.fetchMode", havingValue = "reactive")
+public class WebClientProvider {
+
+    /**
+     * Context key of the {@code AtomicReference<String>} that receives the URL of the final response.
+     */
+    public static final String RESPONSE_URL = WebClientProvider.class.getName() + ".responseUrl";
+
+    private static final ProxyInfo NO_PROXY = new ProxyInfo("", -1);
+
+    private final LoopResources loopResources;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient baseClient;
+    private final Map<ProxyInfo, WebClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a WebClientProvider.
+     *
+     * @param eventLoopThreads      the number of Netty event-loop threads
+     * @param maxConnectionsPerHost the maximum number of pooled connections per remote host
+     * @param timeoutMillis         the connect and response timeout in milliseconds
+     */
+    public WebClientProvider(@Value("${crawler.reactive.eventLoopThreads:4}") int eventLoopThreads,
+                             @Value("${crawler.maxConnectionsPerHost:8}") int maxConnectionsPerHost,
+                             @Value("${crawler.reactive.timeoutMillis:30000}") int timeoutMillis) {
+        this.loopResources = LoopResources.create("crawler-http", eventLoopThreads, true);
+        this.connectionProvider = ConnectionProvider.builder("crawler")
+                .maxConnections(maxConnectionsPerHost)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(Duration.ofMillis(timeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        this.baseClient = HttpClient.create(connectionProvider)
+                .runOn(loopResources)
+                .compress(true)
+                .followRedirect(true)
+                .doOnResponse((response, connection) -> response.currentContextView()
+                        .<AtomicReference<String>>getOrEmpty(RESPONSE_URL)
+                        .ifPresent(responseUrl -> responseUrl.set(response.resourceUrl())))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.min(timeoutMillis, 10000))
+                .responseTimeout(Duration.ofMillis(timeoutMillis));
+    }
+
+    /**
+     * Returns the WebClient for the given proxy.
+     *
+     * @param proxy the proxy to route requests through; may be null
+     * @return the shared WebClient for that proxy
+     */
+    public WebClient forProxy(ProxyInfo proxy) {
+        return clients.computeIfAbsent(proxy != null ? proxy : NO_PROXY, this::createClient);
+    }
+
+    private WebClient createClient(ProxyInfo proxy) {
+        HttpClient httpClient = baseClient;
+        if (proxy != NO_PROXY) {
+            httpClient = baseClient.proxy(spec -> spec.type(ProxyProvider.Proxy.HTTP)
+                    .host(proxy.host())
+                    .port(proxy.port()));
+        }
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Releases pooled connections and event-loop threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+        loopResources.dispose();
+    }
+}
@@ -9,4 +9,6 @@ import java.util.Optional;
 @Repository
 public interface ImageRepository extends JpaRepository<ImageEntity, Long> {
     Optional<ImageEntity> findByOriginalUrl(String originalUrl);
+
+    Optional<ImageEntity> findFirstByContentHash(String contentHash);
 }
\ No newline at end of file
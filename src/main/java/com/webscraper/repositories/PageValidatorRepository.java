@@ -0,0 +1,12 @@
+package com.webscraper.repositories;
+
+import com.webscraper.entities.PageValidatorEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PageValidatorRepository extends JpaRepository<PageValidatorEntity, Long> {
+    Optional<PageValidatorEntity> findByUrl(String url);
+}
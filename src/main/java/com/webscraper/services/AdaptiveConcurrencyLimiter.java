@@ -0,0 +1,254 @@
+package com.webscraper.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adapts the number of concurrent page fetches per host (AIMD).
+ * <p>
+ * Every successful response whose latency stays within {@code latencyTolerance} times the host's baseline
+ * latency raises the limit by {@code 1 / limit}, i.e. by about one per round of requests. A 429/502/503 response
+ * or a timeout multiplies the limit by {@code backoffRatio}, at most once per observed round-trip time.
+ * Fetches over the limit wait in a per-host queue without holding a thread.
+ * <p>
+ * The limit and in-flight count of each host are published as the {@code crawler.host.concurrency.limit}
+ * and {@code crawler.host.concurrency.inflight} gauges. A host without fetches in flight is forgotten after
+ * {@code crawler.hosts.idleMinutes}, together with its meters, so a long crawl over many hosts keeps a bounded
+ * number of them; a host seen again starts over at the initial limit.
+ */
+@Slf4j
+@Service
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Result of a fetch as seen by the limiter.
+     */
+    public enum Outcome {
+        /** The host answered normally. */
+        SUCCESS,
+        /** The host is overloaded: 429/502/503 response or timeout. */
+        OVERLOAD,
+        /** The request failed for a reason unrelated to load, e.g. 404. */
+        IGNORE
+    }
+
+    private static final double BASELINE_DRIFT = 0.05;
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final Cache<String, HostLimit> hosts;
+    private final MeterRegistry meterRegistry;
+    private final double initialLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    /**
+     * Constructs an AdaptiveConcurrencyLimiter.
+     *
+     * @param initialLimit     the concurrency limit of a host that has not been seen before
+     * @param maxLimit         the upper bound for the limit of any host
+     * @param backoffRatio     the factor applied to the limit when a host is overloaded
+     * @param latencyTolerance how far above its baseline the latency may rise while the limit still grows
+     * @param idleMinutes      how long a host without fetches in flight is remembered
+     * @param meterRegistry    the registry for the per-host gauges
+     */
+    @Autowired
+    public AdaptiveConcurrencyLimiter(@Value("${crawler.adaptive.initialLimit:2}") int initialLimit,
+                                      @Value("${crawler.maxConnectionsPerHost:8}") int maxLimit,
+                                      @Value("${crawler.adaptive.backoffRatio:0.5}") double backoffRatio,
+                                      @Value("${crawler.adaptive.latencyTolerance:2.0}") double latencyTolerance,
+                                      @Value("${crawler.hosts.idleMinutes:10}") long idleMinutes,
+                                      MeterRegistry meterRegistry) {
+        this(initialLimit, maxLimit, backoffRatio, latencyTolerance, idleMinutes, meterRegistry, Ticker.systemTicker());
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit, double backoffRatio, double latencyTolerance,
+                               long idleMinutes, MeterRegistry meterRegistry, Ticker ticker) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.initialLimit = Math.min(this.maxLimit, Math.max(1, initialLimit));
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.meterRegistry = meterRegistry;
+        this.hosts = Caffeine.newBuilder()
+                .expireAfter(new IdleExpiry(TimeUnit.MINUTES.toNanos(idleMinutes)))
+                .ticker(ticker)
+                .evictionListener(this::onEvicted)
+                .build();
+    }
+
+    /**
+     * Acquires a fetch slot for a host.
+     *
+     * @param host the host to fetch from
+     * @return a future that completes when the fetch may start; it completes on the thread releasing a slot
+     */
+    public CompletableFuture<Void> acquire(String host) {
+        List<CompletableFuture<Void>> permit = new ArrayList<>(1);
+        hosts.asMap().compute(host, (h, limit) -> {
+            if (limit == null) {
+                limit = newHostLimit(h);
+            }
+            if (limit.inFlight < (int) limit.limit) {
+                limit.inFlight++;
+                permit.add(CompletableFuture.completedFuture(null));
+            } else {
+                CompletableFuture<Void> waiter = new CompletableFuture<>();
+                limit.waiters.addLast(waiter);
+                permit.add(waiter);
+            }
+            return limit;
+        });
+        return permit.get(0);
+    }
+
+    /**
+     * Releases a fetch slot and adjusts the host's limit.
+     *
+     * @param host         the host that was fetched from
+     * @param outcome      the result of the fetch
+     * @param latencyNanos the time the fetch took
+     */
+    public void release(String host, Outcome outcome, long latencyNanos) {
+        List<CompletableFuture<Void>> ready = new ArrayList<>();
+        hosts.asMap().computeIfPresent(host, (h, limit) -> {
+            limit.inFlight--;
+            switch (outcome) {
+                case SUCCESS -> onSuccess(limit, latencyNanos);
+                case OVERLOAD -> onOverload(host, limit);
+                case IGNORE -> { }
+            }
+            while (limit.inFlight < (int) limit.limit && !limit.waiters.isEmpty()) {
+                limit.inFlight++;
+                ready.add(limit.waiters.pollFirst());
+            }
+            return limit;
+        });
+        ready.forEach(waiter -> waiter.complete(null));
+    }
+
+    /**
+     * Returns the current concurrency limit of a host.
+     *
+     * @param host the host
+     * @return the limit, or the initial limit if the host has not been seen
+     */
+    public int currentLimit(String host) {
+        HostLimit limit = hosts.getIfPresent(host);
+        return limit == null ? (int) initialLimit : (int) limit.limit;
+    }
+
+    /**
+     * Returns the number of hosts currently remembered, after dropping the ones that have been idle too long.
+     *
+     * @return the number of tracked hosts
+     */
+    long trackedHosts() {
+        hosts.cleanUp();
+        return hosts.estimatedSize();
+    }
+
+    private void onSuccess(HostLimit limit, long latencyNanos) {
+        if (limit.baselineNanos == 0 || latencyNanos < limit.baselineNanos) {
+            limit.baselineNanos = latencyNanos;
+        } else {
+            limit.baselineNanos += (long) ((latencyNanos - limit.baselineNanos) * BASELINE_DRIFT);
+        }
+        limit.smoothedNanos = limit.smoothedNanos == 0
+                ? latencyNanos
+                : (long) (limit.smoothedNanos + (latencyNanos - limit.smoothedNanos) * LATENCY_SMOOTHING);
+        if (limit.smoothedNanos <= limit.baselineNanos * latencyTolerance) {
+            limit.limit = Math.min(maxLimit, limit.limit + 1 / limit.limit);
+        }
+    }
+
+    private void onOverload(String host, HostLimit limit) {
+        long now = System.nanoTime();
+        if (limit.lastDecreaseNanos != 0 && now - limit.lastDecreaseNanos < limit.smoothedNanos) {
+            return;
+        }
+        limit.lastDecreaseNanos = now;
+        limit.limit = Math.max(1, limit.limit * backoffRatio);
+        limit.overloads.increment();
+        log.warn("Host {} is overloaded. Concurrency limit lowered to {}", host, (int) limit.limit);
+    }
+
+    private HostLimit newHostLimit(String host) {
+        HostLimit limit = new HostLimit(initialLimit, Counter.builder("crawler.host.overloads")
+                .tag("host", host)
+                .register(meterRegistry));
+        limit.meters.add(limit.overloads);
+        limit.meters.add(Gauge.builder("crawler.host.concurrency.limit", limit, l -> l.limit)
+                .tag("host", host)
+                .register(meterRegistry));
+        limit.meters.add(Gauge.builder("crawler.host.concurrency.inflight", limit, l -> l.inFlight)
+                .tag("host", host)
+                .register(meterRegistry));
+        return limit;
+    }
+
+    private void onEvicted(String host, HostLimit limit, RemovalCause cause) {
+        if (limit != null) {
+            limit.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * Concurrency state of a single host. It is only changed inside a {@code compute} of the host's cache entry,
+     * which also re-evaluates when the entry may expire.
+     */
+    private static final class HostLimit {
+        private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+        private final List<Meter> meters = new ArrayList<>(3);
+        private final Counter overloads;
+        private volatile double limit;
+        private volatile int inFlight;
+        private long baselineNanos;
+        private long smoothedNanos;
+        private long lastDecreaseNanos;
+
+        HostLimit(double limit, Counter overloads) {
+            this.limit = limit;
+            this.overloads = overloads;
+        }
+    }
+
+    /**
+     * Keeps a host while it has fetches in flight, which is also the case whenever fetches are waiting for it,
+     * and expires it once it has been idle for the configured time.
+     */
+    private record IdleExpiry(long idleNanos) implements Expiry<String, HostLimit> {
+
+        @Override
+        public long expireAfterCreate(String host, HostLimit limit, long currentTime) {
+            return limit.inFlight > 0 ? Long.MAX_VALUE : idleNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String host, HostLimit limit, long currentTime, long currentDuration) {
+            return expireAfterCreate(host, limit, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String host, HostLimit limit, long currentTime, long currentDuration) {
+            return expireAfterCreate(host, limit, currentTime);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.webscraper.services;
+
+import com.webscraper.engines.CrawlBudget;
+import com.webscraper.entities.CrawlLimits;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service creating the budgets of scraping sessions.
+ * <p>
+ * Limits requested for a session replace the configured defaults of {@code crawler.budget}; limits left out
+ * of the request fall back to them.
+ */
+@Service
+public class CrawlBudgetPolicy {
+
+    private final CrawlLimits defaults;
+
+    /**
+     * Constructs a CrawlBudgetPolicy; a value of 0 means no limit.
+     *
+     * @param maxPages           the default maximum number of pages per session
+     * @param maxBytes           the default maximum number of page body bytes per session
+     * @param maxImages          the default maximum number of images per session
+     * @param maxDurationSeconds the default maximum duration of a session in seconds
+     */
+    public CrawlBudgetPolicy(@Value("${crawler.budget.maxPages:0}") long maxPages,
+                             @Value("${crawler.budget.maxBytes:0}") long maxBytes,
+                             @Value("${crawler.budget.maxImages:0}") long maxImages,
+                             @Value("${crawler.budget.maxDurationSeconds:0}") long maxDurationSeconds) {
+        this.defaults = new CrawlLimits(maxPages, maxBytes, maxImages, maxDurationSeconds);
+    }
+
+    /**
+     * Creates the budget of a session; its deadline starts now.
+     *
+     * @param requested the limits requested for the session (may be null)
+     * @return the new budget
+     */
+    public CrawlBudget createBudget(CrawlLimits requested) {
+        CrawlLimits limits = requested != null ? requested : defaults;
+        return new CrawlBudget(
+                valueOf(limits.maxPages(), defaults.maxPages()),
+                valueOf(limits.maxBytes(), defaults.maxBytes()),
+                valueOf(limits.maxImages(), defaults.maxImages()),
+                valueOf(limits.maxDurationSeconds(), defaults.maxDurationSeconds()) * 1000);
+    }
+
+    private static long valueOf(Long requested, Long fallback) {
+        return requested != null ? requested : fallback;
+    }
+}
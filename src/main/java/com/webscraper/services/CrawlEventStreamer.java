@@ -0,0 +1,109 @@
+package com.webscraper.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.engines.CrawlEventStream;
+import com.webscraper.entities.CrawlEvent;
+import com.webscraper.exceptions.StreamBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Service writing the events of a scraping session to an HTTP response as they happen.
+ * <p>
+ * Events are written as Server-Sent Events or as newline-delimited JSON. The response is flushed whenever the
+ * client has caught up with the session, so bursts are sent in one write. A Server-Sent Events response gets a
+ * comment line after {@code crawler.stream.heartbeatMillis} without events, which keeps proxies from closing it
+ * and detects clients that went away.
+ */
+@Service
+public class CrawlEventStreamer {
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final long heartbeatMillis;
+
+    /**
+     * Constructs a CrawlEventStreamer.
+     *
+     * @param objectMapper    the mapper serializing the events
+     * @param heartbeatMillis the longest time a Server-Sent Events response stays silent
+     */
+    public CrawlEventStreamer(ObjectMapper objectMapper,
+                              @Value("${crawler.stream.heartbeatMillis:15000}") long heartbeatMillis) {
+        this.objectMapper = objectMapper;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    /**
+     * Claims the stream and returns a body writing it as Server-Sent Events.
+     *
+     * @param events the session's events
+     * @return the response body
+     * @throws StreamBusyException if another client is reading the stream
+     */
+    public StreamingResponseBody serverSentEvents(CrawlEventStream events) {
+        return stream(events, true);
+    }
+
+    /**
+     * Claims the stream and returns a body writing it as newline-delimited JSON.
+     *
+     * @param events the session's events
+     * @return the response body
+     * @throws StreamBusyException if another client is reading the stream
+     */
+    public StreamingResponseBody ndjson(CrawlEventStream events) {
+        return stream(events, false);
+    }
+
+    private StreamingResponseBody stream(CrawlEventStream events, boolean sse) {
+        if (!events.subscribe()) {
+            throw new StreamBusyException("Events of this session are already being streamed");
+        }
+        return out -> {
+            try {
+                CrawlEvent event;
+                do {
+                    event = events.poll(heartbeatMillis);
+                    if (event == null) {
+                        if (sse) {
+                            out.write(HEARTBEAT);
+                            out.flush();
+                        }
+                        continue;
+                    }
+                    write(out, event, sse);
+                    if (!events.hasPending()) {
+                        out.flush();
+                    }
+                } while (event == null || event.type() != CrawlEvent.Type.END);
+                out.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while streaming events");
+            } finally {
+                events.unsubscribe();
+            }
+        };
+    }
+
+    private void write(OutputStream out, CrawlEvent event, boolean sse) throws IOException {
+        if (sse) {
+            out.write(("event: " + event.type().name().toLowerCase(Locale.ROOT) + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+            out.write('\n');
+        } else {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.webscraper.services;
 
+import com.webscraper.entities.FetchedPage;
+import com.webscraper.entities.HttpValidators;
 import com.webscraper.entities.ProxyInfo;
 import org.jsoup.nodes.Document;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Service interface for fetching HTML documents.
@@ -18,4 +23,44 @@ public interface DocumentService {
       * @throws IOException if an error occurs during fetching
       */
      Document fetchDocument(String url, ProxyInfo proxy) throws IOException;
+
+     /**
+      * Fetches the page and extracts its links and images.
+      * <p>
+      * Unless {@code buildDocument} is set, the page is parsed in a single streaming pass and no DOM is kept.
+      * With {@code conditions} the request carries {@code If-None-Match}/{@code If-Modified-Since}, and a
+      * 304 response is returned as {@link FetchedPage#notModified(HttpValidators)} without reading a body.
+      *
+      * @param url           the URL of the page to fetch
+      * @param proxy         the proxy information to use for the connection; may be null
+      * @param buildDocument whether the full JSoup Document must be built and returned with the content
+      * @param conditions    the validators of the cached copy; may be null for an unconditional request
+      * @return the fetch result with the extracted page content, validators and body hash
+      * @throws IOException if an error occurs during fetching
+      */
+     FetchedPage fetchPage(String url, ProxyInfo proxy, boolean buildDocument, HttpValidators conditions) throws IOException;
+
+     /**
+      * Fetches the page asynchronously.
+      * <p>
+      * The default implementation runs the blocking {@link #fetchPage(String, ProxyInfo, boolean, HttpValidators)}
+      * on the given executor. Non-blocking implementations only use the executor for parsing.
+      *
+      * @param url           the URL of the page to fetch
+      * @param proxy         the proxy information to use for the connection; may be null
+      * @param buildDocument whether the full JSoup Document must be built
+      * @param conditions    the validators of the cached copy; may be null for an unconditional request
+      * @param executor      the executor for blocking or CPU-bound work
+      * @return a CompletableFuture with the fetch result
+      */
+     default CompletableFuture<FetchedPage> fetchPageAsync(String url, ProxyInfo proxy, boolean buildDocument,
+                                                           HttpValidators conditions, Executor executor) {
+          return CompletableFuture.supplyAsync(() -> {
+               try {
+                    return fetchPage(url, proxy, buildDocument, conditions);
+               } catch (IOException e) {
+                    throw new CompletionException(e);
+               }
+          }, executor);
+     }
 }
@@ -0,0 +1,111 @@
+package com.webscraper.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stops sending requests to a host that keeps failing.
+ * <p>
+ * After {@code failureThreshold} consecutive retryable failures the circuit of the host opens and requests are
+ * rejected for {@code openMillis}. Then a single trial request is let through (half-open): if it succeeds the
+ * circuit closes, otherwise it opens again.
+ */
+@Slf4j
+@Service
+public class HostCircuitBreaker {
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final int failureThreshold;
+    private final long openMillis;
+
+    /**
+     * Constructs a HostCircuitBreaker.
+     *
+     * @param failureThreshold the number of consecutive failures that opens the circuit
+     * @param openMillis       how long an open circuit rejects requests
+     */
+    public HostCircuitBreaker(@Value("${crawler.retry.circuitBreaker.failureThreshold:5}") int failureThreshold,
+                              @Value("${crawler.retry.circuitBreaker.openMillis:30000}") long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Checks whether a request to the host may be sent now.
+     *
+     * @param host the host
+     * @return 0 if the request may be sent; otherwise the time in milliseconds until the circuit lets a trial through
+     */
+    public long tryAcquire(String host) {
+        Circuit circuit = circuits.computeIfAbsent(host, h -> new Circuit());
+        synchronized (circuit) {
+            switch (circuit.state) {
+                case CLOSED:
+                    return 0;
+                case OPEN:
+                    long remaining = circuit.openUntil - System.currentTimeMillis();
+                    if (remaining > 0) {
+                        return remaining;
+                    }
+                    circuit.state = State.HALF_OPEN;
+                    return 0;
+                default:
+                    // a trial request is already in flight
+                    return openMillis;
+            }
+        }
+    }
+
+    /**
+     * Records a successful request and closes the circuit.
+     *
+     * @param host the host
+     */
+    public void onSuccess(String host) {
+        Circuit circuit = circuits.get(host);
+        if (circuit == null) {
+            return;
+        }
+        synchronized (circuit) {
+            if (circuit.state != State.CLOSED) {
+                log.info("Circuit for host {} closed", host);
+            }
+            circuit.state = State.CLOSED;
+            circuit.failures = 0;
+        }
+    }
+
+    /**
+     * Records a failed request; opens the circuit when the threshold is reached or the trial request failed.
+     *
+     * @param host the host
+     */
+    public void onFailure(String host) {
+        Circuit circuit = circuits.computeIfAbsent(host, h -> new Circuit());
+        synchronized (circuit) {
+            circuit.failures++;
+            if (circuit.state == State.HALF_OPEN || circuit.failures >= failureThreshold) {
+                if (circuit.state != State.OPEN) {
+                    log.warn("Circuit for host {} opened after {} failures", host, circuit.failures);
+                }
+                circuit.state = State.OPEN;
+                circuit.openUntil = System.currentTimeMillis() + openMillis;
+            }
+        }
+    }
+
+    /**
+     * Circuit state of a single host, guarded by its own monitor.
+     */
+    private static final class Circuit {
+        private State state = State.CLOSED;
+        private int failures;
+        private long openUntil;
+    }
+}
@@ -0,0 +1,68 @@
+package com.webscraper.services;
+
+import com.webscraper.utils.URLUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of concurrent requests sent to a single host.
+ * <p>
+ * Each host gets its own fair {@link Semaphore}. Callers block until a permit is free, which is cheap
+ * for virtual threads and keeps a large number of in-flight tasks from overloading one site.
+ */
+@Service
+public class HostConcurrencyLimiter {
+
+    private final int maxConcurrentPerHost;
+    private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a HostConcurrencyLimiter.
+     *
+     * @param maxConcurrentPerHost the maximum number of concurrent requests per host
+     */
+    public HostConcurrencyLimiter(@Value("${crawler.maxConnectionsPerHost:8}") int maxConcurrentPerHost) {
+        this.maxConcurrentPerHost = Math.max(1, maxConcurrentPerHost);
+    }
+
+    /**
+     * Executes the call while holding a permit for the host of the given URL.
+     *
+     * @param url  the URL whose host is limited
+     * @param call the blocking call to execute
+     * @param <T>  the result type
+     * @return the result of the call
+     * @throws IOException if the call fails or the thread is interrupted while waiting for a permit
+     */
+    public <T> T execute(String url, HostCall<T> call) throws IOException {
+        Semaphore permits = hostPermits.computeIfAbsent(URLUtils.extractHost(url),
+                h -> new Semaphore(maxConcurrentPerHost, true));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection slot: " + url);
+        }
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * A blocking call executed under a host permit.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface HostCall<T> {
+        T call() throws IOException;
+    }
+}
@@ -0,0 +1,185 @@
+package com.webscraper.services;
+
+import com.webscraper.entities.ImageEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists processed images behind the image workers.
+ * <p>
+ * Workers put rows into a bounded queue and continue; a single writer thread inserts them with one JDBC batch per
+ * {@code batchSize} rows or per {@code flushIntervalMillis}, whichever comes first. URLs that are already stored
+ * are skipped by {@code ON CONFLICT DO NOTHING}, and ids come from the {@code serial} default of the table.
+ * A full queue blocks the worker until the writer catches up. Rows still queued on shutdown are written before
+ * the data source is closed; rows enqueued after that are written directly on the calling thread.
+ */
+@Slf4j
+@Service
+public class ImageBatchWriter {
+
+    static final String INSERT_SQL = "insert into image_entity "
+            + "(original_url, path, original_size, size_after_compression, content_hash, format) "
+            + "values (?, ?, ?, ?, ?, ?) on conflict do nothing";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<ImageEntity> queue;
+    private final Map<String, ImageEntity> pendingByHash = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long shutdownTimeoutMillis;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean closed;
+
+    /**
+     * Constructs an ImageBatchWriter and starts its writer thread.
+     *
+     * @param jdbcTemplate          the template executing the batches
+     * @param queueCapacity         the maximum number of rows waiting to be written
+     * @param batchSize             the maximum number of rows per batch
+     * @param flushIntervalMillis   the longest time a row waits for its batch to fill
+     * @param shutdownTimeoutMillis the time the writer thread gets to finish its batch on shutdown
+     */
+    public ImageBatchWriter(JdbcTemplate jdbcTemplate,
+                            @Value("${images.persistence.queueCapacity:10000}") int queueCapacity,
+                            @Value("${images.persistence.batchSize:100}") int batchSize,
+                            @Value("${images.persistence.flushIntervalMillis:500}") long flushIntervalMillis,
+                            @Value("${images.persistence.shutdownTimeoutMillis:10000}") long shutdownTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.writer = new Thread(this::run, "image-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a row for insertion, waiting while the queue is full.
+     * <p>
+     * If the thread is interrupted while waiting, or the writer has been shut down, the row is written directly.
+     *
+     * @param entity the row to insert
+     */
+    public void enqueue(ImageEntity entity) {
+        if (closed) {
+            write(List.of(entity));
+            return;
+        }
+        if (entity.getContentHash() != null) {
+            pendingByHash.putIfAbsent(entity.getContentHash(), entity);
+        }
+        try {
+            queue.put(entity);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write(List.of(entity));
+            return;
+        }
+        if (closed) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns a queued row with the given content hash, so duplicates are found before they are written.
+     *
+     * @param contentHash the SHA-256 of the image content
+     * @return the queued row, or null if none is waiting
+     */
+    public ImageEntity findPending(String contentHash) {
+        return pendingByHash.get(contentHash);
+    }
+
+    /**
+     * Writes all queued rows on the calling thread.
+     */
+    public void flush() {
+        List<ImageEntity> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stops the writer thread and writes the rows it left in the queue.
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void run() {
+        List<ImageEntity> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                ImageEntity first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    ImageEntity next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ImageEntity> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entity) -> {
+                ps.setString(1, entity.getOriginalUrl());
+                ps.setString(2, entity.getPath());
+                ps.setLong(3, entity.getOriginalSize());
+                ps.setLong(4, entity.getSizeAfterCompression());
+                ps.setString(5, entity.getContentHash());
+                ps.setString(6, entity.getFormat());
+            });
+            log.debug("Stored {} images", batch.size());
+        } catch (DataAccessException e) {
+            log.error("Failed to store {} images: {}", batch.size(), e.getMessage());
+        } finally {
+            for (ImageEntity entity : batch) {
+                if (entity.getContentHash() != null) {
+                    pendingByHash.remove(entity.getContentHash(), entity);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.webscraper.services;
+
+import com.webscraper.entities.ImageData;
+import com.webscraper.exceptions.ImageSizeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of byte arrays that image downloads are read into.
+ * <p>
+ * Downloads are read directly into a pooled buffer sized from {@code Content-Length}, and the buffer is passed
+ * on to hashing and decoding as is. Buffers larger than {@code images.buffer.maxRetainedBytes} are left to the
+ * garbage collector instead of being kept.
+ */
+@Component
+public class ImageBufferPool {
+
+    private static final int DEFAULT_CAPACITY = 512 * 1024;
+    private static final int READ_CHUNK = 64 * 1024;
+
+    private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int maxPooled;
+    private final int maxRetainedBytes;
+
+    /**
+     * Constructs an ImageBufferPool.
+     *
+     * @param maxPooled        the maximum number of idle buffers kept
+     * @param maxRetainedBytes the largest buffer that is returned to the pool
+     */
+    public ImageBufferPool(@Value("${images.buffer.maxPooled:16}") int maxPooled,
+                           @Value("${images.buffer.maxRetainedBytes:8388608}") int maxRetainedBytes) {
+        this.maxPooled = maxPooled;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * Reads a stream into a pooled buffer.
+     *
+     * @param in             the stream to read; not closed
+     * @param expectedLength the announced length of the stream, or -1 if unknown
+     * @param maxBytes       the maximum number of bytes to read
+     * @return the image data; must be closed to return the buffer
+     * @throws IOException        if reading fails
+     * @throws ImageSizeException if the stream is longer than {@code maxBytes}
+     */
+    public ImageData read(InputStream in, long expectedLength, long maxBytes) throws IOException {
+        int capacity = expectedLength >= 0 ? (int) Math.min(expectedLength, maxBytes) : DEFAULT_CAPACITY;
+        byte[] buffer = acquire(capacity);
+        int length = 0;
+        try {
+            while (true) {
+                int end = (int) Math.min(buffer.length, maxBytes);
+                if (length == end) {
+                    int next = in.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    if (length >= maxBytes) {
+                        throw new ImageSizeException("image exceeds " + maxBytes + " bytes");
+                    }
+                    byte[] grown = Arrays.copyOf(buffer, (int) Math.min(Math.max((long) length * 2, READ_CHUNK), maxBytes));
+                    release(buffer);
+                    buffer = grown;
+                    buffer[length++] = (byte) next;
+                    continue;
+                }
+                int n = in.read(buffer, length, end - length);
+                if (n < 0) {
+                    break;
+                }
+                length += n;
+            }
+            return new ImageData(buffer, length, this);
+        } catch (IOException | RuntimeException e) {
+            release(buffer);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes an idle buffer of at least the given capacity, or allocates one.
+     *
+     * @param capacity the minimum capacity
+     * @return the buffer
+     */
+    public byte[] acquire(int capacity) {
+        for (byte[] buffer : buffers) {
+            if (buffer.length >= capacity && buffers.remove(buffer)) {
+                pooled.decrementAndGet();
+                return buffer;
+            }
+        }
+        return new byte[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Returns a buffer to the pool if there is room for it.
+     *
+     * @param buffer the buffer; must not be used by the caller afterwards
+     */
+    public void release(byte[] buffer) {
+        if (buffer.length > maxRetainedBytes) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.webscraper.services;
+
+import com.webscraper.entities.CompressionResult;
+import com.webscraper.entities.DecodedImage;
+import com.webscraper.entities.EncodeRequest;
+import com.webscraper.entities.EncodedImage;
+import com.webscraper.services.strategy.ImageEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service choosing the output format of a compressed image.
+ * <p>
+ * The downloaded image is decoded once and handed to every available {@link ImageEncoder}; the smallest encoding
+ * whose quality is not below {@code images.encode.qualityFloor} is saved. Lossy encoders aim at half the size of
+ * the original, as the JPEG-only compression did.
+ */
+@Slf4j
+@Service
+public class ImageOutputSelector {
+
+    private final JpegCompressor jpegCompressor;
+    private final List<ImageEncoder> encoders;
+    private final float qualityFloor;
+
+    /**
+     * Constructs an ImageOutputSelector.
+     *
+     * @param jpegCompressor the compressor used to decode images
+     * @param encoders       the encoders, in the order they are tried
+     * @param qualityFloor   the lowest quality a lossy encoding may use
+     */
+    public ImageOutputSelector(JpegCompressor jpegCompressor,
+                               List<ImageEncoder> encoders,
+                               @Value("${images.encode.qualityFloor:0}") float qualityFloor) {
+        this.jpegCompressor = jpegCompressor;
+        this.encoders = encoders.stream().filter(ImageEncoder::isAvailable).toList();
+        this.qualityFloor = qualityFloor;
+    }
+
+    /**
+     * Compresses the first {@code length} bytes of the buffer into the smallest eligible format and saves it.
+     *
+     * @param imageBytes      the buffer holding the original image
+     * @param length          the number of image bytes in the buffer
+     * @param outputDirectory the directory where the compressed image will be saved
+     * @return the size, location and format of the saved image
+     * @throws IOException if the image cannot be decoded, no encoder produced a result or writing fails
+     */
+    public CompressionResult compressAndSave(byte[] imageBytes, int length, Path outputDirectory) throws IOException {
+        EncodedImage best = encode(imageBytes, length);
+        Path outputPath = outputDirectory.resolve(UUID.randomUUID() + "." + best.extension());
+        Files.write(outputPath, best.bytes());
+        log.info("Final file size: {} bytes as {} at quality {}", best.bytes().length, best.format(), best.quality());
+        return new CompressionResult(best.bytes().length, outputPath.toString(), best.format());
+    }
+
+    /**
+     * Encodes the image with every available encoder and returns the smallest eligible result.
+     *
+     * @param imageBytes the buffer holding the original image
+     * @param length     the number of image bytes in the buffer
+     * @return the smallest encoding
+     * @throws IOException if the image cannot be decoded or no encoder produced a result
+     */
+    public EncodedImage encode(byte[] imageBytes, int length) throws IOException {
+        DecodedImage decoded = jpegCompressor.decode(imageBytes, length);
+        BufferedImage image = decoded.image();
+        EncodeRequest request = new EncodeRequest(decoded.format(), length / 2, qualityFloor, isTransparent(image), null);
+        for (ImageEncoder encoder : encoders) {
+            EncodedImage candidate;
+            try {
+                candidate = encoder.encode(image, request);
+            } catch (IOException | RuntimeException e) {
+                log.warn("{} failed to encode image: {}", encoder.getClass().getSimpleName(), e.getMessage());
+                continue;
+            }
+            if (candidate == null || candidate.quality() < qualityFloor) {
+                continue;
+            }
+            log.debug("{} candidate: {} bytes at quality {}", candidate.format(), candidate.bytes().length, candidate.quality());
+            if (request.best() == null || candidate.bytes().length < request.best().bytes().length) {
+                request = request.withBest(candidate);
+            }
+        }
+        if (request.best() == null) {
+            throw new IOException("No encoder produced an output for the " + decoded.format() + " image.");
+        }
+        return request.best();
+    }
+
+    /**
+     * Checks whether any pixel of the image is not fully opaque.
+     *
+     * @param image the image to check
+     * @return true if the image uses transparency; false otherwise
+     */
+    private static boolean isTransparent(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return false;
+        }
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                if (argb >>> 24 != 0xFF) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,7 @@
 package com.webscraper.services;
 
+import com.webscraper.entities.CompressionResult;
+
 /**
  * Service interface for processing images, including compression and URL preparation.
  */
@@ -10,8 +12,9 @@ public interface ImageProcessingService {
      *
      * @param imagePath the URL or file path of the image
      * @param domain    the domain associated with the image
+     * @return the compression result, or null if the image was skipped
      */
-    void processImage(String imagePath, String domain);
+    CompressionResult processImage(String imagePath, String domain);
 
     /**
      * Prepares the image URL by decoding and removing unnecessary parameters.
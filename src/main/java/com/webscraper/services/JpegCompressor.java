@@ -1,29 +1,50 @@
 package com.webscraper.services;
 
 import com.webscraper.entities.CompressionResult;
+import com.webscraper.entities.DecodedImage;
+import com.webscraper.utils.ByteArrayImageInputStream;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Service for compressing JPEG images.
+ * <p>
+ * Every thread keeps one JPEG {@link ImageWriter} and one output buffer and reuses them for all encodes.
+ * Candidate qualities that do not depend on each other are encoded concurrently on a dedicated ForkJoin pool.
+ * Images larger than {@code jpeg.decode.maxDimension} are subsampled while they are decoded, so the full-resolution
+ * raster is never allocated.
  */
 @Service
 @Slf4j
@@ -35,9 +56,62 @@ public class JpegCompressor {
     @Value("${jpeg.compression.quality:0.8}")
     private float initialQuality;
 
+    /**
+     * Maximum width and height of a decoded image; 0 decodes at full resolution.
+     */
+    @Value("${jpeg.decode.maxDimension:0}")
+    private int maxDecodeDimension;
+
+    private final QualitySearchMode searchMode;
+    private final ForkJoinPool encodePool;
+
     private static final int MAX_ITERATIONS = 10;
     private static final double TOLERANCE = 0.05; // 5%
 
+    private static final int SAMPLE_TILE_SIZE = 16; // one 16x16 MCU, so tiles hold whole JPEG blocks
+    private static final int SAMPLE_TILES_PER_AXIS = 24;
+    private static final int MAX_VERIFY_ENCODES = 2;
+    private static final float[] SAMPLE_QUALITIES = {0.0f, 0.1f, 0.2f, 0.3f, 0.4f, 0.5f, 0.6f, 0.7f, 0.8f, 0.9f, 0.95f, 1.0f};
+
+    private static final int INITIAL_BUFFER_BYTES = 256 * 1024;
+    private static final int MAX_RETAINED_BUFFER_BYTES = 16 * 1024 * 1024;
+    private static final ThreadLocal<ImageWriter> WRITERS = ThreadLocal.withInitial(JpegCompressor::createWriter);
+    private static final ThreadLocal<EncodeBuffer> BUFFERS = ThreadLocal.withInitial(() -> new EncodeBuffer(INITIAL_BUFFER_BYTES));
+
+    public JpegCompressor() {
+        this(QualitySearchMode.PREDICTIVE);
+    }
+
+    /**
+     * Constructs a JpegCompressor with the given search strategy and one encode thread per processor.
+     *
+     * @param searchMode the strategy for finding the quality setting
+     */
+    public JpegCompressor(QualitySearchMode searchMode) {
+        this(searchMode, 0);
+    }
+
+    /**
+     * Constructs a JpegCompressor.
+     *
+     * @param searchMode  the strategy for finding the quality setting
+     * @param parallelism the number of threads encoding candidate qualities; 0 uses one per processor
+     */
+    @Autowired
+    public JpegCompressor(@Value("${jpeg.compression.searchMode:PREDICTIVE}") QualitySearchMode searchMode,
+                          @Value("${jpeg.compression.parallelism:0}") int parallelism) {
+        this.searchMode = searchMode;
+        this.encodePool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Stops the encode threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        encodePool.shutdownNow();
+    }
+
     /**
      * Compresses the provided image bytes and saves the result to the output directory.
      *
@@ -47,42 +121,236 @@ public class JpegCompressor {
      * @throws IOException if an I/O error occurs or the image cannot be processed
      */
     public CompressionResult compressAndSave(byte[] imageBytes, Path outputDirectory) throws IOException {
-        if (imageBytes == null || imageBytes.length == 0) {
+        if (imageBytes == null) {
             throw new IOException("Received an empty byte array.");
         }
-        log.debug("Original image size: {} bytes.", imageBytes.length);
+        return compressAndSave(imageBytes, imageBytes.length, outputDirectory);
+    }
 
-        BufferedImage bufferedImage = decodeImage(imageBytes);
-        if (bufferedImage == null) {
-            throw new IOException("Failed to decode image.");
+    /**
+     * Compresses the first {@code length} bytes of the buffer and saves the result to the output directory.
+     * <p>
+     * The image is decoded straight from the buffer, so pooled download buffers are not copied.
+     *
+     * @param imageBytes      the buffer holding the original image
+     * @param length          the number of image bytes in the buffer
+     * @param outputDirectory the directory where the compressed image will be saved
+     * @return a CompressionResult containing the compressed size and file link
+     * @throws IOException if an I/O error occurs or the image cannot be processed
+     */
+    public CompressionResult compressAndSave(byte[] imageBytes, int length, Path outputDirectory) throws IOException {
+        if (imageBytes == null || length == 0) {
+            throw new IOException("Received an empty byte array.");
         }
+        log.debug("Original image size: {} bytes.", length);
 
-        // Ensure image is in RGB format
-        if (bufferedImage.getType() != BufferedImage.TYPE_INT_RGB) {
-            BufferedImage rgbImage = new BufferedImage(bufferedImage.getWidth(), bufferedImage.getHeight(), BufferedImage.TYPE_INT_RGB);
-            Graphics2D graphics = rgbImage.createGraphics();
-            graphics.drawImage(bufferedImage, 0, 0, null);
-            graphics.dispose();
-            bufferedImage = rgbImage;
-        }
+        BufferedImage bufferedImage = toRgb(decode(imageBytes, length).image());
 
         // Target file size: half of the original
-        long targetSize = imageBytes.length / 2;
+        long targetSize = length / 2;
         log.debug("Target file size: {} bytes", targetSize);
 
-        // Find the optimal quality to meet the target size
-        float optimalQuality = findOptimalQuality(bufferedImage, targetSize);
+        Encoding encoding = compress(bufferedImage, targetSize);
 
         // Generate a unique filename using UUID
         String outputFileName = UUID.randomUUID().toString() + ".jpg";
         Path outputPath = outputDirectory.resolve(outputFileName);
 
-        try (OutputStream os = Files.newOutputStream(outputPath)) {
-            compressJpeg(bufferedImage, os, optimalQuality);
+        Files.write(outputPath, encoding.bytes());
+        long compressedSize = encoding.bytes().length;
+        log.info("Final file size: {} bytes at quality: {} after {} full encodes", compressedSize, encoding.quality(), encoding.fullEncodes());
+        return new CompressionResult(compressedSize, outputPath.toString(), "jpeg");
+    }
+
+    /**
+     * Decodes the first {@code length} bytes of the buffer.
+     *
+     * @param imageBytes the buffer holding the original image
+     * @param length     the number of image bytes in the buffer
+     * @return the decoded image and the name of its format
+     * @throws IOException if an error occurs during reading or no reader accepts the image
+     */
+    public DecodedImage decode(byte[] imageBytes, int length) throws IOException {
+        DecodedImage decoded = decodeImage(imageBytes, length);
+        if (decoded == null) {
+            throw new IOException("Failed to decode image.");
         }
-        long compressedSize = Files.size(outputPath);
-        log.info("Final file size: {} bytes at quality: {}", compressedSize, optimalQuality);
-        return new CompressionResult(compressedSize, outputPath.toString());
+        return decoded;
+    }
+
+    /**
+     * Returns the image as {@code TYPE_INT_RGB}, drawing it into a new image if it has another type.
+     *
+     * @param image the decoded image
+     * @return the RGB image
+     */
+    public static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgbImage.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return rgbImage;
+    }
+
+    /**
+     * Encodes the RGB image as close to the target size as the configured search strategy gets.
+     *
+     * @param image      the RGB image to compress
+     * @param targetSize the desired file size in bytes
+     * @return the chosen encoding
+     * @throws IOException if an error occurs during compression
+     */
+    public Encoding compress(BufferedImage image, long targetSize) throws IOException {
+        if (searchMode == QualitySearchMode.BINARY) {
+            QualityChoice choice = findOptimalQuality(image, targetSize);
+            return new Encoding(choice.quality(), compressJpegToByteArray(image, choice.quality(), targetSize), choice.encodes() + 1, 0);
+        }
+        return predictQuality(image, targetSize);
+    }
+
+    /**
+     * Predicts the quality from the size-vs-quality curve of a tiled sample and verifies it with full encodes.
+     * <p>
+     * The sample is encoded at every quality in {@link #SAMPLE_QUALITIES}; without the fixed header overhead the
+     * full size is assumed proportional to the sample size. The first full encode calibrates that ratio, and a
+     * second one is only made if the first missed the target. The prediction aims slightly below the target so the
+     * accepted file does not exceed it.
+     *
+     * @param image      the image to compress
+     * @param targetSize the desired file size in bytes
+     * @return the encoding closest to the target, preferring those not larger than it
+     * @throws IOException if an error occurs during compression
+     */
+    private Encoding predictQuality(BufferedImage image, long targetSize) throws IOException {
+        BufferedImage sample = sampleTiles(image);
+        double overhead = sample == image ? 0
+                : encodedSize(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB), 0.5f);
+        int[] encodedSizes = encodedSizes(sample, SAMPLE_QUALITIES);
+        double[] sampleSizes = new double[SAMPLE_QUALITIES.length];
+        for (int i = 0; i < SAMPLE_QUALITIES.length; i++) {
+            sampleSizes[i] = Math.max(1, encodedSizes[i] - overhead);
+            if (i > 0) {
+                sampleSizes[i] = Math.max(sampleSizes[i], sampleSizes[i - 1]);
+            }
+        }
+        double ratio = (double) image.getWidth() * image.getHeight() / ((double) sample.getWidth() * sample.getHeight());
+        double aim = Math.max(1, targetSize * (1 - TOLERANCE / 2) - overhead);
+
+        float bestQuality = Float.NaN;
+        byte[] bestBytes = null;
+        float quality = Float.NaN;
+        int encodes = 0;
+        while (encodes < MAX_VERIFY_ENCODES) {
+            float predicted = interpolateQuality(sampleSizes, aim / ratio);
+            if (predicted == quality) {
+                break;
+            }
+            quality = predicted;
+            byte[] bytes = compressJpegToByteArray(image, quality, targetSize);
+            encodes++;
+            log.debug("Verify {}: quality = {}, size = {}", encodes, quality, bytes.length);
+            if (bestBytes == null || isCloser(bytes.length, bestBytes.length, targetSize)) {
+                bestQuality = quality;
+                bestBytes = bytes;
+            }
+            if (bytes.length <= targetSize && bytes.length >= targetSize * (1 - TOLERANCE)) {
+                break;
+            }
+            ratio = Math.max(1, bytes.length - overhead) / interpolateSize(sampleSizes, quality);
+        }
+        return new Encoding(bestQuality, bestBytes, encodes, SAMPLE_QUALITIES.length + (sample == image ? 0 : 1));
+    }
+
+    /**
+     * Compares two encoded sizes: one not larger than the target beats one above it, otherwise the nearer wins.
+     *
+     * @param size       the candidate size
+     * @param bestSize   the size of the best encoding so far
+     * @param targetSize the desired file size in bytes
+     * @return true if the candidate is better
+     */
+    private boolean isCloser(long size, long bestSize, long targetSize) {
+        if ((size <= targetSize) != (bestSize <= targetSize)) {
+            return size <= targetSize;
+        }
+        return Math.abs(size - targetSize) < Math.abs(bestSize - targetSize);
+    }
+
+    /**
+     * Finds the quality at which the sample reaches the given size. Between measured qualities the size is
+     * interpolated exponentially, which follows the steep end of the curve near quality 1 more closely.
+     *
+     * @param sampleSizes the sample sizes at {@link #SAMPLE_QUALITIES}, non-decreasing
+     * @param sampleSize  the sample size to reach
+     * @return the quality, clamped to [0, 1]
+     */
+    private float interpolateQuality(double[] sampleSizes, double sampleSize) {
+        if (sampleSize <= sampleSizes[0]) {
+            return SAMPLE_QUALITIES[0];
+        }
+        for (int i = 1; i < sampleSizes.length; i++) {
+            if (sampleSize <= sampleSizes[i]) {
+                double span = Math.log(sampleSizes[i] / sampleSizes[i - 1]);
+                double fraction = span == 0 ? 0 : Math.log(sampleSize / sampleSizes[i - 1]) / span;
+                return (float) (SAMPLE_QUALITIES[i - 1] + fraction * (SAMPLE_QUALITIES[i] - SAMPLE_QUALITIES[i - 1]));
+            }
+        }
+        return SAMPLE_QUALITIES[SAMPLE_QUALITIES.length - 1];
+    }
+
+    /**
+     * Returns the sample size at the given quality, interpolating exponentially between measured qualities.
+     *
+     * @param sampleSizes the sample sizes at {@link #SAMPLE_QUALITIES}
+     * @param quality     the quality between 0 and 1
+     * @return the interpolated sample size
+     */
+    private double interpolateSize(double[] sampleSizes, float quality) {
+        for (int i = 1; i < SAMPLE_QUALITIES.length; i++) {
+            if (quality <= SAMPLE_QUALITIES[i]) {
+                double fraction = (quality - SAMPLE_QUALITIES[i - 1]) / (SAMPLE_QUALITIES[i] - SAMPLE_QUALITIES[i - 1]);
+                return sampleSizes[i - 1] * Math.pow(sampleSizes[i] / sampleSizes[i - 1], Math.max(0, fraction));
+            }
+        }
+        return sampleSizes[sampleSizes.length - 1];
+    }
+
+    /**
+     * Builds a mosaic of evenly spread tiles of the image, or returns the image itself if it is small.
+     * <p>
+     * Tiles start at multiples of 16 pixels, so every 8x8 block of the sample is a block of the full image and
+     * the sample has about the same bits per pixel as the image at every quality.
+     *
+     * @param image the image to sample
+     * @return the sample image
+     */
+    private BufferedImage sampleTiles(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int mosaicSide = SAMPLE_TILE_SIZE * SAMPLE_TILES_PER_AXIS;
+        if (width < 2 * SAMPLE_TILE_SIZE || height < 2 * SAMPLE_TILE_SIZE
+                || (long) width * height <= 2L * mosaicSide * mosaicSide) {
+            return image;
+        }
+        int tilesX = Math.min(SAMPLE_TILES_PER_AXIS, width / SAMPLE_TILE_SIZE);
+        int tilesY = Math.min(SAMPLE_TILES_PER_AXIS, height / SAMPLE_TILE_SIZE);
+        BufferedImage sample = new BufferedImage(tilesX * SAMPLE_TILE_SIZE, tilesY * SAMPLE_TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = sample.createGraphics();
+        for (int ty = 0; ty < tilesY; ty++) {
+            int sy = ((height - SAMPLE_TILE_SIZE) * ty / Math.max(1, tilesY - 1)) & ~15;
+            for (int tx = 0; tx < tilesX; tx++) {
+                int sx = ((width - SAMPLE_TILE_SIZE) * tx / Math.max(1, tilesX - 1)) & ~15;
+                int dx = tx * SAMPLE_TILE_SIZE;
+                int dy = ty * SAMPLE_TILE_SIZE;
+                graphics.drawImage(image, dx, dy, dx + SAMPLE_TILE_SIZE, dy + SAMPLE_TILE_SIZE,
+                        sx, sy, sx + SAMPLE_TILE_SIZE, sy + SAMPLE_TILE_SIZE, null);
+            }
+        }
+        graphics.dispose();
+        return sample;
     }
 
     /**
@@ -90,28 +358,27 @@ public class JpegCompressor {
      *
      * @param image      the BufferedImage to compress
      * @param targetSize the desired file size in bytes
-     * @return the optimal quality factor (between 0.0 and 1.0)
+     * @return the optimal quality factor (between 0.0 and 1.0) and the number of full encodes made
      * @throws IOException if an error occurs during compression
      */
-    private float findOptimalQuality(BufferedImage image, long targetSize) throws IOException {
+    private QualityChoice findOptimalQuality(BufferedImage image, long targetSize) throws IOException {
         float low = 0.0f;
         float high = 1.0f;
         float bestQuality = initialQuality;
 
-        byte[] maxQualityBytes = compressJpegToByteArray(image, 1.0f);
-        if (maxQualityBytes.length <= targetSize) {
-            return 1.0f;
+        int[] endpointSizes = encodedSizes(image, new float[]{1.0f, 0.0f});
+        if (endpointSizes[0] <= targetSize) {
+            return new QualityChoice(1.0f, 2);
         }
-
-        byte[] minQualityBytes = compressJpegToByteArray(image, 0.0f);
-        if (minQualityBytes.length > targetSize) {
-            return 0.0f;
+        if (endpointSizes[1] > targetSize) {
+            return new QualityChoice(0.0f, 2);
         }
 
+        int encodes = 2;
         for (int i = 0; i < MAX_ITERATIONS; i++) {
             float mid = (low + high) / 2.0f;
-            byte[] compressedBytes = compressJpegToByteArray(image, mid);
-            int size = compressedBytes.length;
+            int size = encodedSize(image, mid);
+            encodes++;
             log.debug("Iteration {}: quality = {}, size = {}", i, mid, size);
 
             if (Math.abs(size - targetSize) < targetSize * TOLERANCE) {
@@ -125,54 +392,197 @@ public class JpegCompressor {
             }
             bestQuality = mid;
         }
-        return bestQuality;
+        return new QualityChoice(bestQuality, encodes);
     }
 
     /**
      * Compresses the given image to a JPEG byte array with the specified quality.
      *
+     * @param image         the image to compress
+     * @param quality       the JPEG quality (0.0 to 1.0)
+     * @param expectedBytes the expected size of the result, used to presize the thread's buffer
+     * @return the compressed image as a byte array
+     * @throws IOException if an error occurs during compression
+     */
+    public byte[] compressJpegToByteArray(BufferedImage image, float quality, long expectedBytes) throws IOException {
+        EncodeBuffer buffer = BUFFERS.get();
+        buffer.prepare((int) Math.min(expectedBytes + expectedBytes / 4, MAX_RETAINED_BUFFER_BYTES));
+        try {
+            compressJpeg(image, buffer, quality);
+            return buffer.toByteArray();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Encodes the image into the thread's buffer and returns only the size, without copying the bytes.
+     *
      * @param image   the image to compress
      * @param quality the JPEG quality (0.0 to 1.0)
-     * @return the compressed image as a byte array
+     * @return the size of the JPEG in bytes
      * @throws IOException if an error occurs during compression
      */
-    private byte[] compressJpegToByteArray(BufferedImage image, float quality) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            compressJpeg(image, baos, quality);
-            return baos.toByteArray();
+    private int encodedSize(BufferedImage image, float quality) throws IOException {
+        EncodeBuffer buffer = BUFFERS.get();
+        buffer.prepare(0);
+        try {
+            compressJpeg(image, buffer, quality);
+            return buffer.size();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Encodes the image at several qualities concurrently on the encode pool.
+     *
+     * @param image     the image to compress
+     * @param qualities the JPEG qualities (0.0 to 1.0)
+     * @return the size of the JPEG in bytes for each quality
+     * @throws IOException if an error occurs during compression or the thread is interrupted
+     */
+    private int[] encodedSizes(BufferedImage image, float[] qualities) throws IOException {
+        List<Callable<Integer>> tasks = new ArrayList<>(qualities.length);
+        for (float quality : qualities) {
+            tasks.add(() -> encodedSize(image, quality));
+        }
+        List<Future<Integer>> futures = encodePool.invokeAll(tasks);
+        int[] sizes = new int[qualities.length];
+        try {
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while encoding candidate qualities");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to encode candidate quality", e.getCause());
+        }
+        return sizes;
+    }
+
+    /**
+     * Drops the thread's buffer if a large image made it grow beyond what is worth keeping.
+     *
+     * @param buffer the buffer of the current thread
+     */
+    private void release(EncodeBuffer buffer) {
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_BYTES) {
+            BUFFERS.remove();
         }
     }
 
     /**
      * Decodes the image from the provided byte array. Supports JPEG and attempts WebP if needed.
      *
-     * @param imageBytes the raw image bytes
-     * @return the decoded BufferedImage, or null if decoding fails
+     * @param imageBytes the buffer holding the raw image bytes
+     * @param length     the number of image bytes in the buffer
+     * @return the decoded image, or null if decoding fails
      * @throws IOException if an error occurs during reading
      */
-    private BufferedImage decodeImage(byte[] imageBytes) throws IOException {
-        BufferedImage img;
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes)) {
-            img = ImageIO.read(bais);
-        }
+    private DecodedImage decodeImage(byte[] imageBytes, int length) throws IOException {
+        DecodedImage img = readImage(imageBytes, length);
         if (img != null) {
             return img;
         }
-        if (isWebP(imageBytes)) {
+        if (isWebP(imageBytes, length)) {
             log.info("WebP format detected. Attempting to decode WebP image.");
-            return decodeWebP(imageBytes);
+            BufferedImage webp = decodeWebP(imageBytes, length);
+            return webp != null ? new DecodedImage(webp, "webp") : null;
         }
         return null;
     }
 
+    /**
+     * Decodes the image with the first reader that accepts it.
+     * <p>
+     * Only the header is read to get the dimensions; an image larger than {@link #maxDecodeDimension} is then
+     * decoded with source subsampling. Readers that can produce {@code TYPE_INT_RGB} write into an RGB raster
+     * directly, so no converted copy has to be made; for the others only the reduced image is converted.
+     *
+     * @param imageBytes the buffer holding the raw image bytes
+     * @param length     the number of image bytes in the buffer
+     * @return the decoded image, or null if no reader accepts the image
+     * @throws IOException if an error occurs during reading
+     */
+    private DecodedImage readImage(byte[] imageBytes, int length) throws IOException {
+        try (ImageInputStream input = new ByteArrayImageInputStream(imageBytes, 0, length)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = subsamplingFor(width, height);
+                if (subsampling > 1) {
+                    log.debug("Decoding {}x{} image with subsampling {}.", width, height, subsampling);
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                if (decodesToRgb(reader)) {
+                    param.setDestination(new BufferedImage((width + subsampling - 1) / subsampling,
+                            (height + subsampling - 1) / subsampling, BufferedImage.TYPE_INT_RGB));
+                }
+                return new DecodedImage(reader.read(0, param), reader.getFormatName().toLowerCase(Locale.ROOT));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Returns the smallest subsampling factor that fits both dimensions into {@link #maxDecodeDimension}.
+     *
+     * @param width  the width of the image
+     * @param height the height of the image
+     * @return the subsampling factor; 1 if the image fits or the limit is disabled
+     */
+    private int subsamplingFor(int width, int height) {
+        int longest = Math.max(width, height);
+        if (maxDecodeDimension <= 0 || longest <= maxDecodeDimension) {
+            return 1;
+        }
+        return (longest + maxDecodeDimension - 1) / maxDecodeDimension;
+    }
+
+    /**
+     * Checks whether the reader can decode the image into a {@code TYPE_INT_RGB} raster.
+     * <p>
+     * Readers that list the type support it; the JPEG reader converts any three-channel image although it only
+     * lists {@code TYPE_3BYTE_BGR}. Other readers reject or misread a destination with a different band layout.
+     *
+     * @param reader the reader positioned on the image
+     * @return true if an RGB destination can be used; false otherwise
+     * @throws IOException if the image header cannot be read
+     */
+    private static boolean decodesToRgb(ImageReader reader) throws IOException {
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        while (types.hasNext()) {
+            if (types.next().getBufferedImageType() == BufferedImage.TYPE_INT_RGB) {
+                return true;
+            }
+        }
+        ImageTypeSpecifier rawType = reader.getRawImageType(0);
+        return "jpeg".equalsIgnoreCase(reader.getFormatName())
+                && rawType != null && rawType.getNumBands() == 3 && !rawType.getColorModel().hasAlpha();
+    }
+
     /**
      * Checks if the provided bytes represent a WebP image.
      *
      * @param imageBytes the image bytes
+     * @param length     the number of image bytes in the buffer
      * @return true if the image is WebP; false otherwise
      */
-    private boolean isWebP(byte[] imageBytes) {
-        if (imageBytes.length < 12) return false;
+    private boolean isWebP(byte[] imageBytes, int length) {
+        if (length < 12) return false;
         String header = new String(imageBytes, 0, 12, StandardCharsets.US_ASCII);
         return header.startsWith("RIFF") && header.substring(8, 12).equals("WEBP");
     }
@@ -181,21 +591,23 @@ public class JpegCompressor {
      * Attempts to decode a WebP image.
      *
      * @param imageBytes the image bytes
+     * @param length     the number of image bytes in the buffer
      * @return the decoded BufferedImage, or null if decoding fails
      * @throws IOException if an error occurs during reading
      */
-    private BufferedImage decodeWebP(byte[] imageBytes) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(imageBytes)) {
-            BufferedImage img = ImageIO.read(bais);
-            if (img == null) {
-                log.error("Failed to decode WebP image. Ensure the appropriate plugin is installed.");
-            }
-            return img;
+    private BufferedImage decodeWebP(byte[] imageBytes, int length) throws IOException {
+        BufferedImage img = ImageIO.read(new ByteArrayImageInputStream(imageBytes, 0, length));
+        if (img == null) {
+            log.error("Failed to decode WebP image. Ensure the appropriate plugin is installed.");
         }
+        return img;
     }
 
     /**
      * Compresses the BufferedImage as a JPEG and writes it to the provided OutputStream.
+     * <p>
+     * The thread's writer is reset after every image; a writer that failed is disposed and replaced.
+     * The stream is cached in memory, as ImageIO would otherwise buffer it in a temporary file.
      *
      * @param image   the image to compress
      * @param os      the output stream to write the compressed image
@@ -203,19 +615,70 @@ public class JpegCompressor {
      * @throws IOException if an error occurs during writing
      */
     private void compressJpeg(BufferedImage image, OutputStream os, float quality) throws IOException {
-        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
-        if (!writers.hasNext()) {
-            throw new IllegalStateException("No writers found for jpg");
-        }
-        ImageWriter jpgWriter = writers.next();
+        ImageWriter jpgWriter = WRITERS.get();
         ImageWriteParam jpgWriteParam = jpgWriter.getDefaultWriteParam();
         jpgWriteParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
         jpgWriteParam.setCompressionQuality(quality);
-        try (ImageOutputStream ios = ImageIO.createImageOutputStream(os)) {
+        boolean written = false;
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(os)) {
             jpgWriter.setOutput(ios);
             jpgWriter.write(null, new IIOImage(image, null, null), jpgWriteParam);
+            written = true;
         } finally {
-            jpgWriter.dispose();
+            if (written) {
+                jpgWriter.reset();
+            } else {
+                jpgWriter.dispose();
+                WRITERS.remove();
+            }
+        }
+    }
+
+    private static ImageWriter createWriter() {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+        if (!writers.hasNext()) {
+            throw new IllegalStateException("No writers found for jpg");
+        }
+        return writers.next();
+    }
+
+    /**
+     * Record representing an encoded image.
+     *
+     * @param quality       the JPEG quality used
+     * @param bytes         the encoded JPEG
+     * @param fullEncodes   the number of full-size encodes made to choose the quality, including this one
+     * @param sampleEncodes the number of encodes of the tiled sample
+     */
+    public record Encoding(float quality, byte[] bytes, int fullEncodes, int sampleEncodes) {
+    }
+
+    private record QualityChoice(float quality, int encodes) {
+    }
+
+    /**
+     * Output buffer that keeps its array between encodes.
+     */
+    private static final class EncodeBuffer extends ByteArrayOutputStream {
+
+        EncodeBuffer(int size) {
+            super(size);
+        }
+
+        /**
+         * Empties the buffer and grows it to the expected size up front.
+         *
+         * @param expectedBytes the expected number of bytes
+         */
+        void prepare(int expectedBytes) {
+            reset();
+            if (buf.length < expectedBytes) {
+                buf = new byte[expectedBytes];
+            }
+        }
+
+        int capacity() {
+            return buf.length;
         }
     }
 }
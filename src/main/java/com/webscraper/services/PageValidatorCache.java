@@ -0,0 +1,124 @@
+package com.webscraper.services;
+
+import com.webscraper.engines.PageCacheStats;
+import com.webscraper.entities.FetchedPage;
+import com.webscraper.entities.HttpValidators;
+import com.webscraper.entities.PageContent;
+import com.webscraper.entities.PageValidatorEntity;
+import com.webscraper.repositories.PageValidatorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps the ETag, Last-Modified and content hash of every crawled page together with its extracted links and images.
+ * <p>
+ * Re-crawls send the stored validators as {@code If-None-Match}/{@code If-Modified-Since}; when the server answers
+ * 304 Not Modified the cached links and images are used instead of downloading and parsing the body again.
+ * Failures of the store are logged and only disable the cache for the affected page.
+ */
+@Slf4j
+@Service
+public class PageValidatorCache {
+
+    private final PageValidatorRepository repository;
+    private final boolean enabled;
+
+    /**
+     * Constructs a PageValidatorCache.
+     *
+     * @param repository the repository storing the validators
+     * @param enabled    whether re-crawls send conditional requests
+     */
+    public PageValidatorCache(PageValidatorRepository repository,
+                              @Value("${crawler.validators.enabled:true}") boolean enabled) {
+        this.repository = repository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Looks up the cached entry for a page.
+     *
+     * @param url the normalized URL of the page
+     * @return the cached entry, or null if the page was not crawled before or the cache is disabled
+     */
+    public PageValidatorEntity find(String url) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return repository.findByUrl(url).orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("Failed to read validators for URL {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the validators to send with the request for a cached page.
+     *
+     * @param cached the cached entry; may be null
+     * @return the validators, or null if no conditional request can be made
+     */
+    public HttpValidators conditionsFor(PageValidatorEntity cached) {
+        if (cached == null) {
+            return null;
+        }
+        HttpValidators validators = new HttpValidators(cached.getEtag(), cached.getLastModified());
+        return validators.isEmpty() ? null : validators;
+    }
+
+    /**
+     * Turns a fetch result into page content, serving 304 responses from the cache and storing new bodies.
+     *
+     * @param url     the normalized URL of the page
+     * @param cached  the entry the request was based on; may be null
+     * @param fetched the fetch result
+     * @param stats   the statistics of the session
+     * @return the page content
+     */
+    public PageContent resolve(String url, PageValidatorEntity cached, FetchedPage fetched, PageCacheStats stats) {
+        if (fetched.isNotModified()) {
+            if (cached == null) {
+                log.warn("Unexpected 304 Not Modified without cached content for URL: {}", url);
+                return new PageContent(url, Set.of(), Set.of(), null);
+            }
+            stats.onNotModified(cached.getBodyBytes());
+            return new PageContent(url, new HashSet<>(cached.getLinks()), new HashSet<>(cached.getImages()), null);
+        }
+        PageContent content = fetched.content();
+        boolean sameHash = cached != null && Objects.equals(cached.getContentHash(), fetched.contentHash());
+        stats.onFetched(fetched.bodyBytes(), sameHash);
+        if (enabled && !(sameHash && Objects.equals(conditionsFor(cached), validatorsOrNull(fetched.validators())))) {
+            store(url, cached, fetched);
+        }
+        return content;
+    }
+
+    private HttpValidators validatorsOrNull(HttpValidators validators) {
+        return validators == null || validators.isEmpty() ? null : validators;
+    }
+
+    private void store(String url, PageValidatorEntity cached, FetchedPage fetched) {
+        PageValidatorEntity entity = cached != null ? cached : new PageValidatorEntity();
+        HttpValidators validators = fetched.validators();
+        entity.setUrl(url);
+        entity.setEtag(validators != null ? validators.etag() : null);
+        entity.setLastModified(validators != null ? validators.lastModified() : null);
+        entity.setContentHash(fetched.contentHash());
+        entity.setBodyBytes(fetched.bodyBytes());
+        entity.setLinks(new ArrayList<>(fetched.content().links()));
+        entity.setImages(new ArrayList<>(fetched.content().images()));
+        try {
+            repository.save(entity);
+        } catch (DataAccessException e) {
+            log.warn("Failed to store validators for URL {}: {}", url, e.getMessage());
+        }
+    }
+}
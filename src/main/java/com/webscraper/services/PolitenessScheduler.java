@@ -0,0 +1,205 @@
+package com.webscraper.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spaces out requests to each host without blocking the calling threads.
+ * <p>
+ * Every host has a next free slot. {@link #acquire(String, long)} reserves the slot with a CAS and returns a
+ * future that a single timer thread completes when the slot opens, so waiting fetches hold no thread.
+ * The spacing for a host is the largest of the delay requested by the caller, the host's robots.txt
+ * crawl-delay and a back-off that doubles on every 429/503 response and halves on every success.
+ * <p>
+ * A host is forgotten once its next slot lies {@code crawler.hosts.idleMinutes} in the past, so the scheduler
+ * keeps a bounded number of hosts. A host with a robots.txt crawl-delay is kept as long as the rules it came from
+ * are cached ({@code crawler.robots.ttlMinutes}), because the delay is only set again when the rules are reloaded.
+ */
+@Slf4j
+@Service
+public class PolitenessScheduler {
+
+    private final Cache<String, HostSlot> hosts;
+    private final ScheduledExecutorService timer;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    /**
+     * Constructs a PolitenessScheduler.
+     *
+     * @param initialBackoffMillis the delay added to a host after its first throttling response
+     * @param maxBackoffMillis     the upper bound for the per-host back-off
+     * @param idleMinutes          how long a host is remembered after its last slot
+     * @param robotsTtlMinutes     how long a host with a robots.txt crawl-delay is remembered
+     */
+    @Autowired
+    public PolitenessScheduler(@Value("${crawler.politeness.initialBackoffMillis:1000}") long initialBackoffMillis,
+                               @Value("${crawler.politeness.maxBackoffMillis:60000}") long maxBackoffMillis,
+                               @Value("${crawler.hosts.idleMinutes:10}") long idleMinutes,
+                               @Value("${crawler.robots.ttlMinutes:1440}") long robotsTtlMinutes) {
+        this(initialBackoffMillis, maxBackoffMillis, idleMinutes, robotsTtlMinutes, Ticker.systemTicker());
+    }
+
+    PolitenessScheduler(long initialBackoffMillis, long maxBackoffMillis, long idleMinutes, long robotsTtlMinutes,
+                        Ticker ticker) {
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(initialBackoffMillis);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMillis);
+        this.hosts = Caffeine.newBuilder()
+                .expireAfter(new SlotExpiry(Math.max(TimeUnit.MINUTES.toNanos(idleMinutes), maxBackoffNanos),
+                        TimeUnit.MINUTES.toNanos(robotsTtlMinutes)))
+                .ticker(ticker)
+                .build();
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "politeness-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the crawl-delay that robots.txt requests for a host. A delay of 0 removes it.
+     *
+     * @param host        the host
+     * @param delayMillis the crawl-delay in milliseconds
+     */
+    public void setCrawlDelay(String host, long delayMillis) {
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        if (delayNanos == 0) {
+            hosts.asMap().computeIfPresent(host, (h, slot) -> {
+                slot.robotsDelayNanos = 0;
+                return slot;
+            });
+            return;
+        }
+        hosts.asMap().compute(host, (h, slot) -> {
+            HostSlot current = slot != null ? slot : new HostSlot();
+            current.robotsDelayNanos = delayNanos;
+            return current;
+        });
+    }
+
+    /**
+     * Reserves the next request slot for a host.
+     *
+     * @param host        the host to send a request to
+     * @param delayMillis the minimum spacing between requests requested by the caller
+     * @return a future that completes when the request may be sent; dependent stages run on the timer thread,
+     * so callers should continue with an async stage on their own executor
+     */
+    public CompletableFuture<Void> acquire(String host, long delayMillis) {
+        HostSlot slot = slot(host);
+        long spacing = Math.max(TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis)),
+                Math.max(slot.robotsDelayNanos, slot.backoffNanos));
+        long now = System.nanoTime();
+        long start;
+        while (true) {
+            long next = slot.nextSlot.get();
+            start = next - now > 0 ? next : now;
+            if (slot.nextSlot.compareAndSet(next, start + spacing)) {
+                break;
+            }
+        }
+        long wait = start - now;
+        if (wait <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        timer.schedule(() -> permit.complete(null), wait, TimeUnit.NANOSECONDS);
+        return permit;
+    }
+
+    /**
+     * Slows a host down after it answered with 429 Too Many Requests or 503 Service Unavailable.
+     *
+     * @param host             the throttling host
+     * @param retryAfterMillis the delay requested by a Retry-After header, or 0 if there was none
+     */
+    public void onThrottled(String host, long retryAfterMillis) {
+        HostSlot slot = hosts.asMap().compute(host, (h, current) -> {
+            HostSlot throttled = current != null ? current : new HostSlot();
+            throttled.backoffNanos = Math.min(maxBackoffNanos, Math.max(initialBackoffNanos, throttled.backoffNanos * 2));
+            long notBefore = System.nanoTime() + Math.max(throttled.backoffNanos, TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+            throttled.nextSlot.accumulateAndGet(notBefore, (next, candidate) -> candidate - next > 0 ? candidate : next);
+            return throttled;
+        });
+        log.warn("Host {} is throttling requests. Back-off raised to {} ms", host, TimeUnit.NANOSECONDS.toMillis(slot.backoffNanos));
+    }
+
+    /**
+     * Lets the back-off of a host decay after a successful response.
+     *
+     * @param host the host
+     */
+    public void onSuccess(String host) {
+        HostSlot slot = hosts.getIfPresent(host);
+        if (slot != null && slot.backoffNanos > 0) {
+            long backoff = slot.backoffNanos / 2;
+            slot.backoffNanos = backoff < initialBackoffNanos ? 0 : backoff;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Returns the number of hosts currently remembered, after dropping the ones whose slots have expired.
+     *
+     * @return the number of tracked hosts
+     */
+    long trackedHosts() {
+        hosts.cleanUp();
+        return hosts.estimatedSize();
+    }
+
+    private HostSlot slot(String host) {
+        return hosts.get(host, h -> new HostSlot());
+    }
+
+    /**
+     * Scheduling state of a single host.
+     */
+    private static final class HostSlot {
+        private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+        private volatile long robotsDelayNanos;
+        private volatile long backoffNanos;
+    }
+
+    /**
+     * Keeps a host until its next slot lies {@code idleNanos} in the past, and for {@code robotsTtlNanos} after
+     * the last access if it has a robots.txt crawl-delay. Every access re-evaluates the expiry; a slot reserved
+     * right after an access is covered because the idle time is at least the maximum back-off.
+     */
+    private record SlotExpiry(long idleNanos, long robotsTtlNanos) implements Expiry<String, HostSlot> {
+
+        @Override
+        public long expireAfterCreate(String host, HostSlot slot, long currentTime) {
+            long idle = Math.max(0, slot.nextSlot.get() - System.nanoTime()) + idleNanos;
+            return slot.robotsDelayNanos > 0 ? Math.max(idle, robotsTtlNanos) : idle;
+        }
+
+        @Override
+        public long expireAfterUpdate(String host, HostSlot slot, long currentTime, long currentDuration) {
+            return expireAfterCreate(host, slot, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String host, HostSlot slot, long currentTime, long currentDuration) {
+            return expireAfterCreate(host, slot, currentTime);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.webscraper.services;
+
+/**
+ * Strategy used by {@link JpegCompressor} to find the JPEG quality that meets the target file size.
+ */
+public enum QualitySearchMode {
+
+    /**
+     * Binary search over full encodes of the image; up to 13 full encodes per image.
+     */
+    BINARY,
+
+    /**
+     * Size-vs-quality curve measured on a tiled sample of the image, verified by one or two full encodes.
+     */
+    PREDICTIVE
+}
@@ -0,0 +1,123 @@
+package com.webscraper.services;
+
+import com.webscraper.engines.CrawlFrontier;
+import com.webscraper.engines.RetryBudget;
+import com.webscraper.entities.CrawlTask;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Schedules failed crawl tasks for another attempt without blocking a worker thread.
+ * <p>
+ * A retry puts the task back into the session's frontier after a jittered exponential back-off (or the
+ * Retry-After delay, if longer), waiting on a single timer thread. Retries are limited per task by
+ * {@code maxAttempts} and per session by a {@link RetryBudget}.
+ */
+@Slf4j
+@Service
+public class RetryScheduler {
+
+    private final ScheduledExecutorService timer;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final double budgetRatio;
+    private final long minBudget;
+
+    /**
+     * Constructs a RetryScheduler.
+     *
+     * @param maxAttempts     the maximum number of retries per task
+     * @param baseDelayMillis the back-off before the first retry, doubled for each further retry
+     * @param maxDelayMillis  the upper bound for the back-off
+     * @param budgetRatio     the retries a session may spend per request it sent
+     * @param minBudget       the retries a session may spend regardless of its request count
+     */
+    public RetryScheduler(@Value("${crawler.retry.maxAttempts:3}") int maxAttempts,
+                          @Value("${crawler.retry.baseDelayMillis:1000}") long baseDelayMillis,
+                          @Value("${crawler.retry.maxDelayMillis:60000}") long maxDelayMillis,
+                          @Value("${crawler.retry.budgetRatio:0.1}") double budgetRatio,
+                          @Value("${crawler.retry.minBudget:10}") long minBudget) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.budgetRatio = budgetRatio;
+        this.minBudget = minBudget;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the retry budget for a new session.
+     *
+     * @return a budget using the configured ratio and minimum
+     */
+    public RetryBudget createBudget() {
+        return new RetryBudget(budgetRatio, minBudget);
+    }
+
+    /**
+     * Schedules another attempt of a task that failed with a retryable error.
+     *
+     * @param frontier         the session's frontier
+     * @param budget           the session's retry budget
+     * @param task             the failed task
+     * @param retryAfterMillis the delay requested by the host, or 0
+     * @return true if the retry was scheduled; false if the task or the session has no retries left
+     */
+    public boolean retry(CrawlFrontier frontier, RetryBudget budget, CrawlTask task, long retryAfterMillis) {
+        if (task.attempt() >= maxAttempts || !budget.tryAcquire()) {
+            return false;
+        }
+        long delay = Math.max(retryAfterMillis, backoff(task.attempt()));
+        log.info("Retrying URL {} in {} ms (attempt {} of {})", task.url(), delay, task.attempt() + 1, maxAttempts);
+        frontier.requeue(task.nextAttempt(), delay, timer);
+        return true;
+    }
+
+    /**
+     * Postpones a task whose host is not accepting requests right now, e.g. because its circuit is open.
+     * The postponement counts as an attempt but does not use the session's budget.
+     *
+     * @param frontier    the session's frontier
+     * @param task        the task to postpone
+     * @param delayMillis the minimum delay
+     * @return true if the task was postponed; false if it has no attempts left
+     */
+    public boolean defer(CrawlFrontier frontier, CrawlTask task, long delayMillis) {
+        if (task.attempt() >= maxAttempts) {
+            return false;
+        }
+        frontier.requeue(task.nextAttempt(), delayMillis + jitter(baseDelayMillis), timer);
+        return true;
+    }
+
+    /**
+     * Returns the back-off for a retry: half of the exponential delay plus a random share of the other half.
+     *
+     * @param attempt the number of earlier attempts
+     * @return the delay in milliseconds
+     */
+    long backoff(int attempt) {
+        long exponential = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        return exponential / 2 + jitter(exponential / 2);
+    }
+
+    private static long jitter(long bound) {
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -2,18 +2,30 @@ package com.webscraper.services;
 
 import crawlercommons.robots.BaseRobotRules;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
- * Service interface for retrieving and checking robots.txt rules for a domain.
+ * Service interface for retrieving and checking robots.txt rules of the hosts being crawled.
  */
 public interface RobotsTxtService {
 
     /**
-     * Retrieves the robots.txt rules for the specified domain.
+     * Retrieves the robots.txt rules for the scheme and host of the specified URL, loading them in the background
+     * if they are not cached.
+     *
+     * @param url the URL whose rules are needed
+     * @return a future with the parsed {@link BaseRobotRules}, or with null if the host has no usable robots.txt
+     */
+    CompletableFuture<BaseRobotRules> getRules(String url);
+
+    /**
+     * Checks the URL against the cached rules of its host without waiting; rules that are not cached yet are
+     * loaded in the background and the URL is allowed for now.
      *
-     * @param domain the domain to retrieve rules for
-     * @return the parsed {@link BaseRobotRules} or null if rules cannot be retrieved
+     * @param url the URL to check
+     * @return false if the cached rules disallow the URL; true otherwise
      */
-    BaseRobotRules getRules(String domain);
+    boolean isAllowed(String url);
 
     /**
      * Determines whether the given URL is allowed to be crawled according to the provided robots.txt rules.
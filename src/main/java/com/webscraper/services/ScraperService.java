@@ -1,12 +1,28 @@
 package com.webscraper.services;
 
+import com.webscraper.engines.CrawlEventStream;
+import com.webscraper.engines.CrawlJob;
+import com.webscraper.entities.CrawlJobStatus;
+import com.webscraper.entities.CrawlLimits;
 import com.webscraper.entities.ProxyInfo;
+import com.webscraper.entities.SessionState;
 
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 
 public interface ScraperService {
-    CompletableFuture<Set<String>> startScraping(String url, int maxDepth, Long userDelay, List<ProxyInfo> userProxies) throws URISyntaxException;
+    CrawlJob startScraping(String url, int maxDepth, Long userDelay, List<ProxyInfo> userProxies, CrawlLimits limits) throws URISyntaxException;
+
+    CrawlJob resumeScraping(String sessionId) throws URISyntaxException;
+
+    CrawlJobStatus getStatus(String sessionId);
+
+    CrawlJobStatus cancel(String sessionId);
+
+    Set<String> getResult(String sessionId);
+
+    CrawlEventStream getEvents(String sessionId);
+
+    List<SessionState> getResumableSessions();
 }
@@ -1,21 +1,32 @@
 package com.webscraper.services.handlers;
 
+import com.webscraper.entities.PageContent;
 import com.webscraper.entities.ScraperSession;
-import org.jsoup.nodes.Document;
 import java.util.concurrent.CompletableFuture;
 
 /**
- * Defines the contract for processing a document during web scraping.
+ * Defines the contract for processing a page during web scraping.
  */
 public interface ContentHandler {
 
     /**
-     * Processes the provided document within the given scraping session at a specified recursion depth.
+     * Processes the provided page within the given scraping session at a specified recursion depth.
      *
-     * @param document     the JSoup Document to process
+     * @param page         the links, images and optionally the document extracted from the page
      * @param session      the current scraping session
      * @param currentDepth the current recursion depth
      * @return a CompletableFuture that completes when processing is finished
      */
-    CompletableFuture<Void> process(Document document, ScraperSession session, int currentDepth);
+    CompletableFuture<Void> process(PageContent page, ScraperSession session, int currentDepth);
+
+    /**
+     * Indicates whether this handler needs the full JSoup Document.
+     * <p>
+     * Pages are parsed in streaming mode unless at least one handler requires the document.
+     *
+     * @return true if {@link PageContent#document()} must be available; false otherwise
+     */
+    default boolean requiresDocument() {
+        return false;
+    }
 }
@@ -1,22 +1,25 @@
 package com.webscraper.services.handlers;
 
+import com.webscraper.engines.CrawlBudget;
+import com.webscraper.engines.CrawlProgress;
+import com.webscraper.entities.PageContent;
 import com.webscraper.entities.ScraperSession;
 import com.webscraper.services.ImageProcessingService;
-import com.webscraper.utils.LinkExtractor;
+import com.webscraper.visited.VisitedSet;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.nodes.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 
 /**
  * Handles processing of images found in a web page.
  * <p>
- * Extracts images from the document and processes them asynchronously.
+ * Takes the images extracted from the page and processes them asynchronously on the image executor. Images of a
+ * cancelled session that have not started yet are skipped.
  */
 @Slf4j
 @Component
@@ -39,30 +42,33 @@ public class ImageHandler implements ContentHandler {
     }
 
     /**
-     * Processes a document to extract and handle image links.
+     * Processes the image links extracted from a page.
      *
-     * @param document     the JSoup Document to process
+     * @param page         the extracted page content
      * @param session      the current scraping session
      * @param currentDepth the current recursion depth
      * @return a CompletableFuture that completes when all image processing tasks are finished
      */
     @Override
-    public CompletableFuture<Void> process(Document document, ScraperSession session, int currentDepth) {
-        Set<String> images = new HashSet<>();
-        images.addAll(LinkExtractor.extractImages(document));
-        images.addAll(LinkExtractor.extractCssImages(document));
-        images.addAll(LinkExtractor.extractAnchorImageLinks(document));
+    public CompletableFuture<Void> process(PageContent page, ScraperSession session, int currentDepth) {
+        Set<String> images = page.images();
 
-        Set<String> visitedImages = session.getVisitedImagesUrl();
+        VisitedSet visitedImages = session.getVisitedImagesUrl();
+        CrawlProgress progress = session.getProgress();
+        CrawlBudget budget = session.getBudget();
 
         return CompletableFuture.allOf(
                 images.stream()
-                        .filter(visitedImages::add)
-                        .map(image -> CompletableFuture.runAsync(
-                                () -> imageProcessingService.processImage(image, session.getDomain()),
-                                imageExecutor
-                        ).exceptionally(ex -> {
-                            log.error("Error processing image {}: {}", image, ex.getMessage());
+                        .filter(image -> visitedImages.add(image) && budget.tryAcquireImage())
+                        .map(image -> CompletableFuture.runAsync(() -> {
+                            if (progress.isCancelled()) {
+                                return;
+                            }
+                            progress.onImage(image, imageProcessingService.processImage(image, session.getDomain()));
+                        }, imageExecutor).exceptionally(ex -> {
+                            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                            progress.onError(image, cause.getMessage());
+                            log.error("Error processing image {}: {}", image, cause.getMessage());
                             return null;
                         }))
                         .toArray(CompletableFuture[]::new)
@@ -10,12 +10,12 @@ import java.util.concurrent.CompletableFuture;
 public interface LinkCrawler {
 
     /**
-     * Crawls the specified URL within the given scraping session at a specified recursion depth.
+     * Schedules the specified URL for crawling within the given scraping session at a specified recursion depth.
      *
      * @param url          the URL to crawl
      * @param session      the current scraping session
      * @param currentDepth the current recursion depth
-     * @return a CompletableFuture that completes when the crawling is finished
+     * @return a CompletableFuture that completes when the URL has been scheduled
      */
     CompletableFuture<Void> crawl(String url, ScraperSession session, int currentDepth);
 }
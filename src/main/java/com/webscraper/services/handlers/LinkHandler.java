@@ -1,9 +1,8 @@
 package com.webscraper.services.handlers;
 
+import com.webscraper.entities.PageContent;
 import com.webscraper.entities.ScraperSession;
-import com.webscraper.utils.LinkExtractor;
 import lombok.RequiredArgsConstructor;
-import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,7 +12,8 @@ import java.util.concurrent.CompletableFuture;
 /**
  * Handles processing of links found in a web page.
  * <p>
- * Extracts hyperlinks from the document and delegates crawling to the provided {@link LinkCrawler}.
+ * Takes the hyperlinks extracted from the page and hands them to the provided {@link LinkCrawler},
+ * which places them into the session's crawl frontier.
  */
 @RequiredArgsConstructor
 @Component
@@ -22,16 +22,16 @@ public class LinkHandler implements ContentHandler {
     private final LinkCrawler linkCrawler;
 
     /**
-     * Processes the document to extract links and initiates crawling for each extracted link.
+     * Schedules crawling for each link extracted from the page.
      *
-     * @param document     the JSoup Document to process
+     * @param page         the extracted page content
      * @param session      the current scraping session
      * @param currentDepth the current recursion depth
-     * @return a CompletableFuture that completes when all link crawling tasks are finished
+     * @return a CompletableFuture that completes when all links have been scheduled
      */
     @Override
-    public CompletableFuture<Void> process(Document document, ScraperSession session, int currentDepth) {
-        Set<String> links = LinkExtractor.extractLinks(document);
+    public CompletableFuture<Void> process(PageContent page, ScraperSession session, int currentDepth) {
+        Set<String> links = page.links();
         List<CompletableFuture<Void>> futures = new ArrayList<>();
         for (String link : links) {
             futures.add(linkCrawler.crawl(link, session, currentDepth + 1));
@@ -1,71 +1,226 @@
 package com.webscraper.services.impl;
 
+import com.webscraper.entities.FetchedPage;
+import com.webscraper.entities.HttpValidators;
+import com.webscraper.entities.PageContent;
 import com.webscraper.entities.ProxyInfo;
 import com.webscraper.exceptions.NonRetryableException;
+import com.webscraper.exceptions.RetryableFetchException;
+import com.webscraper.providers.HttpClientProvider;
 import com.webscraper.providers.UserAgentProvider;
 import com.webscraper.services.DocumentService;
+import com.webscraper.utils.FetchErrorClassifier;
+import com.webscraper.utils.PageExtractor;
+import com.webscraper.utils.ResponseBodies;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.CountingInputStream;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
 import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
 import org.jsoup.nodes.Document;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.SocketException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
- * Implementation of {@link DocumentService} for fetching HTML documents using JSoup.
+ * Implementation of {@link DocumentService} that fetches pages over the shared JDK {@code HttpClient}
+ * and parses the streamed body with JSoup.
+ * <p>
+ * Connections are pooled per proxy by {@link HttpClientProvider}, so consecutive pages of the same host reuse
+ * a keep-alive or HTTP/2 connection. Bodies are requested compressed and decoded while they are parsed.
+ * Concurrency per host is bounded by the crawl engine's {@code AdaptiveConcurrencyLimiter} before a fetch
+ * is started, so the fetch itself does not wait for a permit.
  */
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "crawler.fetchMode", havingValue = "blocking", matchIfMissing = true)
 public class DocumentServiceImpl implements DocumentService {
 
+    private final HttpClientProvider httpClientProvider;
+    private final Duration requestTimeout;
+    private final long maxBodyBytes;
+
+    /**
+     * Constructs a DocumentServiceImpl.
+     *
+     * @param httpClientProvider   the provider of shared HttpClient instances
+     * @param requestTimeoutMillis the timeout for receiving the response headers and, separately, for reading
+     *                             the body in milliseconds
+     * @param maxBodyBytes         the maximum number of decoded body bytes parsed for a single page
+     */
+    public DocumentServiceImpl(HttpClientProvider httpClientProvider,
+                               @Value("${crawler.http.requestTimeoutMillis:30000}") int requestTimeoutMillis,
+                               @Value("${crawler.http.maxBodyBytes:10485760}") long maxBodyBytes) {
+        this.httpClientProvider = httpClientProvider;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
     /**
      * Fetches the document from the given URL using the provided proxy.
-     * <p>
-     * This method is retryable in case of IO, Socket, or HTTP status exceptions.
      *
      * @param url   the URL to fetch
      * @param proxy the proxy information; may be null
      * @return the fetched JSoup Document
-     * @throws IOException if fetching fails after retries
+     * @throws IOException if fetching fails
      */
-    @Retryable(
-            value = { IOException.class, SocketException.class, HttpStatusException.class },
-            maxAttempts = 4,
-            backoff = @Backoff(delay = 2000, multiplier = 2)
-    )
     @Override
     public Document fetchDocument(String url, ProxyInfo proxy) throws IOException {
-        return tryFetch(url, proxy);
+        return tryFetch(url, proxy, null, response -> {
+            Charset charset = charsetOf(response);
+            try (InputStream body = openBody(response)) {
+                return Jsoup.parse(body, charset != null ? charset.name() : null, response.uri().toString());
+            }
+        });
     }
 
     /**
-     * Attempts to fetch the document and handles specific HTTP status exceptions.
+     * Fetches the page and extracts its links and images.
+     * <p>
+     * Without {@code buildDocument} the response body is consumed by a {@link StreamParser}
+     * and elements are discarded as soon as they have been visited. Without a charset in the
+     * Content-Type header the streamed body is read as UTF-8. The body is hashed while it is parsed.
+     * Relative links are resolved against the final URL, after any redirects.
      *
-     * @param url   the URL to fetch
-     * @param proxy the proxy information; may be null
-     * @return the fetched JSoup Document
-     * @throws IOException if an error occurs during fetching
+     * @param url           the URL to fetch
+     * @param proxy         the proxy information; may be null
+     * @param buildDocument whether the full JSoup Document must be built
+     * @param conditions    the validators of the cached copy; may be null
+     * @return the fetch result
+     * @throws IOException if fetching fails
+     */
+    @Override
+    public FetchedPage fetchPage(String url, ProxyInfo proxy, boolean buildDocument, HttpValidators conditions) throws IOException {
+        return tryFetch(url, proxy, conditions, response -> readPage(response, buildDocument));
+    }
+
+    /**
+     * Fetches the page asynchronously with {@code HttpClient.sendAsync} and parses the body on the executor.
+     * <p>
+     * Cancelling the returned future aborts the exchange while it waits for the headers and closes the body
+     * while it is being read, so a cancelled session stops its fetches without interrupting any thread.
+     *
+     * @param url           the URL to fetch
+     * @param proxy         the proxy information; may be null
+     * @param buildDocument whether the full JSoup Document must be built
+     * @param conditions    the validators of the cached copy; may be null
+     * @param executor      the executor reading and parsing the body
+     * @return a CompletableFuture with the fetch result
      */
-    private Document tryFetch(String url, ProxyInfo proxy) throws IOException {
+    @Override
+    public CompletableFuture<FetchedPage> fetchPageAsync(String url, ProxyInfo proxy, boolean buildDocument,
+                                                         HttpValidators conditions, Executor executor) {
+        CompletableFuture<HttpResponse<InputStream>> exchange;
         try {
-            Connection connection = createConnection(url, proxy);
-            return connection.get();
-        } catch (HttpStatusException e) {
-            if (e.getStatusCode() == 404) {
-                log.warn("Non-retryable HTTP 404 for URL: {}", url);
-                throw new NonRetryableException("404 Not Found: " + url, e);
+            exchange = httpClientProvider.forProxy(proxy)
+                    .sendAsync(createRequest(url, conditions), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<FetchedPage> page = exchange.thenApplyAsync(response -> {
+            try {
+                checkResponse(response, url, conditions != null);
+                return readPage(response, buildDocument);
+            } catch (IOException e) {
+                log.warn("IOException for URL {}: {}", url, e.getMessage());
+                throw new CompletionException(e);
             }
-            if (e.getStatusCode() == 429 || e.getStatusCode() == 502) {
-                log.warn("Retryable HTTP error {} for URL: {}", e.getStatusCode(), url);
-                throw e;
+        }, executor);
+        page.whenComplete((result, ex) -> {
+            if (page.isCancelled()) {
+                exchange.cancel(true);
+                exchange.thenAccept(response -> closeQuietly(response.body()));
             }
-            throw new NonRetryableException("HTTP error: " + e.getStatusCode(), e);
+        });
+        return page;
+    }
+
+    /**
+     * Reads a checked response into a fetch result.
+     *
+     * @param response      the response with a 2xx status, or 304 to a conditional request
+     * @param buildDocument whether the full JSoup Document must be built
+     * @return the fetch result
+     * @throws IOException if reading the body fails
+     */
+    private FetchedPage readPage(HttpResponse<InputStream> response, boolean buildDocument) throws IOException {
+        HttpValidators validators = new HttpValidators(
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null));
+        if (response.statusCode() == 304) {
+            response.body().close();
+            return FetchedPage.notModified(validators);
+        }
+        Charset charset = charsetOf(response);
+        try (CountingInputStream counting = new CountingInputStream(openBody(response));
+             HashingInputStream body = new HashingInputStream(Hashing.sha256(), counting)) {
+            String baseUri = response.uri().toString();
+            PageContent content = buildDocument
+                    ? PageExtractor.fromDocument(Jsoup.parse(body, charset != null ? charset.name() : null, baseUri))
+                    : extractStreaming(body, charset, baseUri);
+            return new FetchedPage(content, validators, counting.getCount(), body.hash().toString());
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.debug("Failed to close cancelled response body: {}", e.getMessage());
+        }
+    }
+
+    private PageContent extractStreaming(InputStream body, Charset charset, String url) throws IOException {
+        try (StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            parser.parse(new InputStreamReader(body, charset != null ? charset : StandardCharsets.UTF_8), url);
+            return PageExtractor.extract(parser, url);
+        }
+    }
+
+    /**
+     * Attempts to fetch the page and handles specific HTTP status codes.
+     * <p>
+     * 429, 502 and 503 responses are reported as {@link RetryableFetchException} carrying the Retry-After delay,
+     * so the caller can requeue the URL instead of retrying on the current thread. A 304 response to a
+     * conditional request is passed to the call.
+     *
+     * @param url        the URL to fetch
+     * @param proxy      the proxy information; may be null
+     * @param conditions the validators sent with the request; may be null
+     * @param call       the call that reads a successful response
+     * @param <T>        the result type
+     * @return the result of the call
+     * @throws IOException if an error occurs during fetching
+     */
+    private <T> T tryFetch(String url, ProxyInfo proxy, HttpValidators conditions, ResponseCall<T> call) throws IOException {
+        try {
+            HttpRequest request = createRequest(url, conditions);
+            HttpResponse<InputStream> response = send(request, proxy);
+            checkResponse(response, url, conditions != null);
+            return call.call(response);
+        } catch (RetryableFetchException e) {
+            log.warn("Retryable HTTP error {} for URL: {}", e.getStatusCode(), url);
+            throw e;
         } catch (SocketException e) {
             log.warn("SocketException for URL {}: {}", url, e.getMessage());
             throw e;
@@ -76,36 +231,120 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     /**
-     * Creates a JSoup connection for the given URL with the appropriate headers and proxy settings.
+     * Decodes and limits the body of a successful response.
+     * <p>
+     * The raw body gets its own read deadline, so a server that trickles the body cannot hold the thread
+     * past the header timeout.
      *
-     * @param url   the URL to connect to
-     * @param proxy the proxy information; may be null
-     * @return the JSoup {@link Connection} instance
+     * @param response the received response
+     * @return the decoded body
+     * @throws IOException if the Content-Encoding is not supported
+     */
+    private InputStream openBody(HttpResponse<InputStream> response) throws IOException {
+        return ResponseBodies.limit(ResponseBodies.decode(ResponseBodies.withDeadline(response.body(), requestTimeout),
+                response.headers().firstValue("Content-Encoding").orElse(null)), maxBodyBytes);
+    }
+
+    private HttpResponse<InputStream> send(HttpRequest request, ProxyInfo proxy) throws IOException {
+        try {
+            return httpClientProvider.forProxy(proxy).send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + request.uri());
+        }
+    }
+
+    /**
+     * Turns an unsuccessful or non-HTML response into an exception and releases its connection.
+     *
+     * @param response    the received response
+     * @param url         the requested URL
+     * @param conditional whether the request carried validators, so 304 is a valid answer
+     * @throws IOException if the status is not 2xx or the content type is not HTML or XML
+     */
+    private void checkResponse(HttpResponse<InputStream> response, String url, boolean conditional) throws IOException {
+        int status = response.statusCode();
+        if (status == 304 && conditional) {
+            return;
+        }
+        if (status < 200 || status >= 300) {
+            response.body().close();
+            if (status == 404) {
+                log.warn("Non-retryable HTTP 404 for URL: {}", url);
+                throw new NonRetryableException("404 Not Found: " + url, new HttpStatusException("HTTP error fetching URL", status, url));
+            }
+            if (status == 429 || status == 502 || status == 503) {
+                throw new RetryableFetchException(status, url,
+                        FetchErrorClassifier.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+            }
+            throw new NonRetryableException("HTTP error: " + status, new HttpStatusException("HTTP error fetching URL", status, url));
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        if (contentType == null) {
+            return;
+        }
+        String mimeType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (!mimeType.startsWith("text/") && !mimeType.contains("xml")) {
+            response.body().close();
+            throw new UnsupportedMimeTypeException("Unhandled content type", contentType, url);
+        }
+    }
+
+    /**
+     * Returns the charset from the Content-Type header of the response.
+     *
+     * @param response the received response
+     * @return the charset, or null if none is given or it is not supported
+     */
+    private Charset charsetOf(HttpResponse<InputStream> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        if (contentType == null) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String[] pair = parameter.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("charset")) {
+                try {
+                    return Charset.forName(pair[1].trim().replace("\"", ""));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a request for the given URL with the appropriate headers.
+     *
+     * @param url        the URL to request
+     * @param conditions the validators of the cached copy; may be null
+     * @return the {@link HttpRequest} instance
      */
-    private Connection createConnection(String url, ProxyInfo proxy) {
-        String userAgent = UserAgentProvider.getRandomUserAgent();
-        Connection connection = Jsoup.connect(url)
-                .userAgent(userAgent)
+    private HttpRequest createRequest(String url, HttpValidators conditions) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .GET()
+                .timeout(requestTimeout)
+                .header("User-Agent", UserAgentProvider.getRandomUserAgent())
                 .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
                 .header("Accept-Language", "ru-RU,ru;q=0.9,en-US;q=0.8,en;q=0.7")
-                .timeout(30000);
-        if (proxy != null) {
-            connection.proxy(proxy.host(), proxy.port());
+                .header("Accept-Encoding", ResponseBodies.ACCEPT_ENCODING);
+        if (conditions != null && conditions.etag() != null) {
+            builder.header("If-None-Match", conditions.etag());
         }
-        return connection;
+        if (conditions != null && conditions.lastModified() != null) {
+            builder.header("If-Modified-Since", conditions.lastModified());
+        }
+        return builder.build();
     }
 
     /**
-     * Recovery method for fetchDocument after all retries have been exhausted.
+     * A call that reads a successful response.
      *
-     * @param e     the exception encountered during fetching
-     * @param url   the URL that was being fetched
-     * @param proxy the proxy information used
-     * @return null, indicating that the document could not be fetched
+     * @param <T> the result type
      */
-    @Recover
-    public Document recover(IOException e, String url, ProxyInfo proxy) {
-        log.error("Failed to fetch document from URL {} after retries: {}", url, e.getMessage());
-        return null;
+    @FunctionalInterface
+    private interface ResponseCall<T> {
+        T call(HttpResponse<InputStream> response) throws IOException;
     }
 }
@@ -1,61 +1,106 @@
 package com.webscraper.services.impl;
 
 import com.webscraper.entities.CompressionResult;
+import com.webscraper.entities.ImageData;
 import com.webscraper.entities.ImageEntity;
+import com.webscraper.exceptions.ImageSizeException;
 import com.webscraper.repositories.ImageRepository;
 import com.webscraper.services.ImageProcessingService;
-import com.webscraper.services.JpegCompressor;
+import com.webscraper.services.ImageBatchWriter;
+import com.webscraper.services.ImageOutputSelector;
 import com.webscraper.services.strategy.ImageFetchStrategy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation of {@link ImageProcessingService} for processing images:
  * fetching, compressing, and preparing URLs.
+ * <p>
+ * Processed image URLs are remembered in a size- and time-bounded Caffeine cache (W-TinyLFU eviction) shared
+ * by all sessions. A URL is claimed in the cache before it is downloaded, so concurrent sessions fetch it once,
+ * and it stays marked once its row is queued for the {@link ImageBatchWriter}. On a miss the repository decides:
+ * a stored URL stays marked, and a URL without a row keeps its claim while it is downloaded. The cache only holds
+ * positive results, so a row inserted later by the batch writer is never hidden by a cached miss. Cache
+ * statistics are published to Micrometer as {@code cache.*} meters tagged {@code cache=processedImages} and
+ * {@code cache=domainDirectories}.
+ * <p>
+ * Images smaller than {@code images.download.minBytes} or larger than {@code images.download.maxBytes} are skipped;
+ * HTTP downloads are abandoned as soon as their length is known.
  */
 @Slf4j
 @Service
 public class ImageProcessingServiceImpl implements ImageProcessingService {
 
-    private final JpegCompressor jpegCompressor;
+    private final ImageOutputSelector imageOutputSelector;
     private final ImageRepository imageRepository;
-    private final ConcurrentMap<String, Boolean> processedImagesCache = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, Path> domainDirectories = new ConcurrentHashMap<>();
+    private final ImageBatchWriter imageBatchWriter;
+    private final Cache<String, Boolean> processedImagesCache;
+    private final Cache<String, Path> domainDirectories;
     private final List<ImageFetchStrategy> imageFetchStrategies;
     private final Path outputDirectory;
+    private final long minImageBytes;
+    private final long maxImageBytes;
 
     /**
      * Constructs a new ImageProcessingServiceImpl.
      *
      * @param restTemplateBuilder a RestTemplateBuilder for HTTP requests
-     * @param imageRepository     the repository for storing image data
-     * @param jpegCompressor      the JPEG compressor service
+     * @param imageRepository     the repository for looking up stored images
+     * @param imageBatchWriter    the writer persisting new images in batches
+     * @param imageOutputSelector the service compressing images into the smallest output format
      * @param imageFetchStrategies the list of strategies to fetch images
      * @param env                 the environment for configuration properties
+     * @param meterRegistry       the registry receiving the cache statistics
      */
     @Autowired
     public ImageProcessingServiceImpl(RestTemplateBuilder restTemplateBuilder,
                                       ImageRepository imageRepository,
-                                      JpegCompressor jpegCompressor,
+                                      ImageBatchWriter imageBatchWriter,
+                                      ImageOutputSelector imageOutputSelector,
                                       List<ImageFetchStrategy> imageFetchStrategies,
-                                      Environment env) {
+                                      Environment env,
+                                      MeterRegistry meterRegistry) {
         this.imageRepository = imageRepository;
-        this.jpegCompressor = jpegCompressor;
+        this.imageBatchWriter = imageBatchWriter;
+        this.imageOutputSelector = imageOutputSelector;
         this.imageFetchStrategies = imageFetchStrategies;
         String outputDirStr = env.getProperty("images.output.directory", "compressed-images");
         this.outputDirectory = Paths.get(outputDirStr);
+        this.minImageBytes = env.getProperty("images.download.minBytes", Long.class, 200 * 1024L);
+        this.maxImageBytes = env.getProperty("images.download.maxBytes", Long.class, 50 * 1024 * 1024L);
+        long maximumSize = env.getProperty("images.cache.maximumSize", Long.class, 100_000L);
+        Duration expireAfterAccess = Duration.ofMinutes(env.getProperty("images.cache.expireAfterAccessMinutes", Long.class, 60L));
+        this.processedImagesCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        this.domainDirectories = Caffeine.newBuilder()
+                .maximumSize(env.getProperty("images.cache.maxDomainDirectories", Long.class, 1_000L))
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, processedImagesCache, "processedImages");
+        CaffeineCacheMetrics.monitor(meterRegistry, domainDirectories, "domainDirectories");
         createOutputDirectory();
     }
 
@@ -77,7 +122,7 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
      * @return the {@link Path} to the domain-specific directory
      */
     private Path getDomainOutputDirectory(String domain) {
-        return domainDirectories.computeIfAbsent(domain, d -> {
+        return domainDirectories.get(domain, d -> {
             Path domainDir = outputDirectory.resolve(d);
             try {
                 Files.createDirectories(domainDir);
@@ -93,39 +138,66 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
      *
      * @param imagePath the URL or path of the image
      * @param domain    the domain associated with the image
+     * @return the compression result, or null if the image was processed before or is being processed, could not
+     *         be fetched or is outside the size limits
+     * @throws UncheckedIOException if the image cannot be compressed or saved
      */
     @Override
-    public void processImage(String imagePath, String domain) {
-        if (processedImagesCache.containsKey(imagePath)) {
+    public CompressionResult processImage(String imagePath, String domain) {
+        boolean[] claimed = new boolean[1];
+        processedImagesCache.get(imagePath, url -> {
+            claimed[0] = true;
+            return Boolean.TRUE;
+        });
+        if (!claimed[0] || isStored(imagePath)) {
             log.info("Image {} has already been processed.", imagePath);
-            return;
+            return null;
         }
-        try {
-            byte[] imageBytes = getImageBytes(imagePath);
-            if (imageBytes == null) {
+        CompressionResult result = null;
+        try (ImageData image = getImageData(imagePath)) {
+            if (image == null) {
                 log.warn("Failed to obtain image data for URL: {}", imagePath);
-                return;
+                return null;
             }
-            if (imageBytes.length < 200 * 1024) {
-                log.info("Image {} is less than 200 KB; skipping processing.", imagePath);
-                return;
+            result = processImageBytes(image, imagePath, domain);
+            return result;
+        } catch (ImageSizeException ex) {
+            log.info("Image {} is outside the size limits ({}); skipping processing.", imagePath, ex.getMessage());
+            return null;
+        } finally {
+            if (result == null) {
+                // releases the claim, so a later attempt may fetch the image again
+                processedImagesCache.invalidate(imagePath);
             }
-            processImageBytes(imageBytes, imagePath, domain);
-        } catch (Exception ex) {
-            log.error("Error processing image {}: ", imagePath, ex);
         }
     }
 
     /**
-     * Attempts to fetch image bytes using the registered image fetch strategies.
+     * Checks the repository for an image that was processed before it dropped out of the cache.
+     *
+     * @param imagePath the URL or path of the image
+     * @return true if the image is stored; false if it is not or the repository is unavailable
+     */
+    private boolean isStored(String imagePath) {
+        try {
+            return imageRepository.findByOriginalUrl(imagePath).isPresent();
+        } catch (DataAccessException e) {
+            log.warn("Failed to look up image {}: {}", imagePath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Attempts to fetch image data using the registered image fetch strategies.
      *
      * @param imageUrl the URL of the image
-     * @return a byte array containing the image data, or null if no strategy supports the URL
+     * @return the image data, or null if no strategy supports the URL or fetching fails
+     * @throws ImageSizeException if the image is outside the configured size limits
      */
-    private byte[] getImageBytes(String imageUrl) {
+    private ImageData getImageData(String imageUrl) {
         for (ImageFetchStrategy strategy : imageFetchStrategies) {
             if (strategy.supports(imageUrl)) {
-                return strategy.fetchImage(imageUrl, this);
+                return strategy.fetchImageData(imageUrl, this, minImageBytes, maxImageBytes);
             }
         }
         log.warn("No fetch strategy found for image URL: {}", imageUrl);
@@ -154,26 +226,49 @@ public class ImageProcessingServiceImpl implements ImageProcessingService {
     }
 
     /**
-     * Compresses and saves the image bytes, then updates the repository.
+     * Compresses and saves the image bytes, then queues its row for the {@link ImageBatchWriter}.
+     * <p>
+     * Images are identified by the SHA-256 of their bytes first. If the same content was already compressed,
+     * e.g. under another CDN URL, only the new URL is recorded and points to the existing file. Rows that are
+     * still queued count as compressed.
      *
-     * @param imageBytes the original image data
-     * @param imagePath  the original image URL or path
-     * @param domain     the domain associated with the image
+     * @param image     the original image data
+     * @param imagePath the original image URL or path
+     * @param domain    the domain associated with the image
+     * @return the compression result of the image, or of the stored image with the same content
      */
-    private void processImageBytes(byte[] imageBytes, String imagePath, String domain) {
-        try {
-            Path domainDir = getDomainOutputDirectory(domain);
-            CompressionResult result = jpegCompressor.compressAndSave(imageBytes, domainDir);
-
-            ImageEntity imageEntity = new ImageEntity();
-            imageEntity.setOriginalUrl(imagePath);
-            imageEntity.setPath(result.fileLink());
-            imageEntity.setOriginalSize(imageBytes.length);
-            imageEntity.setSizeAfterCompression(result.compressedSize());
-            imageRepository.save(imageEntity);
+    private CompressionResult processImageBytes(ImageData image, String imagePath, String domain) {
+        String contentHash = Hashing.sha256().hashBytes(image.buffer(), 0, image.length()).toString();
+        ImageEntity existing = imageBatchWriter.findPending(contentHash);
+        if (existing == null) {
+            existing = imageRepository.findFirstByContentHash(contentHash).orElse(null);
+        }
+        if (existing != null) {
+            if (!existing.getOriginalUrl().equals(imagePath)) {
+                log.info("Image {} has the same content as {}; reusing {}", imagePath, existing.getOriginalUrl(), existing.getPath());
+                imageBatchWriter.enqueue(new ImageEntity(0, imagePath, existing.getPath(), image.length(),
+                        existing.getSizeAfterCompression(), contentHash, existing.getFormat()));
+            }
             processedImagesCache.put(imagePath, Boolean.TRUE);
-        } catch (Exception e) {
-            log.error("Error processing image {}: ", imagePath, e);
+            return new CompressionResult(existing.getSizeAfterCompression(), existing.getPath(), existing.getFormat());
         }
+        Path domainDir = getDomainOutputDirectory(domain);
+        CompressionResult result;
+        try {
+            result = imageOutputSelector.compressAndSave(image.buffer(), image.length(), domainDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress image " + imagePath, e);
+        }
+
+        ImageEntity imageEntity = new ImageEntity();
+        imageEntity.setOriginalUrl(imagePath);
+        imageEntity.setPath(result.fileLink());
+        imageEntity.setOriginalSize(image.length());
+        imageEntity.setSizeAfterCompression(result.compressedSize());
+        imageEntity.setContentHash(contentHash);
+        imageEntity.setFormat(result.format());
+        imageBatchWriter.enqueue(imageEntity);
+        processedImagesCache.put(imagePath, Boolean.TRUE);
+        return result;
     }
 }
@@ -0,0 +1,312 @@
+package com.webscraper.services.impl;
+
+import com.webscraper.entities.FetchedPage;
+import com.webscraper.entities.HttpValidators;
+import com.webscraper.entities.PageContent;
+import com.webscraper.entities.ProxyInfo;
+import com.webscraper.exceptions.NonRetryableException;
+import com.webscraper.exceptions.RetryableFetchException;
+import com.webscraper.providers.UserAgentProvider;
+import com.webscraper.providers.WebClientProvider;
+import com.webscraper.services.DocumentService;
+import com.webscraper.utils.FetchErrorClassifier;
+import com.webscraper.utils.PageExtractor;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking implementation of {@link DocumentService} backed by Spring's {@code WebClient} over Reactor Netty.
+ * <p>
+ * The response body is streamed into pooled Netty buffers on the event loop; only parsing runs on the caller's
+ * executor, so in-flight requests do not hold a worker thread. Enabled with {@code crawler.fetchMode=reactive}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "crawler.fetchMode", havingValue = "reactive")
+public class ReactiveDocumentServiceImpl implements DocumentService {
+
+    private final WebClientProvider webClientProvider;
+    private final int maxBodyBytes;
+
+    /**
+     * Constructs a ReactiveDocumentServiceImpl.
+     *
+     * @param webClientProvider the provider of shared WebClient instances
+     * @param maxBodyBytes      the maximum number of body bytes buffered for a single page
+     */
+    public ReactiveDocumentServiceImpl(WebClientProvider webClientProvider,
+                                       @Value("${crawler.reactive.maxBodyBytes:10485760}") int maxBodyBytes) {
+        this.webClientProvider = webClientProvider;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * Fetches the document and waits for the result.
+     *
+     * @param url   the URL to fetch
+     * @param proxy the proxy information; may be null
+     * @return the fetched JSoup Document
+     * @throws IOException if fetching fails
+     */
+    @Override
+    public Document fetchDocument(String url, ProxyInfo proxy) throws IOException {
+        return await(fetchBody(url, proxy, null).thenApply(this::parseDocumentAndRelease));
+    }
+
+    /**
+     * Fetches the page and waits for the result.
+     *
+     * @param url           the URL to fetch
+     * @param proxy         the proxy information; may be null
+     * @param buildDocument whether the full JSoup Document must be built
+     * @param conditions    the validators of the cached copy; may be null
+     * @return the fetch result
+     * @throws IOException if fetching fails
+     */
+    @Override
+    public FetchedPage fetchPage(String url, ProxyInfo proxy, boolean buildDocument, HttpValidators conditions) throws IOException {
+        return await(fetchPageAsync(url, proxy, buildDocument, conditions, Runnable::run));
+    }
+
+    /**
+     * Fetches the page without blocking a thread while the request is in flight.
+     * The buffered body is hashed before it is parsed.
+     * <p>
+     * The buffer is released exactly once: by the parsing stage, or, if that stage never runs because the executor
+     * rejected it or the returned future was cancelled, when the body arrives. Cancelling the returned future also
+     * cancels the request.
+     *
+     * @param url           the URL to fetch
+     * @param proxy         the proxy information; may be null
+     * @param buildDocument whether the full JSoup Document must be built
+     * @param conditions    the validators of the cached copy; may be null
+     * @param executor      the executor used to parse the body
+     * @return a CompletableFuture with the fetch result
+     */
+    @Override
+    public CompletableFuture<FetchedPage> fetchPageAsync(String url, ProxyInfo proxy, boolean buildDocument,
+                                                         HttpValidators conditions, Executor executor) {
+        CompletableFuture<FetchedBody> fetching = fetchBody(url, proxy, conditions);
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<FetchedPage> page = fetching.thenApplyAsync(body -> {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException("Fetch cancelled");
+            }
+            return readPage(body, buildDocument);
+        }, executor);
+        page.whenComplete((result, ex) -> {
+            if (ex == null) {
+                return;
+            }
+            fetching.cancel(true);
+            fetching.thenAccept(body -> {
+                if (claimed.compareAndSet(false, true)) {
+                    DataBufferUtils.release(body.buffer());
+                }
+            });
+        });
+        return page;
+    }
+
+    /**
+     * Hashes and parses a fetched body and releases its buffer, also when parsing fails.
+     *
+     * @param body          the fetched body
+     * @param buildDocument whether the full JSoup Document must be built
+     * @return the fetch result
+     */
+    private FetchedPage readPage(FetchedBody body, boolean buildDocument) {
+        if (body.buffer() == null) {
+            return FetchedPage.notModified(body.validators());
+        }
+        try {
+            long bodyBytes = body.buffer().readableByteCount();
+            String hash = hash(body.buffer());
+            PageContent content = buildDocument
+                    ? PageExtractor.fromDocument(parseDocument(body))
+                    : extractStreaming(body);
+            return new FetchedPage(content, body.validators(), bodyBytes, hash);
+        } finally {
+            DataBufferUtils.release(body.buffer());
+        }
+    }
+
+    /**
+     * Sends the request and streams the body into a single pooled buffer.
+     *
+     * @param url        the URL to fetch
+     * @param proxy      the proxy information; may be null
+     * @param conditions the validators of the cached copy; may be null
+     * @return a CompletableFuture with the response body
+     */
+    private CompletableFuture<FetchedBody> fetchBody(String url, ProxyInfo proxy, HttpValidators conditions) {
+        AtomicReference<String> responseUrl = new AtomicReference<>(url);
+        return webClientProvider.forProxy(proxy)
+                .get()
+                .uri(URI.create(url))
+                .header(HttpHeaders.USER_AGENT, UserAgentProvider.getRandomUserAgent())
+                .header(HttpHeaders.ACCEPT, "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, "ru-RU,ru;q=0.9,en-US;q=0.8,en;q=0.7")
+                .headers(headers -> {
+                    if (conditions != null && conditions.etag() != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, conditions.etag());
+                    }
+                    if (conditions != null && conditions.lastModified() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, conditions.lastModified());
+                    }
+                })
+                .exchangeToMono(response -> readBody(response, url, responseUrl.get(), conditions != null))
+                .contextWrite(Context.of(WebClientProvider.RESPONSE_URL, responseUrl))
+                .toFuture();
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the response status and content type and joins the streamed body into a single buffer.
+     * A 304 response to a conditional request yields a body without a buffer, and an empty 200 response an
+     * empty buffer.
+     *
+     * @param response    the client response
+     * @param url         the requested URL
+     * @param responseUrl the URL that answered, i.e. the target of the last redirect
+     * @param conditional whether the request carried validators
+     * @return a Mono with the response body
+     */
+    private Mono<FetchedBody> readBody(ClientResponse response, String url, String responseUrl, boolean conditional) {
+        int status = response.statusCode().value();
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        HttpValidators validators = new HttpValidators(headers.getFirst(HttpHeaders.ETAG), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+        if (status == 304 && conditional) {
+            return response.releaseBody().thenReturn(new FetchedBody(null, null, validators, responseUrl));
+        }
+        if (status == 404) {
+            log.warn("Non-retryable HTTP 404 for URL: {}", url);
+            return response.releaseBody().then(Mono.error(
+                    new NonRetryableException("404 Not Found: " + url, new HttpStatusException("HTTP error fetching URL", status, url))));
+        }
+        if (status == 429 || status == 502 || status == 503) {
+            log.warn("Retryable HTTP error {} for URL: {}", status, url);
+            long retryAfter = FetchErrorClassifier.parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER));
+            return response.releaseBody().then(Mono.error(new RetryableFetchException(status, url, retryAfter)));
+        }
+        if (!response.statusCode().is2xxSuccessful()) {
+            return response.releaseBody().then(Mono.error(
+                    new NonRetryableException("HTTP error: " + status, new HttpStatusException("HTTP error fetching URL", status, url))));
+        }
+        MediaType contentType = response.headers().contentType().orElse(null);
+        if (contentType != null && !isHtml(contentType)) {
+            return response.releaseBody().then(Mono.error(
+                    new UnsupportedMimeTypeException("Unhandled content type", contentType.toString(), url)));
+        }
+        Charset charset = contentType != null ? contentType.getCharset() : null;
+        return DataBufferUtils.join(response.bodyToFlux(DataBuffer.class), maxBodyBytes)
+                .switchIfEmpty(Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.allocateBuffer(0)))
+                .map(buffer -> new FetchedBody(buffer, charset, validators, responseUrl));
+    }
+
+    /**
+     * Parses the buffered body into a full document. The caller releases the buffer.
+     *
+     * @param body the fetched body
+     * @return the parsed JSoup Document, with the final URL as its location
+     */
+    private Document parseDocument(FetchedBody body) {
+        try (InputStream in = body.buffer().asInputStream()) {
+            return Jsoup.parse(in, body.charset() != null ? body.charset().name() : null, body.url());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the buffered body into a full document and releases the buffer.
+     *
+     * @param body the fetched body
+     * @return the parsed JSoup Document, with the final URL as its location
+     */
+    private Document parseDocumentAndRelease(FetchedBody body) {
+        try {
+            return parseDocument(body);
+        } finally {
+            DataBufferUtils.release(body.buffer());
+        }
+    }
+
+    /**
+     * Extracts links and images from the buffered body in a single streaming pass. The caller releases the buffer.
+     * Without a charset in the Content-Type header the body is read as UTF-8.
+     *
+     * @param body the fetched body
+     * @return the extracted page content without a document
+     */
+    private PageContent extractStreaming(FetchedBody body) {
+        Charset charset = body.charset() != null ? body.charset() : StandardCharsets.UTF_8;
+        try (InputStream in = body.buffer().asInputStream();
+             StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            parser.parse(new InputStreamReader(in, charset), body.url());
+            return PageExtractor.extract(parser, body.url());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isHtml(MediaType contentType) {
+        return contentType.getType().equals("text") || contentType.getSubtype().contains("xml");
+    }
+
+    private String hash(DataBuffer buffer) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            iterator.forEachRemaining(hasher::putBytes);
+        }
+        return hasher.hash().toString();
+    }
+
+    private record FetchedBody(DataBuffer buffer, Charset charset, HttpValidators validators, String url) {
+    }
+}
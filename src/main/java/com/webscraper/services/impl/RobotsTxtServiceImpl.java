@@ -1,19 +1,40 @@
 package com.webscraper.services.impl;
 
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.webscraper.services.PolitenessScheduler;
 import com.webscraper.services.RobotsTxtService;
+import com.webscraper.utils.URLUtils;
 import crawlercommons.robots.BaseRobotRules;
 import crawlercommons.robots.SimpleRobotRulesParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Connection;
-import org.jsoup.HttpStatusException;
-import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of {@link RobotsTxtService} for retrieving and parsing the robots.txt file.
+ * <p>
+ * Rules are shared by all sessions in a cache keyed by scheme and host, so every host, including each subdomain
+ * of a crawled site, gets its own robots.txt, fetched asynchronously the first time the host is seen. Rules are
+ * kept for {@code crawler.robots.ttlMinutes}; hosts without a usable robots.txt (4xx, 5xx or network errors) are
+ * remembered as such for {@code crawler.robots.negativeTtlMinutes}. Rules read after
+ * {@code crawler.robots.refreshMinutes} are served stale while they are fetched again; a failed refresh keeps
+ * the old rules until they expire. The crawl-delay of loaded rules is handed to the {@link PolitenessScheduler}.
  */
 @Slf4j
 @Service
@@ -22,52 +43,68 @@ public class RobotsTxtServiceImpl implements RobotsTxtService {
     private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) " +
             "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/112.0.0.0 Safari/537.36";
 
+    private final PolitenessScheduler politenessScheduler;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final AsyncLoadingCache<String, CachedRules> cache;
+
+    /**
+     * Constructs a RobotsTxtServiceImpl.
+     *
+     * @param politenessScheduler the scheduler receiving the crawl-delays of the hosts
+     * @param meterRegistry       the registry receiving the cache statistics
+     * @param ttlMinutes          how long loaded rules are kept
+     * @param negativeTtlMinutes  how long a host without usable rules is kept
+     * @param refreshMinutes      the age after which rules are fetched again in the background
+     * @param maxHosts            the maximum number of hosts in the cache
+     * @param timeoutMillis       the timeout of a robots.txt download in milliseconds
+     */
+    public RobotsTxtServiceImpl(PolitenessScheduler politenessScheduler,
+                                MeterRegistry meterRegistry,
+                                @Value("${crawler.robots.ttlMinutes:1440}") long ttlMinutes,
+                                @Value("${crawler.robots.negativeTtlMinutes:60}") long negativeTtlMinutes,
+                                @Value("${crawler.robots.refreshMinutes:60}") long refreshMinutes,
+                                @Value("${crawler.robots.maxHosts:10000}") long maxHosts,
+                                @Value("${crawler.robots.timeoutMillis:10000}") long timeoutMillis) {
+        this.politenessScheduler = politenessScheduler;
+        this.requestTimeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(requestTimeout)
+                .build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxHosts)
+                .expireAfter(new RulesExpiry(TimeUnit.MINUTES.toNanos(ttlMinutes), TimeUnit.MINUTES.toNanos(negativeTtlMinutes)))
+                .refreshAfterWrite(Duration.ofMinutes(refreshMinutes))
+                .recordStats()
+                .buildAsync(new RulesLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "robotsTxt");
+    }
+
     /**
-     * Retrieves the robots.txt rules for the given domain.
+     * Retrieves the robots.txt rules for the scheme and host of the given URL.
      *
-     * @param domain the domain for which to retrieve robots.txt
-     * @return the parsed {@link BaseRobotRules} or null if not available
+     * @param url the URL whose rules are needed
+     * @return a future with the parsed {@link BaseRobotRules}, or with null if not available
      */
     @Override
-    public BaseRobotRules getRules(String domain) {
-        String robotsUrl = "https://" + domain + "/robots.txt";
-        byte[] content = downloadRobotsTxt(domain);
-        if (content == null) {
-            return null;
-        }
-        SimpleRobotRulesParser parser = new SimpleRobotRulesParser();
-        List<String> userAgents = List.of(USER_AGENT);
-        return parser.parseContent(robotsUrl, content, "text/plain", userAgents);
+    public CompletableFuture<BaseRobotRules> getRules(String url) {
+        return cache.get(originOf(url)).thenApply(CachedRules::rules);
     }
 
     /**
-     * Downloads the content of robots.txt for the given domain.
+     * Checks the URL against the cached rules of its host without waiting for a download.
      *
-     * @param domain the domain for which to download robots.txt
-     * @return a byte array containing the content, or null if not available
+     * @param url the URL to check
+     * @return false if the cached rules disallow the URL; true otherwise
      */
-    private byte[] downloadRobotsTxt(String domain) {
-        String robotsUrl = "https://" + domain + "/robots.txt";
-        try {
-            Connection.Response response = Jsoup.connect(robotsUrl)
-                    .userAgent(USER_AGENT)
-                    .ignoreContentType(true)
-                    .timeout(10000)
-                    .execute();
-            if (response.statusCode() != 200) {
-                return null;
-            }
-            return response.body().getBytes(StandardCharsets.UTF_8);
-        } catch (HttpStatusException e) {
-            if (e.getStatusCode() == 404) {
-                log.info("robots.txt not found for domain: {}", domain);
-                return null;
-            }
-        } catch (Exception e) {
-            log.error("Error downloading robots.txt from URL: {}. Error: {}", robotsUrl, e.getMessage(), e);
-            return null;
+    @Override
+    public boolean isAllowed(String url) {
+        CompletableFuture<CachedRules> cached = cache.get(originOf(url));
+        if (!cached.isDone() || cached.isCompletedExceptionally()) {
+            return true;
         }
-        return new byte[0];
+        return isAllowed(url, cached.join().rules());
     }
 
     /**
@@ -77,10 +114,144 @@ public class RobotsTxtServiceImpl implements RobotsTxtService {
      * @param rules the robots.txt rules to apply; may be null
      * @return true if allowed, false otherwise
      */
+    @Override
     public boolean isAllowed(String url, BaseRobotRules rules) {
         if (rules == null) {
             return true;
         }
         return rules.isAllowed(url);
     }
+
+    /**
+     * Releases the connections of the robots.txt client.
+     */
+    @PreDestroy
+    public void shutdown() {
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * Downloads and parses the robots.txt of an origin.
+     *
+     * @param origin the scheme and host, e.g. {@code https://example.com}
+     * @return a future with the rules; a 4xx response yields an entry without rules, while 5xx responses and
+     * network errors fail the future
+     */
+    private CompletableFuture<CachedRules> fetch(String origin) {
+        String robotsUrl = origin + "/robots.txt";
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(robotsUrl))
+                    .GET()
+                    .timeout(requestTimeout)
+                    .header("User-Agent", USER_AGENT)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            int status = response.statusCode();
+            if (status / 100 == 2) {
+                String contentType = response.headers().firstValue("Content-Type").orElse("text/plain");
+                BaseRobotRules rules = new SimpleRobotRulesParser()
+                        .parseContent(robotsUrl, response.body(), contentType, List.of(USER_AGENT));
+                applyCrawlDelay(origin, rules);
+                return new CachedRules(rules);
+            }
+            if (status / 100 == 4) {
+                log.info("robots.txt not found for {}: HTTP {}", origin, status);
+                applyCrawlDelay(origin, null);
+                return CachedRules.NONE;
+            }
+            throw new IllegalStateException("HTTP status " + status + " for " + robotsUrl);
+        });
+    }
+
+    /**
+     * Hands the crawl-delay of freshly loaded rules to the politeness scheduler. Every load sets it, so a delay that
+     * was lowered or removed from robots.txt is lowered or removed here too.
+     *
+     * @param origin the origin the rules belong to
+     * @param rules  the loaded rules, or null if the host has no usable robots.txt
+     */
+    private void applyCrawlDelay(String origin, BaseRobotRules rules) {
+        long delay = rules != null ? Math.max(0, rules.getCrawlDelay()) : 0;
+        if (delay > 0) {
+            log.info("Crawl-delay (from robots.txt) for {}: {}", origin, delay);
+        }
+        politenessScheduler.setCrawlDelay(URLUtils.extractHost(origin), delay);
+    }
+
+    /**
+     * Returns the cache key of a URL: its lowercase scheme and authority.
+     *
+     * @param url the absolute URL
+     * @return the origin, e.g. {@code https://blog.example.com}
+     */
+    static String originOf(String url) {
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return url.toLowerCase();
+        }
+        int end = start + 3;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            end++;
+        }
+        return url.substring(0, end).toLowerCase();
+    }
+
+    /**
+     * Cached outcome of a robots.txt download.
+     *
+     * @param rules the parsed rules, or null if the host has no usable robots.txt
+     */
+    private record CachedRules(BaseRobotRules rules) {
+        static final CachedRules NONE = new CachedRules(null);
+    }
+
+    /**
+     * Loads rules on a cache miss and refreshes them in the background. A failed first download is cached
+     * as a host without rules; a failed refresh is dropped, so the cache keeps the previous rules.
+     */
+    private final class RulesLoader implements AsyncCacheLoader<String, CachedRules> {
+
+        @Override
+        public CompletableFuture<CachedRules> asyncLoad(String origin, Executor executor) {
+            return fetch(origin).exceptionally(ex -> {
+                log.warn("Failed to download robots.txt for {}: {}", origin, ex.getMessage());
+                applyCrawlDelay(origin, null);
+                return CachedRules.NONE;
+            });
+        }
+
+        @Override
+        public CompletableFuture<CachedRules> asyncReload(String origin, CachedRules oldValue, Executor executor) {
+            return oldValue.rules() != null ? fetch(origin) : asyncLoad(origin, executor);
+        }
+    }
+
+    /**
+     * Expires hosts with rules after the regular TTL and hosts without rules after the negative TTL.
+     */
+    private record RulesExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<String, CachedRules> {
+
+        @Override
+        public long expireAfterCreate(String origin, CachedRules value, long currentTime) {
+            return value.rules() != null ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String origin, CachedRules value, long currentTime, long currentDuration) {
+            return expireAfterCreate(origin, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String origin, CachedRules value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -1,105 +1,466 @@
 package com.webscraper.services.impl;
 
-import com.google.common.util.concurrent.RateLimiter;
+import com.webscraper.durable.CrawlStateStore;
+import com.webscraper.engines.CrawlBudget;
+import com.webscraper.engines.CrawlEventStream;
+import com.webscraper.engines.CrawlJob;
+import com.webscraper.engines.FrontierQueue;
+import com.webscraper.engines.PageCacheStats;
 import com.webscraper.engines.ScraperEngine;
+import com.webscraper.entities.CrawlJobStatus;
+import com.webscraper.entities.CrawlLimits;
 import com.webscraper.entities.ProxyInfo;
 import com.webscraper.entities.ScraperSession;
+import com.webscraper.entities.SessionState;
+import com.webscraper.exceptions.CrawlJobRunningException;
+import com.webscraper.exceptions.SessionNotFoundException;
+import com.webscraper.services.AdaptiveConcurrencyLimiter;
+import com.webscraper.services.CrawlBudgetPolicy;
 import com.webscraper.services.DocumentService;
+import com.webscraper.services.HostCircuitBreaker;
+import com.webscraper.services.PageValidatorCache;
+import com.webscraper.services.PolitenessScheduler;
 import com.webscraper.services.ProxySelectorService;
+import com.webscraper.services.RetryScheduler;
 import com.webscraper.services.RobotsTxtService;
 import com.webscraper.services.ScraperService;
 import com.webscraper.services.handlers.ContentHandler;
-import crawlercommons.robots.BaseRobotRules;
+import com.webscraper.visited.VisitedSet;
+import com.webscraper.visited.VisitedSetFactory;
+import com.webscraper.visited.VisitedUrlLog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Collections;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Service facade for starting and managing the scraping process.
+ * <p>
+ * Sessions run as {@link CrawlJob}s in the background. Running jobs are tracked until they end; finished jobs are
+ * kept for {@code crawler.jobs.retentionMinutes}, so their status and results can still be fetched.
  */
 @Slf4j
 @Service
 public class ScraperServiceImpl implements ScraperService {
 
     private final ExecutorService linkExecutor;
-    private final ExecutorService imageExecutor;
     private final RobotsTxtService robotsTxtService;
     private final ProxySelectorService proxySelectorService;
+    private final PolitenessScheduler politenessScheduler;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final HostCircuitBreaker circuitBreaker;
+    private final RetryScheduler retryScheduler;
+    private final CrawlBudgetPolicy crawlBudgetPolicy;
+    private final PageValidatorCache pageValidatorCache;
     private final DocumentService documentService;
     private final List<ContentHandler> contentHandlers;
+    private final VisitedSetFactory visitedSetFactory;
+    private final CrawlStateStore crawlStateStore;
+    private final Map<String, CrawlJob> activeJobs = new ConcurrentHashMap<>();
+    private final Cache<String, CrawlJob> finishedJobs;
+    private final int frontierCapacity;
+    private final int maxInFlight;
+    private final int eventBuffer;
 
     public ScraperServiceImpl(@Qualifier("linkExecutor") ExecutorService linkExecutor,
-                              @Qualifier("imageExecutor") ExecutorService imageExecutor,
                               RobotsTxtService robotsTxtService,
                               ProxySelectorService proxySelectorService,
+                              PolitenessScheduler politenessScheduler,
+                              AdaptiveConcurrencyLimiter concurrencyLimiter,
+                              HostCircuitBreaker circuitBreaker,
+                              RetryScheduler retryScheduler,
+                              CrawlBudgetPolicy crawlBudgetPolicy,
+                              PageValidatorCache pageValidatorCache,
                               DocumentService documentService,
-                              List<ContentHandler> contentHandlers) {
+                              List<ContentHandler> contentHandlers,
+                              VisitedSetFactory visitedSetFactory,
+                              CrawlStateStore crawlStateStore,
+                              @Value("${crawler.frontierCapacity:10000}") int frontierCapacity,
+                              @Value("${crawler.maxInFlightPerSession:${crawler.linkPoolSize}}") int maxInFlight,
+                              @Value("${crawler.jobs.retentionMinutes:60}") long jobRetentionMinutes,
+                              @Value("${crawler.stream.bufferSize:1000}") int eventBuffer) {
         this.linkExecutor = linkExecutor;
-        this.imageExecutor = imageExecutor;
         this.robotsTxtService = robotsTxtService;
         this.proxySelectorService = proxySelectorService;
+        this.politenessScheduler = politenessScheduler;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.retryScheduler = retryScheduler;
+        this.crawlBudgetPolicy = crawlBudgetPolicy;
+        this.pageValidatorCache = pageValidatorCache;
         this.documentService = documentService;
         this.contentHandlers = contentHandlers;
+        this.visitedSetFactory = visitedSetFactory;
+        this.crawlStateStore = crawlStateStore;
+        this.frontierCapacity = frontierCapacity;
+        this.maxInFlight = maxInFlight;
+        this.eventBuffer = eventBuffer;
+        this.finishedJobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(jobRetentionMinutes))
+                .scheduler(Scheduler.systemScheduler())
+                .<String, CrawlJob>removalListener((sessionId, job, cause) -> {
+                    if (cause.wasEvicted() && job != null && !isResumable(job)) {
+                        discard(job);
+                    }
+                })
+                .build();
     }
 
     /**
-     * Starts the scraping process.
+     * Starts a scraping session in the background.
+     * <p>
+     * Only the URL is validated on the calling thread; the proxy check and the crawl itself run on the
+     * link executor, so the job is returned at once and can be polled or cancelled through its session id.
      *
-     * @param url        the starting URL
-     * @param maxDepth   the maximum recursion depth
-     * @param userDelay  a delay (in milliseconds) between requests (if provided)
+     * @param url         the starting URL
+     * @param maxDepth    the maximum recursion depth
+     * @param userDelay   a delay (in milliseconds) between requests (if provided)
      * @param userProxies a list of proxies to use
-     * @return a CompletableFuture containing the set of visited links
+     * @param limits      the budget of the session (may be null)
+     * @return the started job
      * @throws URISyntaxException if the URL is invalid
      */
     @Override
-    public CompletableFuture<Set<String>> startScraping(String url, int maxDepth, Long userDelay, List<ProxyInfo> userProxies) throws URISyntaxException {
-        long startTime = System.currentTimeMillis();
+    public CrawlJob startScraping(String url, int maxDepth, Long userDelay, List<ProxyInfo> userProxies,
+                                  CrawlLimits limits) throws URISyntaxException {
+        String domain = hostOf(url);
+        CrawlJob job = new CrawlJob(UUID.randomUUID().toString(), url, linkExecutor, eventBuffer);
+        activeJobs.put(job.getSessionId(), job);
+        launch(job, () -> {
+            ScraperSession session = createSession(url, domain, maxDepth, userDelay, userProxies, limits);
+            session.setId(job.getSessionId());
+            SessionState state = new SessionState(session.getId(), url, maxDepth, userDelay, userProxies,
+                    System.currentTimeMillis(), false, limits);
+            VisitedUrlLog visitedLinksLog;
+            try {
+                crawlStateStore.save(state);
+                visitedLinksLog = visitedSetFactory.createLog(session.getId());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create state for session " + session.getId(), e);
+            }
+            log.info("Started scraping session {} for {}", session.getId(), url);
+            return run(job, session, state, visitedLinksLog);
+        });
+        return job;
+    }
+
+    /**
+     * Resumes a session that was interrupted, e.g. by a restart or a cancellation, from its last frontier checkpoint.
+     *
+     * @param sessionId the identifier of the session to resume
+     * @return the resumed job
+     * @throws URISyntaxException       if the stored URL is invalid
+     * @throws CrawlJobRunningException if the session is already running
+     */
+    @Override
+    public CrawlJob resumeScraping(String sessionId) throws URISyntaxException {
+        SessionState state = crawlStateStore.load(sessionId);
+        String domain = hostOf(state.url());
+        CrawlJob job = new CrawlJob(sessionId, state.url(), linkExecutor, eventBuffer);
+        if (activeJobs.putIfAbsent(sessionId, job) != null) {
+            throw new CrawlJobRunningException("Session is already running: " + sessionId);
+        }
+        finishedJobs.invalidate(sessionId);
+        launch(job, () -> {
+            ScraperSession session = createSession(state.url(), domain, state.maxDepth(), state.userDelay(), state.proxies(),
+                    state.limits());
+            session.setId(sessionId);
+            VisitedUrlLog visitedLinksLog;
+            try {
+                visitedLinksLog = visitedSetFactory.openLog(sessionId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open result file for session " + sessionId, e);
+            }
+            for (String visited : visitedLinksLog.asSet()) {
+                session.getVisitedLinksUrl().add(visited);
+            }
+            log.info("Resuming scraping session {} with {} visited links", sessionId, visitedLinksLog.size());
+            return run(job, session, state, visitedLinksLog);
+        });
+        return job;
+    }
 
-        String domain = new URI(url).getHost();
-        BaseRobotRules rules = robotsTxtService.getRules(domain);
-        if (rules != null) {
-            log.info("Crawl-delay (from robots.txt): {}", rules.getCrawlDelay());
+    /**
+     * Returns the progress of a running or recently finished session.
+     *
+     * @param sessionId the identifier of the session
+     * @return the status of the session
+     * @throws SessionNotFoundException if no such session ran since the retention period
+     */
+    @Override
+    public CrawlJobStatus getStatus(String sessionId) {
+        return findJob(sessionId).status();
+    }
+
+    /**
+     * Cancels a running session. Its frontier checkpoint is kept, so the session can be resumed later.
+     * <p>
+     * A session that has already finished is discarded instead: its result file and stored state are deleted.
+     *
+     * @param sessionId the identifier of the session
+     * @return the status of the session after the cancellation
+     * @throws SessionNotFoundException if no such session ran since the retention period
+     */
+    @Override
+    public CrawlJobStatus cancel(String sessionId) {
+        CrawlJob job = findJob(sessionId);
+        if (job.cancel()) {
+            log.info("Cancelled scraping session {}", sessionId);
+        } else if (finishedJobs.asMap().remove(sessionId, job)) {
+            discard(job);
+            log.info("Deleted results of scraping session {}", sessionId);
         }
+        return job.status();
+    }
+
+    /**
+     * Returns the links visited by a finished session, read from the session's result file.
+     *
+     * @param sessionId the identifier of the session
+     * @return the visited links
+     * @throws SessionNotFoundException if no such session ran since the retention period
+     * @throws CrawlJobRunningException if the session has not finished yet
+     */
+    @Override
+    public Set<String> getResult(String sessionId) {
+        CrawlJob job = findJob(sessionId);
+        if (!job.isFinished()) {
+            throw new CrawlJobRunningException("Session is still running: " + sessionId);
+        }
+        return job.visitedLinks();
+    }
+
+    /**
+     * Returns the event stream of a running or recently finished session.
+     *
+     * @param sessionId the identifier of the session
+     * @return the session's events
+     * @throws SessionNotFoundException if no such session ran since the retention period
+     */
+    @Override
+    public CrawlEventStream getEvents(String sessionId) {
+        return findJob(sessionId).getEvents();
+    }
+
+    /**
+     * Returns the sessions that were started but did not finish.
+     *
+     * @return the resumable sessions, oldest first
+     */
+    @Override
+    public List<SessionState> getResumableSessions() {
+        return crawlStateStore.listUnfinished().stream()
+                .filter(state -> !activeJobs.containsKey(state.id()))
+                .toList();
+    }
+
+    private CrawlJob findJob(String sessionId) {
+        CrawlJob job = activeJobs.get(sessionId);
+        if (job == null) {
+            job = finishedJobs.getIfPresent(sessionId);
+        }
+        if (job == null) {
+            throw new SessionNotFoundException("Unknown session: " + sessionId);
+        }
+        return job;
+    }
+
+    /**
+     * Checks whether a finished job keeps its files because it can be resumed from its checkpoint.
+     *
+     * @param job the finished job
+     * @return true if the job was interrupted and durable state is enabled
+     */
+    private boolean isResumable(CrawlJob job) {
+        return job.isResumable() && crawlStateStore.isEnabled();
+    }
+
+    /**
+     * Deletes the result file and the stored state of a finished job.
+     *
+     * @param job the finished job
+     */
+    private void discard(CrawlJob job) {
+        job.deleteResults();
+        crawlStateStore.delete(job.getSessionId());
+    }
+
+    private static String hostOf(String url) throws URISyntaxException {
+        if (url == null) {
+            throw new URISyntaxException("null", "URL is missing");
+        }
+        String host = new URI(url).getHost();
+        if (host == null) {
+            throw new URISyntaxException(url, "URL has no host");
+        }
+        return host;
+    }
+
+    /**
+     * Sets the job's session up and runs its crawl on the job's link executor, then moves the job to the
+     * finished jobs.
+     *
+     * @param job   the job to run
+     * @param setup creates the session and starts its crawl
+     */
+    private void launch(CrawlJob job, Supplier<CompletableFuture<Set<String>>> setup) {
+        CompletableFuture.supplyAsync(setup, job.getLinkExecutor())
+                .thenCompose(Function.identity())
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                        log.error("Scraping session {} failed: {}", job.getSessionId(), cause.getMessage());
+                        job.fail(cause);
+                    }
+                    finishedJobs.put(job.getSessionId(), job);
+                    activeJobs.remove(job.getSessionId(), job);
+                });
+    }
+
+    /**
+     * Creates a session with its working proxies, visited sets, budget and request delay.
+     *
+     * @param url         the starting URL
+     * @param domain      the host of the starting URL
+     * @param maxDepth    the maximum recursion depth
+     * @param userDelay   a delay (in milliseconds) between requests (if provided)
+     * @param userProxies a list of proxies to use
+     * @param limits      the budget requested for the session (may be null)
+     * @return the new session
+     */
+    private ScraperSession createSession(String url, String domain, int maxDepth, Long userDelay,
+                                         List<ProxyInfo> userProxies, CrawlLimits limits) {
+        // starts loading robots.txt while the proxies are checked; the first fetch waits for it
+        robotsTxtService.getRules(url);
         userProxies = com.webscraper.utils.ProxyCheckerService.filterWorkingProxies(userProxies);
-        ScraperSession session = new ScraperSession(url, domain, maxDepth, rules, userDelay, userProxies);
+        ScraperSession session = new ScraperSession(url, domain, maxDepth, userDelay, userProxies);
+        session.setVisitedLinksUrl(visitedSetFactory.create());
+        session.setVisitedImagesUrl(visitedSetFactory.create());
+        session.setRetryBudget(retryScheduler.createBudget());
+        session.setBudget(crawlBudgetPolicy.createBudget(limits));
 
-        long delay = determineDelay(session);
-        if (delay > 0) {
-            double permitsPerSecond = 1000.0 / delay;
-            session.setRateLimiter(RateLimiter.create(permitsPerSecond));
-            log.info("RateLimiter set with permitsPerSecond: {}", permitsPerSecond);
+        session.setCrawlDelayMillis(determineDelay(session));
+        log.info("Minimum delay between requests to a host: {} ms", session.getCrawlDelayMillis());
+        return session;
+    }
+
+    /**
+     * Opens the session's frontier, runs the crawl and cleans up the session state once it finishes.
+     * <p>
+     * Tasks recovered from a durable frontier are added to the visited set first, so links discovered again
+     * while they are processed are not queued twice. A cancelled crawl closes its files like a finished one
+     * but is not marked completed, so it stays resumable.
+     *
+     * @param job             the job the session belongs to
+     * @param session         the session to crawl
+     * @param state           the stored description of the session
+     * @param visitedLinksLog the log receiving visited links
+     * @return a CompletableFuture containing the set of visited links
+     */
+    private CompletableFuture<Set<String>> run(CrawlJob job, ScraperSession session, SessionState state, VisitedUrlLog visitedLinksLog) {
+        long startTime = System.currentTimeMillis();
+        session.setVisitedLinksLog(visitedLinksLog);
+        FrontierQueue queue;
+        try {
+            queue = crawlStateStore.openFrontier(session.getId(), visitedLinksLog::flush);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open frontier for session " + session.getId(), e);
         }
+        queue.forEachPending(task -> {
+            if (session.getVisitedLinksUrl().add(task.url())) {
+                visitedLinksLog.append(task.url());
+            }
+        });
 
-        ScraperEngine engine = new ScraperEngine(linkExecutor, documentService, robotsTxtService, proxySelectorService, contentHandlers);
-        CompletableFuture<Void> crawlingFuture = engine.crawl(session.getUrl(), session, 0);
+        CompletableFuture<Void> crawlingFuture;
+        if (job.attach(session, visitedLinksLog)) {
+            ScraperEngine engine = new ScraperEngine(job.getLinkExecutor(), documentService, robotsTxtService, proxySelectorService,
+                    politenessScheduler, concurrencyLimiter, circuitBreaker, retryScheduler, pageValidatorCache, contentHandlers,
+                    frontierCapacity, maxInFlight);
+            crawlingFuture = engine.start(session, queue);
+            if (session.getProgress().isCancelled()) {
+                session.getFrontier().cancel();
+            }
+        } else {
+            crawlingFuture = CompletableFuture.failedFuture(new CancellationException("Crawl cancelled"));
+        }
 
-        CompletableFuture<Set<String>> resultFuture = crawlingFuture.thenApply(v -> Collections.unmodifiableSet(session.getVisitedLinksUrl()));
+        CompletableFuture<Set<String>> resultFuture = crawlingFuture.handle((v, throwable) -> {
+            try {
+                queue.close();
+                visitedLinksLog.close();
+            } catch (IOException e) {
+                log.error("Failed to close result file {}: {}", visitedLinksLog.getFile(), e.getMessage());
+            }
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            if (cause == null) {
+                crawlStateStore.markCompleted(state);
+                job.complete();
+            } else if (cause instanceof CancellationException) {
+                log.info("Scraping session {} cancelled", session.getId());
+            } else {
+                throw new CompletionException(cause);
+            }
+            return visitedLinksLog.asSet();
+        });
 
         resultFuture.whenComplete((result, throwable) -> {
-            log.info("Scraping completed in {} ms", System.currentTimeMillis() - startTime);
+            log.info("Scraping session {} completed in {} ms", session.getId(), System.currentTimeMillis() - startTime);
+            logVisitedStats("links", session.getVisitedLinksUrl());
+            logVisitedStats("images", session.getVisitedImagesUrl());
+            log.info("Retries used by session {}: {}", session.getId(), session.getRetryBudget().getRetries());
+            CrawlBudget budget = session.getBudget();
+            log.info("Budget used by session {}: {} pages, {} KB, {} images{}", session.getId(), budget.getPages(),
+                    budget.getBytes() / 1024, budget.getImages(),
+                    budget.getLimitReached() != null ? "; stopped by the " + budget.getLimitReached() : "");
+            PageCacheStats cacheStats = session.getPageCacheStats();
+            log.info("Validator cache of session {}: {} not modified, {} fetched ({} unchanged), hit rate {}, {} KB saved, {} KB read",
+                    session.getId(), cacheStats.getNotModified(), cacheStats.getFetched(), cacheStats.getUnchanged(),
+                    String.format("%.2f", cacheStats.hitRate()), cacheStats.getBytesSaved() / 1024, cacheStats.getBytesRead() / 1024);
         });
         return resultFuture;
     }
 
     /**
-     * Determines the delay between requests based on robots.txt or user configuration.
+     * Logs the size, estimated memory and false-positive rate of a visited set.
+     *
+     * @param name    the name of the set
+     * @param visited the visited set
+     */
+    private void logVisitedStats(String name, VisitedSet visited) {
+        log.info("Visited {}: {} entries, ~{} KB, false-positive rate {}",
+                name, visited.size(), visited.memoryBytes() / 1024, visited.falsePositiveRate());
+    }
+
+    /**
+     * Determines the delay between requests requested by the user. The crawl-delay of each host's robots.txt is
+     * applied by the {@link PolitenessScheduler} once the rules are loaded.
      *
      * @param session the current scraper session
      * @return the delay in milliseconds
      */
     private long determineDelay(ScraperSession session) {
-        if (session.getRobotsTxtRules() != null && session.getRobotsTxtRules().getCrawlDelay() > 0) {
-            return session.getRobotsTxtRules().getCrawlDelay();
-        } else if (session.getUserDelay() != null && session.getUserDelay() > 0) {
+        if (session.getUserDelay() != null && session.getUserDelay() > 0) {
             return session.getUserDelay();
         }
         return 0;
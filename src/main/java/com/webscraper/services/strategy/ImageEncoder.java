@@ -0,0 +1,35 @@
+package com.webscraper.services.strategy;
+
+import com.webscraper.entities.EncodeRequest;
+import com.webscraper.entities.EncodedImage;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Strategy interface for encoding a decoded image in one output format.
+ * <p>
+ * Encoders run in their {@link org.springframework.core.annotation.Order} and each sees the smallest result of the
+ * encoders before it; the smallest encoding overall is saved.
+ */
+public interface ImageEncoder {
+
+    /**
+     * Checks whether the encoder can be used in this runtime, e.g. whether an ImageIO writer is installed.
+     *
+     * @return true if the encoder is available; false otherwise
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Encodes the image.
+     *
+     * @param image   the decoded image, possibly with an alpha channel
+     * @param request the size target, quality floor and the best encoding so far
+     * @return the encoding, or null if this encoder does not apply to the image
+     * @throws IOException if an error occurs during encoding
+     */
+    EncodedImage encode(BufferedImage image, EncodeRequest request) throws IOException;
+}
@@ -1,5 +1,7 @@
 package com.webscraper.services.strategy;
 
+import com.webscraper.entities.ImageData;
+import com.webscraper.exceptions.ImageSizeException;
 import com.webscraper.services.ImageProcessingService;
 
 /**
@@ -23,4 +25,27 @@ public interface ImageFetchStrategy {
      * @return a byte array containing the image data, or null if fetching fails
      */
     byte[] fetchImage(String imageUrl, ImageProcessingService context);
+
+    /**
+     * Fetches the image data, giving up as early as possible on images outside the size limits.
+     * <p>
+     * The default implementation fetches the whole image with {@link #fetchImage} and checks its size afterwards.
+     *
+     * @param imageUrl the URL of the image
+     * @param context  the {@link ImageProcessingService} context used during processing
+     * @param minBytes the minimum size of an image worth processing
+     * @param maxBytes the maximum size of an image that is downloaded
+     * @return the image data, or null if fetching fails
+     * @throws ImageSizeException if the image is smaller than {@code minBytes} or larger than {@code maxBytes}
+     */
+    default ImageData fetchImageData(String imageUrl, ImageProcessingService context, long minBytes, long maxBytes) {
+        byte[] bytes = fetchImage(imageUrl, context);
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length < minBytes || bytes.length > maxBytes) {
+            throw new ImageSizeException("image has " + bytes.length + " bytes");
+        }
+        return ImageData.of(bytes);
+    }
 }
@@ -0,0 +1,48 @@
+package com.webscraper.services.strategy;
+
+import com.webscraper.entities.EncodeRequest;
+import com.webscraper.entities.EncodedImage;
+import com.webscraper.services.JpegCompressor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Implementation of {@link ImageEncoder} producing a JPEG close to the target size with {@link JpegCompressor}.
+ * <p>
+ * If reaching the target would need a quality below the floor, the image is encoded at the floor instead.
+ * Transparent images are left to the lossless and WebP encoders.
+ */
+@Component
+@Order(0)
+public class JpegImageEncoder implements ImageEncoder {
+
+    public static final String FORMAT = "jpeg";
+
+    private final JpegCompressor jpegCompressor;
+
+    /**
+     * Constructs a JpegImageEncoder.
+     *
+     * @param jpegCompressor the compressor searching the quality for the target size
+     */
+    public JpegImageEncoder(JpegCompressor jpegCompressor) {
+        this.jpegCompressor = jpegCompressor;
+    }
+
+    @Override
+    public EncodedImage encode(BufferedImage image, EncodeRequest request) throws IOException {
+        if (request.transparent()) {
+            return null;
+        }
+        BufferedImage rgb = JpegCompressor.toRgb(image);
+        JpegCompressor.Encoding encoding = jpegCompressor.compress(rgb, request.targetSize());
+        if (encoding.quality() >= request.qualityFloor()) {
+            return new EncodedImage(FORMAT, "jpg", encoding.bytes(), encoding.quality());
+        }
+        byte[] bytes = jpegCompressor.compressJpegToByteArray(rgb, request.qualityFloor(), request.targetSize());
+        return new EncodedImage(FORMAT, "jpg", bytes, request.qualityFloor());
+    }
+}
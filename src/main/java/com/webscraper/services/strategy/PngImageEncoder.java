@@ -0,0 +1,118 @@
+package com.webscraper.services.strategy;
+
+import com.webscraper.entities.EncodeRequest;
+import com.webscraper.entities.EncodedImage;
+import com.webscraper.services.JpegCompressor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of {@link ImageEncoder} writing an optimized lossless PNG.
+ * <p>
+ * Images with at most 256 colors are written with a palette of 1, 2, 4 or 8 bits per pixel, opaque images
+ * without an alpha channel, and everything with the strongest deflate level. Only images that are transparent
+ * or were PNG, GIF or BMP before are tried; photos never win losslessly.
+ */
+@Component
+@Order(1)
+public class PngImageEncoder implements ImageEncoder {
+
+    public static final String FORMAT = "png";
+
+    private static final Set<String> LOSSLESS_SOURCES = Set.of("png", "gif", "bmp");
+    private static final int MAX_PALETTE_SIZE = 256;
+
+    @Override
+    public EncodedImage encode(BufferedImage image, EncodeRequest request) throws IOException {
+        if (!request.transparent() && !LOSSLESS_SOURCES.contains(request.sourceFormat())) {
+            return null;
+        }
+        BufferedImage optimized = toPalette(image, request.transparent());
+        if (optimized == null) {
+            optimized = request.transparent() ? image : JpegCompressor.toRgb(image);
+        }
+        return new EncodedImage(FORMAT, "png", write(optimized), 1f);
+    }
+
+    /**
+     * Converts the image to an indexed image if it has few enough colors.
+     *
+     * @param image       the image to convert
+     * @param transparent whether the alpha values have to be kept
+     * @return the indexed image, or null if the image has more than {@link #MAX_PALETTE_SIZE} colors
+     */
+    private static BufferedImage toPalette(BufferedImage image, boolean transparent) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int mask = transparent ? 0xFFFFFFFF : 0x00FFFFFF;
+        Map<Integer, Integer> palette = new HashMap<>();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                if (palette.putIfAbsent(row[x] & mask, palette.size()) == null && palette.size() > MAX_PALETTE_SIZE) {
+                    return null;
+                }
+            }
+        }
+
+        int size = palette.size();
+        byte[] r = new byte[size];
+        byte[] g = new byte[size];
+        byte[] b = new byte[size];
+        byte[] a = new byte[size];
+        palette.forEach((argb, index) -> {
+            r[index] = (byte) (argb >> 16);
+            g[index] = (byte) (argb >> 8);
+            b[index] = (byte) (argb & 0xFF);
+            a[index] = (byte) (transparent ? argb >>> 24 : 0xFF);
+        });
+        int bits = size <= 2 ? 1 : size <= 4 ? 2 : size <= 16 ? 4 : 8;
+        IndexColorModel colorModel = transparent
+                ? new IndexColorModel(bits, size, r, g, b, a)
+                : new IndexColorModel(bits, size, r, g, b);
+        BufferedImage indexed = new BufferedImage(width, height,
+                bits < 8 ? BufferedImage.TYPE_BYTE_BINARY : BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+        WritableRaster raster = indexed.getRaster();
+        int[] indices = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                indices[x] = palette.get(row[x] & mask);
+            }
+            raster.setSamples(0, y, width, 1, 0, indices);
+        }
+        return indexed;
+    }
+
+    private static byte[] write(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(FORMAT).next();
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0f); // strongest deflate level
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            return out.toByteArray();
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.webscraper.services.strategy;
+
+import com.webscraper.providers.WebClientProvider;
+import com.webscraper.services.ImageProcessingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Implementation of {@link ImageFetchStrategy} that downloads regular images with the shared {@code WebClient}.
+ * <p>
+ * The body is streamed into pooled buffers on the Netty event loop; the image worker only waits for the result.
+ * Enabled with {@code crawler.fetchMode=reactive}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "crawler.fetchMode", havingValue = "reactive")
+public class ReactiveImageFetchStrategy implements ImageFetchStrategy {
+
+    private final WebClientProvider webClientProvider;
+    private final int maxBodyBytes;
+    private final Duration timeout;
+
+    /**
+     * Constructs a ReactiveImageFetchStrategy.
+     *
+     * @param webClientProvider the provider of shared WebClient instances
+     * @param maxBodyBytes      the maximum number of bytes buffered for a single image
+     * @param timeoutMillis     the time to wait for a complete image in milliseconds
+     */
+    public ReactiveImageFetchStrategy(WebClientProvider webClientProvider,
+                                      @Value("${crawler.reactive.maxImageBytes:52428800}") int maxBodyBytes,
+                                      @Value("${crawler.reactive.timeoutMillis:30000}") long timeoutMillis) {
+        this.webClientProvider = webClientProvider;
+        this.maxBodyBytes = maxBodyBytes;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+    }
+
+    /**
+     * Checks if this strategy supports the given image URL.
+     *
+     * @param imageUrl the image URL to check
+     * @return true if the URL is not a Data URI and does not contain template variables; false otherwise
+     */
+    @Override
+    public boolean supports(String imageUrl) {
+        return !imageUrl.startsWith("data:") && !(imageUrl.contains("{") && imageUrl.contains("}"));
+    }
+
+    /**
+     * Fetches the image data from the specified URL.
+     *
+     * @param imageUrl the image URL
+     * @param context  the image processing context
+     * @return a byte array containing the image data, or null if an error occurs
+     */
+    @Override
+    public byte[] fetchImage(String imageUrl, ImageProcessingService context) {
+        String preparedUrl = context.prepareImageUrl(imageUrl);
+        try {
+            return DataBufferUtils.join(webClientProvider.forProxy(null)
+                            .get()
+                            .uri(preparedUrl)
+                            .retrieve()
+                            .bodyToFlux(DataBuffer.class), maxBodyBytes)
+                    .map(buffer -> {
+                        try {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            return bytes;
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .block(timeout);
+        } catch (Exception ex) {
+            log.error("Error processing URL {}: {}", imageUrl, ex.getMessage(), ex);
+            return null;
+        }
+    }
+}
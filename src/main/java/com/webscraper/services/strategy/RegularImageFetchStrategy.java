@@ -1,26 +1,66 @@
 package com.webscraper.services.strategy;
 
+import com.webscraper.entities.ImageData;
+import com.webscraper.exceptions.ImageSizeException;
+import com.webscraper.providers.HttpClientProvider;
+import com.webscraper.providers.UserAgentProvider;
+import com.webscraper.services.HostConcurrencyLimiter;
+import com.webscraper.services.ImageBufferPool;
 import com.webscraper.services.ImageProcessingService;
+import com.webscraper.utils.ResponseBodies;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
 
 /**
  * Implementation of {@link ImageFetchStrategy} for fetching regular images via HTTP.
+ * <p>
+ * Images are streamed: the size limits are checked against {@code Content-Length} before the body is read, and
+ * the body is read directly into a buffer of the {@link ImageBufferPool}. Without a length the maximum is enforced
+ * while reading. Closing the body of a rejected image cancels the exchange instead of draining it. Reading the
+ * body has its own deadline, since the request timeout only covers the response headers.
  */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "crawler.fetchMode", havingValue = "blocking", matchIfMissing = true)
 public class RegularImageFetchStrategy implements ImageFetchStrategy {
 
-    private final RestTemplate restTemplate;
+    private final HttpClientProvider httpClientProvider;
+    private final HostConcurrencyLimiter hostConcurrencyLimiter;
+    private final ImageBufferPool bufferPool;
+    private final Duration requestTimeout;
+    private final long maxImageBytes;
 
     /**
-     * Constructs a RegularImageFetchStrategy with the provided RestTemplate.
+     * Constructs a RegularImageFetchStrategy.
      *
-     * @param restTemplate the RestTemplate to use for HTTP requests
+     * @param httpClientProvider     the provider of shared HttpClient instances
+     * @param hostConcurrencyLimiter the limiter for concurrent requests per host
+     * @param bufferPool             the pool of buffers the images are read into
+     * @param requestTimeoutMillis   the time to wait for the response headers and, separately, to read the body
+     *                               in milliseconds
+     * @param maxImageBytes          the maximum number of bytes read by {@link #fetchImage}
      */
-    public RegularImageFetchStrategy(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public RegularImageFetchStrategy(HttpClientProvider httpClientProvider,
+                                     HostConcurrencyLimiter hostConcurrencyLimiter,
+                                     ImageBufferPool bufferPool,
+                                     @Value("${crawler.http.requestTimeoutMillis:30000}") long requestTimeoutMillis,
+                                     @Value("${images.download.maxBytes:52428800}") long maxImageBytes) {
+        this.httpClientProvider = httpClientProvider;
+        this.hostConcurrencyLimiter = hostConcurrencyLimiter;
+        this.bufferPool = bufferPool;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.maxImageBytes = maxImageBytes;
     }
 
     /**
@@ -43,12 +83,68 @@ public class RegularImageFetchStrategy implements ImageFetchStrategy {
      */
     @Override
     public byte[] fetchImage(String imageUrl, ImageProcessingService context) {
+        try (ImageData image = fetchImageData(imageUrl, context, 0, maxImageBytes)) {
+            return image != null ? Arrays.copyOf(image.buffer(), image.length()) : null;
+        } catch (ImageSizeException ex) {
+            log.warn("Image {} is too large: {}", imageUrl, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Streams the image from the specified URL into a pooled buffer.
+     * <p>
+     * A {@code Content-Length} outside the limits cancels the request before any of the body is read.
+     *
+     * @param imageUrl the image URL
+     * @param context  the image processing context
+     * @param minBytes the minimum size of an image worth processing
+     * @param maxBytes the maximum size of an image that is downloaded
+     * @return the image data, or null if an error occurs
+     * @throws ImageSizeException if the image is smaller than {@code minBytes} or larger than {@code maxBytes}
+     */
+    @Override
+    public ImageData fetchImageData(String imageUrl, ImageProcessingService context, long minBytes, long maxBytes) {
         String preparedUrl = context.prepareImageUrl(imageUrl);
         try {
-            return restTemplate.getForObject(preparedUrl, byte[].class);
+            HttpRequest request = HttpRequest.newBuilder(UriComponentsBuilder.fromUriString(preparedUrl).encode().build().toUri())
+                    .GET()
+                    .timeout(requestTimeout)
+                    .header("User-Agent", UserAgentProvider.getRandomUserAgent())
+                    .header("Accept", "image/avif,image/webp,image/*,*/*;q=0.8")
+                    .build();
+            return hostConcurrencyLimiter.execute(preparedUrl, () -> {
+                HttpResponse<InputStream> response = send(request);
+                try (InputStream body = ResponseBodies.withDeadline(response.body(), requestTimeout)) {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IOException("HTTP status " + response.statusCode());
+                    }
+                    long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+                    if (contentLength >= 0 && (contentLength < minBytes || contentLength > maxBytes)) {
+                        throw new ImageSizeException("Content-Length is " + contentLength + " bytes");
+                    }
+                    ImageData image = bufferPool.read(body, contentLength, maxBytes);
+                    if (image.length() < minBytes) {
+                        image.close();
+                        throw new ImageSizeException("image has " + image.length() + " bytes");
+                    }
+                    return image;
+                }
+            });
+        } catch (ImageSizeException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("Error processing URL {}: {}", imageUrl, ex.getMessage(), ex);
             return null;
         }
     }
+
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException {
+        try {
+            return httpClientProvider.forProxy(null).send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + request.uri());
+        }
+    }
 }
@@ -17,6 +17,8 @@ import java.util.regex.Pattern;
 @Component
 public class TemplateImageFetchStrategy implements ImageFetchStrategy {
 
+    private static final Pattern TEMPLATE_VARIABLE_PATTERN = Pattern.compile("\\{([^}]+)\\}");
+
     private final RestTemplate restTemplate;
 
     /**
@@ -69,8 +71,7 @@ public class TemplateImageFetchStrategy implements ImageFetchStrategy {
      */
     private Map<String, String> extractUriVariables(String imageUrl) {
         Map<String, String> variables = new HashMap<>();
-        Pattern pattern = Pattern.compile("\\{([^}]+)\\}");
-        Matcher matcher = pattern.matcher(imageUrl);
+        Matcher matcher = TEMPLATE_VARIABLE_PATTERN.matcher(imageUrl);
         while (matcher.find()) {
             String key = matcher.group(1);
             // Встановлюємо дефолтне значення для змінної (можна змінити логіку за потребою)
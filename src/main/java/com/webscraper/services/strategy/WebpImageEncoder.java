@@ -0,0 +1,105 @@
+package com.webscraper.services.strategy;
+
+import com.webscraper.entities.EncodeRequest;
+import com.webscraper.entities.EncodedImage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Implementation of {@link ImageEncoder} writing WebP through an ImageIO writer plugin.
+ * <p>
+ * The imageio-webp dependency only decodes WebP, so the encoder stays inactive until a plugin with a WebP writer
+ * is on the classpath. It encodes lossy at the quality of the best encoding so far, which usually makes the file
+ * smaller than a JPEG of the same quality, and losslessly when a lossless encoding is the one to beat.
+ */
+@Slf4j
+@Component
+@Order(2)
+public class WebpImageEncoder implements ImageEncoder {
+
+    public static final String FORMAT = "webp";
+
+    private final boolean enabled;
+    private final float defaultQuality;
+
+    /**
+     * Constructs a WebpImageEncoder.
+     *
+     * @param enabled        whether WebP output may be written
+     * @param defaultQuality the lossy quality used when no other encoding was produced
+     */
+    public WebpImageEncoder(@Value("${images.encode.webp.enabled:true}") boolean enabled,
+                            @Value("${images.encode.webp.quality:0.75}") float defaultQuality) {
+        this.enabled = enabled && ImageIO.getImageWritersByFormatName(FORMAT).hasNext();
+        this.defaultQuality = defaultQuality;
+        if (enabled && !this.enabled) {
+            log.info("No ImageIO WebP writer installed; WebP output is disabled.");
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return enabled;
+    }
+
+    @Override
+    public EncodedImage encode(BufferedImage image, EncodeRequest request) throws IOException {
+        EncodedImage best = request.best();
+        boolean lossless = best != null && best.isLossless();
+        float quality = best != null ? Math.max(best.quality(), request.qualityFloor())
+                : Math.max(defaultQuality, request.qualityFloor());
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(FORMAT);
+        if (!writers.hasNext()) {
+            return null;
+        }
+        ImageWriter writer = writers.next();
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String type = compressionType(param, lossless ? "lossless" : "lossy");
+                if (type != null) {
+                    param.setCompressionType(type);
+                }
+                if (!lossless) {
+                    param.setCompressionQuality(quality);
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            return new EncodedImage(FORMAT, "webp", out.toByteArray(), lossless ? 1f : quality);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String compressionType(ImageWriteParam param, String wanted) {
+        String[] types = param.getCompressionTypes();
+        if (types == null) {
+            return null;
+        }
+        for (String type : types) {
+            if (type.toLowerCase(Locale.ROOT).contains(wanted)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
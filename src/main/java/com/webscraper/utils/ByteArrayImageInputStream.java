@@ -0,0 +1,77 @@
+package com.webscraper.utils;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.io.IOException;
+
+/**
+ * {@link javax.imageio.stream.ImageInputStream} reading directly from a byte array range.
+ * <p>
+ * {@code ImageIO.read(InputStream)} wraps its input in a cache stream that copies everything it reads into a
+ * temporary file or memory cache; bytes that are already in memory can be decoded without that copy.
+ */
+public class ByteArrayImageInputStream extends ImageInputStreamImpl {
+
+    private final byte[] buffer;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Constructs a stream over {@code length} bytes of the buffer starting at {@code offset}.
+     *
+     * @param buffer the buffer holding the data
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     */
+    public ByteArrayImageInputStream(byte[] buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for length " + buffer.length);
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        return buffer[offset + (int) streamPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        if (streamPos >= length) {
+            return -1;
+        }
+        int count = (int) Math.min(len, length - streamPos);
+        System.arraycopy(buffer, offset + (int) streamPos, b, off, count);
+        streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public boolean isCached() {
+        return true;
+    }
+
+    @Override
+    public boolean isCachedMemory() {
+        return true;
+    }
+}
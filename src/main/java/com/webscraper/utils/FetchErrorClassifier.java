@@ -0,0 +1,124 @@
+package com.webscraper.utils;
+
+import com.webscraper.exceptions.NonRetryableException;
+import com.webscraper.exceptions.RetryableFetchException;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Utility class for classifying fetch failures and parsing Retry-After headers.
+ */
+public class FetchErrorClassifier {
+
+    /**
+     * Checks whether the failure shows that the host is overloaded: a 429/502/503 response or a timeout.
+     *
+     * @param ex the failure, possibly wrapped in completion exceptions
+     * @return true if the request should be repeated later with less load on the host; false otherwise
+     */
+    public static boolean isOverload(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryableFetchException
+                    || cause instanceof SocketTimeoutException
+                    || cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the failure is transient, so the request may succeed if it is repeated later.
+     * <p>
+     * Overload responses, timeouts and network errors are transient; 4xx responses, unsupported content
+     * types and invalid URLs are not.
+     *
+     * @param ex the failure, possibly wrapped in completion exceptions
+     * @return true if the request should be retried; false otherwise
+     */
+    public static boolean isRetryable(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NonRetryableException
+                    || cause instanceof UnsupportedMimeTypeException
+                    || cause instanceof MalformedURLException
+                    || cause instanceof UnknownHostException) {
+                return false;
+            }
+            if (cause instanceof RetryableFetchException) {
+                return true;
+            }
+            if (cause instanceof HttpStatusException) {
+                return false;
+            }
+            if (cause instanceof IOException || isOverload(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the host explicitly asked to slow down with 429 Too Many Requests or 503 Service Unavailable.
+     *
+     * @param ex the failure, possibly wrapped in completion exceptions
+     * @return true if the host is throttling requests; false otherwise
+     */
+    public static boolean isThrottled(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusException statusException) {
+                return statusException.getStatusCode() == 429 || statusException.getStatusCode() == 503;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the delay requested by the host through a Retry-After header.
+     *
+     * @param ex the failure, possibly wrapped in completion exceptions
+     * @return the delay in milliseconds, or 0 if none was requested
+     */
+    public static long retryAfterMillis(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetryableFetchException retryable) {
+                return retryable.getRetryAfterMillis();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parses a Retry-After header given either as delay-seconds or as an HTTP date.
+     *
+     * @param value the header value; may be null
+     * @return the delay in milliseconds, or 0 if the header is missing, invalid or in the past
+     */
+    public static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed) * 1000);
+        } catch (NumberFormatException ignored) {
+            // not delay-seconds, try an HTTP date
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+}
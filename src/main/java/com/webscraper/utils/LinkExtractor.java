@@ -18,22 +18,24 @@ import java.util.regex.Matcher;
 @Slf4j
 public class LinkExtractor {
 
+    private static final Pattern CSS_URL_PATTERN = Pattern.compile("url\\(['\"]?(.*?)['\"]?\\)");
+
     /**
-     * Extracts all hyperlink URLs from the given document, excluding those ending with common image file extensions.
+     * Splits all anchor URLs of the document into page links and image links in a single pass.
      *
-     * @param document the JSoup Document to extract links from
-     * @return a Set of absolute URLs as Strings
+     * @param document the JSoup Document to extract anchors from
+     * @param links    the set receiving page links
+     * @param images   the set receiving image and data URI links
      */
-    public static Set<String> extractLinks(Document document) {
-        Set<String> links = new HashSet<>();
-        Elements linkElements = document.select("a[href]");
-        for (Element element : linkElements) {
+    public static void extractAnchors(Document document, Set<String> links, Set<String> images) {
+        for (Element element : document.select("a[href]")) {
             String href = element.attr("abs:href");
-            if (!href.matches("(?i).*\\.(png|jpg|jpeg|gif|bmp)(\\?.*)?$")) {
+            if (UrlClassifier.classify(href) == UrlClassifier.UrlKind.PAGE) {
                 links.add(href);
+            } else {
+                images.add(href);
             }
         }
-        return links;
     }
 
     /**
@@ -59,54 +61,36 @@ public class LinkExtractor {
      */
     public static Set<String> extractCssImages(Document document) {
         Set<String> cssImages = new HashSet<>();
-        Pattern pattern = Pattern.compile("url\\(['\"]?(.*?)['\"]?\\)");
 
         // Extract from elements with inline styles
         Elements elementsWithStyle = document.select("[style]");
         for (Element element : elementsWithStyle) {
-            String style = element.attr("style");
-            Matcher matcher = pattern.matcher(style);
-            while (matcher.find()) {
-                String imageUrl = matcher.group(1);
-                imageUrl = resolveUrl(document.baseUri(), imageUrl);
-                if (!imageUrl.isEmpty()) {
-                    cssImages.add(imageUrl);
-                }
-            }
+            collectCssImages(element.attr("style"), document.baseUri(), cssImages);
         }
 
         // Extract from <style> tags
         Elements styleTags = document.select("style");
         for (Element styleTag : styleTags) {
-            String css = styleTag.data();
-            Matcher matcher = pattern.matcher(css);
-            while (matcher.find()) {
-                String imageUrl = matcher.group(1);
-                imageUrl = resolveUrl(document.baseUri(), imageUrl);
-                if (!imageUrl.isEmpty()) {
-                    cssImages.add(imageUrl);
-                }
-            }
+            collectCssImages(styleTag.data(), document.baseUri(), cssImages);
         }
         return cssImages;
     }
 
     /**
-     * Extracts image URLs that are contained within anchor (<code>a</code>) tags.
+     * Collects the absolute URLs of all <code>url(...)</code> references in a CSS fragment.
      *
-     * @param document the JSoup Document to extract image links from
-     * @return a Set of absolute image URLs as Strings
+     * @param css     the CSS text
+     * @param baseUri the base URI used to resolve relative URLs
+     * @param target  the set receiving resolved URLs
      */
-    public static Set<String> extractAnchorImageLinks(Document document) {
-        Set<String> imageLinks = new HashSet<>();
-        Elements anchorElements = document.select("a[href]");
-        for (Element element : anchorElements) {
-            String href = element.attr("abs:href");
-            if (href.matches("(?i).*\\.(png|jpg|jpeg|gif|bmp)(\\?.*)?$")) {
-                imageLinks.add(href);
+    static void collectCssImages(String css, String baseUri, Set<String> target) {
+        Matcher matcher = CSS_URL_PATTERN.matcher(css);
+        while (matcher.find()) {
+            String imageUrl = resolveUrl(baseUri, matcher.group(1));
+            if (!imageUrl.isEmpty()) {
+                target.add(imageUrl);
             }
         }
-        return imageLinks;
     }
 
     /**
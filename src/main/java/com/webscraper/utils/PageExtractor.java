@@ -0,0 +1,86 @@
+package com.webscraper.utils;
+
+import com.webscraper.entities.PageContent;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Utility class for extracting page links and image URLs into a {@link PageContent}.
+ * <p>
+ * The streaming mode visits every element once as the {@link StreamParser} closes it and removes it from the tree
+ * right after, so the full DOM is never kept in memory.
+ */
+public class PageExtractor {
+
+    /**
+     * Extracts links and images from a streaming parser in a single pass.
+     *
+     * @param parser the stream parser positioned at the start of the page
+     * @param url    the URL of the page
+     * @return the extracted page content without a document
+     * @throws IOException if reading the page fails
+     */
+    public static PageContent extract(StreamParser parser, String url) throws IOException {
+        Set<String> links = new HashSet<>();
+        Set<String> images = new HashSet<>();
+        try {
+            Iterator<Element> elements = parser.iterator();
+            while (elements.hasNext()) {
+                Element element = elements.next();
+                visit(element, links, images);
+                element.remove();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new PageContent(url, links, images, null);
+    }
+
+    /**
+     * Extracts links and images from an already parsed document and keeps the document.
+     *
+     * @param document the JSoup Document
+     * @return the extracted page content including the document
+     */
+    public static PageContent fromDocument(Document document) {
+        Set<String> links = new HashSet<>();
+        Set<String> images = new HashSet<>();
+        LinkExtractor.extractAnchors(document, links, images);
+        images.addAll(LinkExtractor.extractImages(document));
+        images.addAll(LinkExtractor.extractCssImages(document));
+        return new PageContent(document.location(), links, images, document);
+    }
+
+    /**
+     * Collects the URLs referenced by a single element.
+     *
+     * @param element the element closed by the parser
+     * @param links   the set of page links to fill
+     * @param images  the set of image URLs to fill
+     */
+    private static void visit(Element element, Set<String> links, Set<String> images) {
+        String tag = element.normalName();
+        if (tag.equals("a") && element.hasAttr("href")) {
+            String href = element.absUrl("href");
+            if (UrlClassifier.classify(href) == UrlClassifier.UrlKind.PAGE) {
+                links.add(href);
+            } else {
+                images.add(href);
+            }
+        } else if (tag.equals("img") && element.hasAttr("src")) {
+            images.add(element.absUrl("src"));
+        } else if (tag.equals("style")) {
+            LinkExtractor.collectCssImages(element.data(), element.baseUri(), images);
+        }
+        if (element.hasAttr("style")) {
+            LinkExtractor.collectCssImages(element.attr("style"), element.baseUri(), images);
+        }
+    }
+}
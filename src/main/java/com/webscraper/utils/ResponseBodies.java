@@ -0,0 +1,204 @@
+package com.webscraper.utils;
+
+import org.brotli.dec.BrotliInputStream;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Utility class for reading HTTP response bodies that the JDK client hands over undecoded.
+ */
+public class ResponseBodies {
+
+    /**
+     * The Accept-Encoding value matching the encodings {@link #decode(InputStream, String)} understands.
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate, br";
+
+    private static final ScheduledThreadPoolExecutor DEADLINES = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "body-deadline-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        DEADLINES.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Wraps the body in a decoder for the given Content-Encoding.
+     *
+     * @param body            the raw response body
+     * @param contentEncoding the Content-Encoding header value; may be null
+     * @return the decoded body
+     * @throws IOException if the encoding header of the body is invalid or the encoding is not supported
+     */
+    public static InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return body;
+        }
+        return switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+            case "", "identity" -> body;
+            case "gzip", "x-gzip" -> new GZIPInputStream(body, 8192);
+            case "deflate" -> new InflaterInputStream(body);
+            case "br" -> new BrotliInputStream(body);
+            default -> {
+                body.close();
+                throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+            }
+        };
+    }
+
+    /**
+     * Limits the body to the given number of bytes; anything past the limit is treated as end of stream.
+     *
+     * @param body     the response body
+     * @param maxBytes the maximum number of bytes to read
+     * @return the bounded body
+     */
+    public static InputStream limit(InputStream body, long maxBytes) {
+        return new FilterInputStream(body) {
+            private long remaining = maxBytes;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = super.read();
+                if (b >= 0) {
+                    remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int n = super.read(b, off, (int) Math.min(len, remaining));
+                if (n > 0) {
+                    remaining -= n;
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(Math.min(n, remaining));
+                remaining -= skipped;
+                return skipped;
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Bounds the time spent reading the body.
+     * <p>
+     * {@code HttpRequest.timeout} only covers the response headers. When the deadline passes, the raw body is
+     * closed, which cancels the exchange and wakes up a blocked read; the read then fails with
+     * {@link HttpTimeoutException}. Closing the returned stream cancels the deadline.
+     *
+     * @param body    the raw response body, before it is decoded
+     * @param timeout the time allowed for reading the whole body
+     * @return the body that fails once the deadline has passed
+     */
+    public static InputStream withDeadline(InputStream body, Duration timeout) {
+        DeadlineInputStream bounded = new DeadlineInputStream(body, timeout);
+        bounded.expiry = DEADLINES.schedule(bounded::expire, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        return bounded;
+    }
+
+    private static final class DeadlineInputStream extends FilterInputStream {
+        private final Duration timeout;
+        private volatile ScheduledFuture<?> expiry;
+        private volatile boolean expired;
+
+        private DeadlineInputStream(InputStream body, Duration timeout) {
+            super(body);
+            this.timeout = timeout;
+        }
+
+        private void expire() {
+            expired = true;
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // the exchange is abandoned either way
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkDeadline();
+            try {
+                return super.skip(n);
+            } catch (IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            ScheduledFuture<?> scheduled = expiry;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            super.close();
+        }
+
+        private void checkDeadline() throws HttpTimeoutException {
+            if (expired) {
+                throw timedOut();
+            }
+        }
+
+        private IOException translate(IOException e) {
+            if (!expired) {
+                return e;
+            }
+            HttpTimeoutException timeoutException = timedOut();
+            timeoutException.initCause(e);
+            return timeoutException;
+        }
+
+        private HttpTimeoutException timedOut() {
+            return new HttpTimeoutException("Body not read within " + timeout.toMillis() + " ms");
+        }
+    }
+}
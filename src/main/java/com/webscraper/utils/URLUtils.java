@@ -1,9 +1,11 @@
 package com.webscraper.utils;
 
+import com.webscraper.entities.NormalizedUrl;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.core5.net.URIBuilder;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 
 /**
  * Utility class for URL normalization and domain checking.
@@ -11,6 +13,8 @@ import java.net.URISyntaxException;
 @Slf4j
 public class URLUtils {
 
+    private static final int MAX_PORT_DIGITS = 5;
+
     /**
      * Normalizes the provided URL by ensuring a lowercase scheme and host, removing fragments,
      * and omitting default ports.
@@ -19,11 +23,49 @@ public class URLUtils {
      * @return the normalized URL as a String, or null if the URL is invalid or empty
      */
     public static String normalizeUrl(String url) {
-        if (url == null || url.trim().isEmpty()) {
+        NormalizedUrl normalized = normalize(url);
+        return normalized != null ? normalized.url() : null;
+    }
+
+    /**
+     * Normalizes the provided URL and returns it together with its host.
+     * <p>
+     * Plain ASCII http and https URLs are normalized in a single pass over the characters: scheme and host are
+     * lowercased, the default port and the fragment are dropped, and dot segments and repeated slashes are removed
+     * from the path. Anything else (user info, IPv6 hosts, other schemes, characters that need encoding) falls back
+     * to {@link URIBuilder} and {@link URI#normalize()}, which produce the same result for the common case.
+     *
+     * @param url the URL to normalize
+     * @return the normalized URL and its host, or null if the URL is invalid or empty
+     */
+    public static NormalizedUrl normalize(String url) {
+        if (url == null) {
             return null;
         }
+        String trimmed = url.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        NormalizedUrl normalized = fastNormalize(trimmed);
+        if (normalized != null) {
+            return normalized;
+        }
+        String fallback = normalizeWithUriBuilder(trimmed);
+        if (fallback == null) {
+            return null;
+        }
+        return new NormalizedUrl(fallback, hostOf(fallback));
+    }
+
+    /**
+     * Normalizes the URL with {@link URIBuilder}. Used for URLs the single-pass normalizer does not handle.
+     *
+     * @param url the trimmed URL to normalize
+     * @return the normalized URL as a String, or null if the URL is invalid
+     */
+    static String normalizeWithUriBuilder(String url) {
         try {
-            URIBuilder uriBuilder = new URIBuilder(url.trim());
+            URIBuilder uriBuilder = new URIBuilder(url);
             String scheme = uriBuilder.getScheme() != null ? uriBuilder.getScheme().toLowerCase() : "http";
             uriBuilder.setScheme(scheme);
             if (uriBuilder.getHost() != null) {
@@ -46,6 +88,233 @@ public class URLUtils {
         }
     }
 
+    /**
+     * Single-pass normalization of plain http and https URLs.
+     *
+     * @param url the trimmed URL
+     * @return the normalized URL, or null if the URL needs the {@link URIBuilder} fallback
+     */
+    private static NormalizedUrl fastNormalize(String url) {
+        int length = url.length();
+        int schemeEnd;
+        boolean https;
+        if (url.regionMatches(true, 0, "http://", 0, 7)) {
+            schemeEnd = 4;
+            https = false;
+        } else if (url.regionMatches(true, 0, "https://", 0, 8)) {
+            schemeEnd = 5;
+            https = true;
+        } else {
+            return null;
+        }
+
+        int hostStart = schemeEnd + 3;
+        int authorityEnd = hostStart;
+        int portStart = -1;
+        boolean hasUpperCase = false;
+        boolean labelStart = true;
+        boolean lastLabelAlpha = false;
+        char previous = '.';
+        for (; authorityEnd < length; authorityEnd++) {
+            char c = url.charAt(authorityEnd);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            if (portStart >= 0) {
+                if (c < '0' || c > '9') {
+                    return null;
+                }
+                continue;
+            }
+            if (c == ':') {
+                portStart = authorityEnd + 1;
+                continue;
+            }
+            if (c == '.') {
+                if (labelStart || previous == '-') {
+                    return null;
+                }
+                labelStart = true;
+            } else if (isAsciiLetter(c)) {
+                hasUpperCase |= c <= 'Z';
+                if (labelStart) {
+                    lastLabelAlpha = true;
+                }
+                labelStart = false;
+            } else if (c >= '0' && c <= '9') {
+                if (labelStart) {
+                    lastLabelAlpha = false;
+                }
+                labelStart = false;
+            } else if (c != '-' || labelStart) {
+                return null;
+            }
+            previous = c;
+        }
+        // empty hosts, trailing dots, IP literals and numeric top labels go through URIBuilder
+        int hostEnd = portStart >= 0 ? portStart - 1 : authorityEnd;
+        if (hostEnd == hostStart || labelStart || previous == '-' || !lastLabelAlpha) {
+            return null;
+        }
+
+        int port = -1;
+        if (portStart >= 0) {
+            int digits = authorityEnd - portStart;
+            if (digits == 0 || digits > MAX_PORT_DIGITS) {
+                return null;
+            }
+            port = Integer.parseInt(url, portStart, authorityEnd, 10);
+            if (port == (https ? 443 : 80)) {
+                port = -1;
+            }
+        }
+
+        int pathEnd = authorityEnd;
+        boolean needsPathNormalization = false;
+        for (; pathEnd < length; pathEnd++) {
+            char c = url.charAt(pathEnd);
+            if (c == '?' || c == '#') {
+                break;
+            }
+            if (c == '/' && pathEnd + 1 < length) {
+                char next = url.charAt(pathEnd + 1);
+                needsPathNormalization |= next == '/' || next == '.';
+            }
+            if (!isUriChar(url, pathEnd)) {
+                return null;
+            }
+        }
+        int queryEnd = pathEnd;
+        if (queryEnd < length && url.charAt(queryEnd) == '?') {
+            for (queryEnd++; queryEnd < length; queryEnd++) {
+                char c = url.charAt(queryEnd);
+                if (c == '#') {
+                    break;
+                }
+                if (c != '?' && !isUriChar(url, queryEnd)) {
+                    return null;
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(queryEnd);
+        sb.append(https ? "https://" : "http://");
+        int hostOffset = sb.length();
+        sb.append(url, hostStart, hostEnd);
+        if (hasUpperCase) {
+            for (int i = hostOffset; i < sb.length(); i++) {
+                sb.setCharAt(i, Character.toLowerCase(sb.charAt(i)));
+            }
+        }
+        String host = sb.substring(hostOffset);
+        if (port >= 0) {
+            sb.append(':').append(port);
+        }
+        if (needsPathNormalization) {
+            if (!appendNormalizedPath(url, authorityEnd, pathEnd, sb)) {
+                return null;
+            }
+        } else {
+            sb.append(url, authorityEnd, pathEnd);
+        }
+        sb.append(url, pathEnd, queryEnd);
+        return new NormalizedUrl(sb.toString(), host);
+    }
+
+    /**
+     * Appends the path with dot segments and repeated slashes removed, matching {@link URI#normalize()}.
+     *
+     * @param url   the URL containing the path
+     * @param start the index of the first path character (a slash)
+     * @param end   the index after the last path character
+     * @param sb    the builder to append to
+     * @return false if a ".." segment would climb above the root
+     */
+    private static boolean appendNormalizedPath(String url, int start, int end, StringBuilder sb) {
+        int[] segmentStarts = new int[16];
+        int depth = 0;
+        boolean trailingSlash = false;
+        int i = start;
+        while (i < end) {
+            while (i < end && url.charAt(i) == '/') {
+                i++;
+            }
+            if (i >= end) {
+                trailingSlash = true;
+                break;
+            }
+            int segmentEnd = url.indexOf('/', i);
+            if (segmentEnd < 0 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            int segmentLength = segmentEnd - i;
+            boolean last = segmentEnd == end;
+            if (segmentLength == 1 && url.charAt(i) == '.') {
+                trailingSlash = last;
+            } else if (segmentLength == 2 && url.charAt(i) == '.' && url.charAt(i + 1) == '.') {
+                if (depth == 0) {
+                    return false;
+                }
+                depth--;
+                sb.setLength(segmentStarts[depth]);
+                trailingSlash = last;
+            } else {
+                if (depth == segmentStarts.length) {
+                    segmentStarts = Arrays.copyOf(segmentStarts, depth * 2);
+                }
+                segmentStarts[depth++] = sb.length();
+                sb.append('/').append(url, i, segmentEnd);
+                trailingSlash = false;
+            }
+            i = segmentEnd;
+        }
+        if (depth == 0 || trailingSlash) {
+            sb.append('/');
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Checks whether the character at the given index may appear unencoded in a URI path or query.
+     */
+    private static boolean isUriChar(String url, int index) {
+        char c = url.charAt(index);
+        if (isAsciiLetter(c) || (c >= '0' && c <= '9')) {
+            return true;
+        }
+        switch (c) {
+            case '-': case '.': case '_': case '~':
+            case '!': case '$': case '&': case '\'': case '(': case ')':
+            case '*': case '+': case ',': case ';': case '=': case ':': case '@': case '/':
+                return true;
+            case '%':
+                return index + 2 < url.length()
+                        && Character.digit(url.charAt(index + 1), 16) >= 0
+                        && Character.digit(url.charAt(index + 2), 16) >= 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the lowercase host of a normalized URL.
+     *
+     * @param url the normalized URL
+     * @return the host, or null if the URL has none
+     */
+    private static String hostOf(String url) {
+        try {
+            String host = new URI(url).getHost();
+            return host != null ? host.toLowerCase() : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
     /**
      * Checks if the given URL belongs to the specified domain.
      *
@@ -56,15 +325,62 @@ public class URLUtils {
     public static boolean isSameDomain(String url, String domain) {
         try {
             URI uri = new URI(url);
-            String host = uri.getHost();
-            if (host == null) {
-                return false;
-            }
-            host = host.toLowerCase();
-            domain = domain.toLowerCase();
-            return host.equals(domain) || host.equals("www." + domain) || host.endsWith("." + domain);
+            return isSameDomainHost(uri.getHost(), domain);
         } catch (URISyntaxException e) {
             return false;
         }
     }
+
+    /**
+     * Checks if the given host belongs to the specified domain, including its subdomains.
+     *
+     * @param host   the host to check; may be null
+     * @param domain the domain to compare against
+     * @return true if the host is the domain or one of its subdomains; false otherwise
+     */
+    public static boolean isSameDomainHost(String host, String domain) {
+        if (host == null) {
+            return false;
+        }
+        host = host.toLowerCase();
+        domain = domain.toLowerCase();
+        return host.equals(domain) || host.equals("www." + domain) || host.endsWith("." + domain);
+    }
+
+    /**
+     * Extracts the lowercase host from an absolute URL without building a {@link URI}.
+     *
+     * @param url the URL to inspect
+     * @return the host, or an empty string if the URL has no authority
+     */
+    public static String extractHost(String url) {
+        if (url == null) {
+            return "";
+        }
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return "";
+        }
+        start += 3;
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            end++;
+        }
+        int at = url.lastIndexOf('@', end - 1);
+        if (at >= start) {
+            start = at + 1;
+        }
+        if (start >= end) {
+            return "";
+        }
+        int colon = url.indexOf(':', start);
+        if (colon >= 0 && colon < end && url.charAt(start) != '[') {
+            end = colon;
+        }
+        return url.substring(start, end).toLowerCase();
+    }
 }
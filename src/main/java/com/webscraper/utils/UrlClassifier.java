@@ -0,0 +1,74 @@
+package com.webscraper.utils;
+
+/**
+ * Utility class for classifying extracted URLs without regular expressions.
+ * <p>
+ * The path is located with a single forward scan up to the first {@code ?} or {@code #}, and its extension
+ * is compared in place against a fixed list of image extensions, so no substrings are allocated.
+ */
+public class UrlClassifier {
+
+    /**
+     * Kind of resource a URL points to.
+     */
+    public enum UrlKind {
+        PAGE,
+        IMAGE,
+        DATA_URI
+    }
+
+    private static final String[] IMAGE_EXTENSIONS = {"png", "jpg", "jpeg", "gif", "bmp"};
+    private static final int MAX_EXTENSION_LENGTH = 4;
+
+    /**
+     * Classifies the URL as a page link, an image or a data URI.
+     *
+     * @param url the absolute URL to classify
+     * @return the kind of the URL
+     */
+    public static UrlKind classify(String url) {
+        if (url.regionMatches(true, 0, "data:", 0, 5)) {
+            return UrlKind.DATA_URI;
+        }
+        return hasImageExtension(url) ? UrlKind.IMAGE : UrlKind.PAGE;
+    }
+
+    /**
+     * Checks whether the path of the URL ends with a common image file extension.
+     * The query string and fragment are ignored.
+     *
+     * @param url the URL to check
+     * @return true if the path ends with .png, .jpg, .jpeg, .gif or .bmp (case-insensitive)
+     */
+    public static boolean hasImageExtension(String url) {
+        int end = url.length();
+        for (int i = 0; i < end; i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                end = i;
+                break;
+            }
+        }
+        int dot = -1;
+        for (int i = end - 1; i >= 0 && end - i <= MAX_EXTENSION_LENGTH + 1; i--) {
+            char c = url.charAt(i);
+            if (c == '.') {
+                dot = i;
+                break;
+            }
+            if (c == '/') {
+                return false;
+            }
+        }
+        if (dot < 0) {
+            return false;
+        }
+        int length = end - dot - 1;
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (extension.length() == length && url.regionMatches(true, dot + 1, extension, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
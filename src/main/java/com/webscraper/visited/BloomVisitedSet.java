@@ -0,0 +1,110 @@
+package com.webscraper.visited;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approximate {@link VisitedSet} built as a scalable Bloom filter.
+ * <p>
+ * URLs go into a chain of Guava {@link BloomFilter}s. When the newest filter reaches its capacity a new one is
+ * added with twice the capacity and half the false-positive probability, so the compound false-positive rate stays
+ * below the configured target however many URLs are added. A false positive means an unseen URL is skipped.
+ */
+public class BloomVisitedSet implements VisitedSet {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final List<Layer> layers = new ArrayList<>();
+    private long size;
+
+    /**
+     * Constructs a BloomVisitedSet.
+     *
+     * @param initialCapacity the number of URLs the first filter is sized for
+     * @param targetFpp       the upper bound for the compound false-positive probability
+     */
+    public BloomVisitedSet(long initialCapacity, double targetFpp) {
+        layers.add(new Layer(Math.max(1000, initialCapacity), targetFpp * (1 - TIGHTENING_RATIO)));
+    }
+
+    @Override
+    public synchronized boolean add(String url) {
+        for (Layer layer : layers) {
+            if (layer.filter.mightContain(url)) {
+                return false;
+            }
+        }
+        Layer current = layers.get(layers.size() - 1);
+        if (current.count >= current.capacity) {
+            current = new Layer(current.capacity * GROWTH_FACTOR, current.fpp * TIGHTENING_RATIO);
+            layers.add(current);
+        }
+        current.filter.put(url);
+        current.count++;
+        size++;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean contains(String url) {
+        for (Layer layer : layers) {
+            if (layer.filter.mightContain(url)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public synchronized long memoryBytes() {
+        long bytes = 0;
+        for (Layer layer : layers) {
+            bytes += layer.bits / Byte.SIZE;
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the compound false-positive probability of all filters at their current fill level.
+     *
+     * @return the probability that an unseen URL is reported as seen
+     */
+    @Override
+    public synchronized double falsePositiveRate() {
+        double notFalsePositive = 1;
+        for (Layer layer : layers) {
+            notFalsePositive *= 1 - layer.filter.expectedFpp();
+        }
+        return 1 - notFalsePositive;
+    }
+
+    /**
+     * One filter in the chain.
+     */
+    private static final class Layer {
+
+        private final BloomFilter<CharSequence> filter;
+        private final long capacity;
+        private final double fpp;
+        private final long bits;
+        private long count;
+
+        Layer(long capacity, double fpp) {
+            this.filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, fpp);
+            this.capacity = capacity;
+            this.fpp = fpp;
+            // optimal bit count used by Guava: -n * ln(p) / ln(2)^2
+            this.bits = (long) Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        }
+    }
+}
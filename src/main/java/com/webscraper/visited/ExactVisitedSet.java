@@ -0,0 +1,48 @@
+package com.webscraper.visited;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exact {@link VisitedSet} that keeps every URL string in a {@link ConcurrentHashMap}.
+ */
+public class ExactVisitedSet implements VisitedSet {
+
+    /**
+     * Approximate per-entry overhead: map node, String object, byte array header and table slot.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 80;
+
+    private final Set<String> urls = ConcurrentHashMap.newKeySet();
+    private final AtomicLong characters = new AtomicLong();
+
+    @Override
+    public boolean add(String url) {
+        if (urls.add(url)) {
+            characters.addAndGet(url.length());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(String url) {
+        return urls.contains(url);
+    }
+
+    @Override
+    public long size() {
+        return urls.size();
+    }
+
+    @Override
+    public long memoryBytes() {
+        return urls.size() * (long) ENTRY_OVERHEAD_BYTES + characters.get();
+    }
+
+    @Override
+    public double falsePositiveRate() {
+        return 0;
+    }
+}
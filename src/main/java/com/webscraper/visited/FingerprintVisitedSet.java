@@ -0,0 +1,167 @@
+package com.webscraper.visited;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link VisitedSet} that stores 64- or 128-bit Murmur3 fingerprints of URLs instead of the strings themselves.
+ * <p>
+ * Fingerprints live in primitive {@code long[]} open-addressing tables with linear probing. The table is split into
+ * independently locked stripes selected by the top bits of the fingerprint, so concurrent adds rarely contend.
+ * A URL is wrongly reported as seen only if its fingerprint collides with an existing one.
+ */
+public class FingerprintVisitedSet implements VisitedSet {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final double MAX_LOAD = 0.6;
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final boolean wide;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * Constructs a FingerprintVisitedSet.
+     *
+     * @param fingerprintBits the fingerprint width, 64 or 128
+     * @param expectedSize    the expected number of URLs, used to presize the table
+     */
+    public FingerprintVisitedSet(int fingerprintBits, int expectedSize) {
+        if (fingerprintBits != 64 && fingerprintBits != 128) {
+            throw new IllegalArgumentException("Fingerprint width must be 64 or 128 bits: " + fingerprintBits);
+        }
+        this.wide = fingerprintBits == 128;
+        int stripeCapacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / STRIPES / MAX_LOAD)) * 2 - 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(stripeCapacity, wide);
+        }
+    }
+
+    @Override
+    public boolean add(String url) {
+        HashCode hash = HASH.hashString(url, StandardCharsets.UTF_8);
+        long high = nonZero(hash.asLong());
+        long low = wide ? secondHalf(hash) : 0;
+        Stripe stripe = stripes[(int) (high >>> (Long.SIZE - STRIPE_BITS))];
+        synchronized (stripe) {
+            return stripe.add(high, low);
+        }
+    }
+
+    @Override
+    public boolean contains(String url) {
+        HashCode hash = HASH.hashString(url, StandardCharsets.UTF_8);
+        long high = nonZero(hash.asLong());
+        long low = wide ? secondHalf(hash) : 0;
+        Stripe stripe = stripes[(int) (high >>> (Long.SIZE - STRIPE_BITS))];
+        synchronized (stripe) {
+            return stripe.indexOf(high, low) >= 0;
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.count;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += (long) stripe.high.length * Long.BYTES * (wide ? 2 : 1);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the probability that an unseen URL collides with one of the stored fingerprints.
+     *
+     * @return {@code size / 2^bits}
+     */
+    @Override
+    public double falsePositiveRate() {
+        return Math.scalb((double) size(), wide ? -128 : -64);
+    }
+
+    private static long nonZero(long value) {
+        // zero marks an empty slot
+        return value == 0 ? 1 : value;
+    }
+
+    private static long secondHalf(HashCode hash) {
+        return ByteBuffer.wrap(hash.asBytes()).order(ByteOrder.LITTLE_ENDIAN).getLong(Long.BYTES);
+    }
+
+    /**
+     * One open-addressing table guarded by its own monitor.
+     */
+    private static final class Stripe {
+
+        private long[] high;
+        private long[] low;
+        private int count;
+
+        Stripe(int capacity, boolean wide) {
+            this.high = new long[capacity];
+            this.low = wide ? new long[capacity] : null;
+        }
+
+        boolean add(long h, long l) {
+            if (count + 1 > high.length * MAX_LOAD) {
+                resize();
+            }
+            int mask = high.length - 1;
+            int slot = (int) h & mask;
+            while (high[slot] != 0) {
+                if (high[slot] == h && (low == null || low[slot] == l)) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            high[slot] = h;
+            if (low != null) {
+                low[slot] = l;
+            }
+            count++;
+            return true;
+        }
+
+        int indexOf(long h, long l) {
+            int mask = high.length - 1;
+            int slot = (int) h & mask;
+            while (high[slot] != 0) {
+                if (high[slot] == h && (low == null || low[slot] == l)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void resize() {
+            long[] oldHigh = high;
+            long[] oldLow = low;
+            high = new long[oldHigh.length * 2];
+            low = oldLow != null ? new long[oldHigh.length * 2] : null;
+            count = 0;
+            for (int i = 0; i < oldHigh.length; i++) {
+                if (oldHigh[i] != 0) {
+                    add(oldHigh[i], oldLow != null ? oldLow[i] : 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.webscraper.visited;
+
+/**
+ * Set of URLs already seen during a scraping session.
+ * <p>
+ * Implementations trade exactness for memory: see {@link ExactVisitedSet}, {@link FingerprintVisitedSet}
+ * and {@link BloomVisitedSet}.
+ */
+public interface VisitedSet {
+
+    /**
+     * Marks the URL as visited.
+     *
+     * @param url the URL to add
+     * @return true if the URL was not seen before; false otherwise
+     */
+    boolean add(String url);
+
+    /**
+     * Checks whether the URL has been seen.
+     *
+     * @param url the URL to check
+     * @return true if the URL was seen (or, for approximate sets, may have been seen)
+     */
+    boolean contains(String url);
+
+    /**
+     * Returns the number of URLs added.
+     *
+     * @return the number of distinct URLs recorded
+     */
+    long size();
+
+    /**
+     * Returns the estimated heap used by the set.
+     *
+     * @return the estimated memory use in bytes
+     */
+    long memoryBytes();
+
+    /**
+     * Returns the probability that a URL which was never added is reported as seen.
+     *
+     * @return the current false-positive rate; 0 for exact sets
+     */
+    double falsePositiveRate();
+}
@@ -0,0 +1,77 @@
+package com.webscraper.visited;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Creates the visited-URL sets and result logs for scraping sessions according to the configured mode.
+ */
+@Component
+public class VisitedSetFactory {
+
+    private final VisitedSetMode mode;
+    private final int fingerprintBits;
+    private final int expectedUrls;
+    private final double bloomFalsePositiveRate;
+    private final Path resultsDirectory;
+
+    /**
+     * Constructs a VisitedSetFactory.
+     *
+     * @param mode                   the visited-set implementation
+     * @param fingerprintBits        the fingerprint width for {@link VisitedSetMode#FINGERPRINT}, 64 or 128
+     * @param expectedUrls           the expected number of URLs per session, used for presizing
+     * @param bloomFalsePositiveRate the target false-positive rate for {@link VisitedSetMode#BLOOM}
+     * @param resultsDirectory       the directory for visited URL logs
+     */
+    public VisitedSetFactory(@Value("${crawler.visited.mode:EXACT}") VisitedSetMode mode,
+                             @Value("${crawler.visited.fingerprintBits:64}") int fingerprintBits,
+                             @Value("${crawler.visited.expectedUrls:100000}") int expectedUrls,
+                             @Value("${crawler.visited.bloomFalsePositiveRate:0.001}") double bloomFalsePositiveRate,
+                             @Value("${crawler.results.directory:crawl-results}") String resultsDirectory) {
+        this.mode = mode;
+        this.fingerprintBits = fingerprintBits;
+        this.expectedUrls = expectedUrls;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        this.resultsDirectory = Paths.get(resultsDirectory);
+    }
+
+    /**
+     * Creates a new, empty visited set.
+     *
+     * @return the visited set for the configured mode
+     */
+    public VisitedSet create() {
+        return switch (mode) {
+            case EXACT -> new ExactVisitedSet();
+            case FINGERPRINT -> new FingerprintVisitedSet(fingerprintBits, expectedUrls);
+            case BLOOM -> new BloomVisitedSet(expectedUrls, bloomFalsePositiveRate);
+        };
+    }
+
+    /**
+     * Creates the visited URL log for a session.
+     *
+     * @param sessionId the session identifier
+     * @return the log writing to {@code <results directory>/<sessionId>-links.txt}
+     * @throws IOException if the log file cannot be created
+     */
+    public VisitedUrlLog createLog(String sessionId) throws IOException {
+        return new VisitedUrlLog(resultsDirectory.resolve(sessionId + "-links.txt"));
+    }
+
+    /**
+     * Reopens the visited URL log of a session that is being resumed, keeping the URLs already written.
+     *
+     * @param sessionId the session identifier
+     * @return the log appending to {@code <results directory>/<sessionId>-links.txt}
+     * @throws IOException if the log file cannot be opened
+     */
+    public VisitedUrlLog openLog(String sessionId) throws IOException {
+        return new VisitedUrlLog(resultsDirectory.resolve(sessionId + "-links.txt"), true);
+    }
+}
@@ -0,0 +1,22 @@
+package com.webscraper.visited;
+
+/**
+ * Implementation used for the visited-URL sets of a session.
+ */
+public enum VisitedSetMode {
+
+    /**
+     * Full URL strings in a concurrent hash set.
+     */
+    EXACT,
+
+    /**
+     * 64- or 128-bit URL fingerprints in a lock-striped open-addressing table.
+     */
+    FINGERPRINT,
+
+    /**
+     * Scalable Bloom filter; approximate, may skip a small share of unseen URLs.
+     */
+    BLOOM
+}
@@ -0,0 +1,234 @@
+package com.webscraper.visited;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Append-only file with one visited URL per line.
+ * <p>
+ * The crawl result is served from this file through {@link #asSet()}, which streams the lines on iteration,
+ * so the list of visited pages never has to be held on the heap.
+ */
+@Slf4j
+public class VisitedUrlLog implements Closeable {
+
+    private final Path file;
+    private final BufferedWriter writer;
+    private long count;
+    private boolean closed;
+
+    /**
+     * Creates (or truncates) the log file.
+     *
+     * @param file the file to write to
+     * @throws IOException if the file cannot be created
+     */
+    public VisitedUrlLog(Path file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * Opens the log file.
+     *
+     * @param file   the file to write to
+     * @param append whether to keep the URLs already in the file, e.g. when resuming a session
+     * @throws IOException if the file cannot be opened
+     */
+    public VisitedUrlLog(Path file, boolean append) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        if (append && Files.exists(file)) {
+            try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+                this.count = lines.count();
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } else {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Appends a URL to the log.
+     *
+     * @param url the visited URL
+     */
+    public synchronized void append(String url) {
+        if (closed) {
+            return;
+        }
+        try {
+            writer.write(url);
+            writer.newLine();
+            count++;
+        } catch (IOException e) {
+            log.error("Failed to append URL to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of URLs appended.
+     *
+     * @return the number of lines in the log
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * Returns the path of the log file.
+     *
+     * @return the log file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns a read-only set view that streams the URLs from the file.
+     * <p>
+     * {@code contains} scans the file; the view is intended for iteration and serialization.
+     *
+     * @return the set of visited URLs
+     */
+    public Set<String> asSet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                flush();
+                return new LineIterator(file);
+            }
+
+            @Override
+            public int size() {
+                return (int) Math.min(Integer.MAX_VALUE, VisitedUrlLog.this.size());
+            }
+        };
+    }
+
+    /**
+     * Flushes buffered URLs to the file.
+     */
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Failed to flush {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        writer.close();
+    }
+
+    /**
+     * Closes the log and deletes its file.
+     */
+    public synchronized void delete() {
+        try {
+            close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.error("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Iterator over the lines of a file that reads it in chunks and keeps no file open between calls,
+     * so an iteration that is abandoned halfway leaks nothing. A trailing line without a line break is
+     * still being written and is skipped.
+     */
+    private static final class LineIterator implements Iterator<String> {
+
+        private static final int CHUNK_BYTES = 64 * 1024;
+
+        private final Path file;
+        private final ArrayDeque<String> lines = new ArrayDeque<>();
+        private long offset;
+        private boolean exhausted;
+
+        LineIterator(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (lines.isEmpty() && !exhausted) {
+                try {
+                    fill();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return !lines.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return lines.poll();
+        }
+
+        private void fill() throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+                while (true) {
+                    int read = channel.read(buffer.clear(), offset);
+                    int end = read > 0 ? lastLineBreak(buffer.array(), read) : -1;
+                    if (end >= 0) {
+                        split(buffer.array(), end);
+                        offset += end + 1;
+                        return;
+                    }
+                    if (read < buffer.capacity()) {
+                        exhausted = true;
+                        return;
+                    }
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                }
+            }
+        }
+
+        private void split(byte[] bytes, int end) {
+            int start = 0;
+            for (int i = 0; i <= end; i++) {
+                if (bytes[i] == '\n') {
+                    int length = i > start && bytes[i - 1] == '\r' ? i - 1 - start : i - start;
+                    lines.add(new String(bytes, start, length, StandardCharsets.UTF_8));
+                    start = i + 1;
+                }
+            }
+        }
+
+        private static int lastLineBreak(byte[] bytes, int length) {
+            for (int i = length - 1; i >= 0; i--) {
+                if (bytes[i] == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
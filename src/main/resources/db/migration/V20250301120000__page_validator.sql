@@ -0,0 +1,11 @@
+create table page_validator
+(
+    id            serial primary key,
+    url           text unique not null,
+    etag          text,
+    last_modified text,
+    content_hash  text,
+    body_bytes    bigint      not null,
+    links         text[]      not null,
+    images        text[]      not null
+);
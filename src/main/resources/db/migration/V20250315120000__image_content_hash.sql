@@ -0,0 +1,4 @@
+alter table image_entity
+    add column content_hash text;
+
+create index image_entity_content_hash_idx on image_entity (content_hash);
@@ -0,0 +1,6 @@
+alter table image_entity
+    add column format text;
+
+update image_entity
+set format = 'jpeg'
+where path is not null;
@@ -0,0 +1,61 @@
+package com.webscraper.durable;
+
+import com.webscraper.engines.FrontierQueue;
+import com.webscraper.entities.CrawlTask;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFrontierQueueTest {
+
+    private static final int SEGMENT_BYTES = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPollReturnsTasksInOrderAcrossSegments() throws IOException {
+        try (MappedFrontierQueue queue = new MappedFrontierQueue(directory, SEGMENT_BYTES, 10, () -> { })) {
+            for (int i = 0; i < 100; i++) {
+                queue.add(new CrawlTask("http://example.com/page/" + i, i % 3));
+            }
+            assertEquals(100, queue.size());
+            for (int i = 0; i < 100; i++) {
+                FrontierQueue.Entry entry = queue.poll();
+                assertNotNull(entry, "Черга не повинна закінчитися раніше");
+                assertEquals("http://example.com/page/" + i, entry.task().url(), "Порядок задач має зберігатися");
+                assertEquals(i % 3, entry.task().depth());
+            }
+            assertNull(queue.poll(), "Порожня черга має повертати null");
+        }
+    }
+
+    @Test
+    void testReopenResumesFromCheckpoint() throws IOException {
+        MappedFrontierQueue queue = new MappedFrontierQueue(directory, SEGMENT_BYTES, 1, () -> { });
+        for (int i = 0; i < 20; i++) {
+            queue.add(new CrawlTask("http://example.com/page/" + i, 1));
+        }
+        for (int i = 0; i < 5; i++) {
+            queue.complete(queue.poll());
+        }
+        FrontierQueue.Entry inFlight = queue.poll();
+        queue.complete(queue.poll());
+        queue.awaitCheckpoint();
+        // simulate a crash: the queue is not closed, so only the last checkpoint is persisted
+
+        MappedFrontierQueue recovered = new MappedFrontierQueue(directory, SEGMENT_BYTES, 1, () -> { });
+        List<String> pending = new ArrayList<>();
+        recovered.forEachPending(task -> pending.add(task.url()));
+        assertEquals(15, recovered.size(), "Незавершена задача має залишитися в черзі");
+        assertEquals(inFlight.task().url(), pending.get(0), "Відновлення має починатися з першої незавершеної задачі");
+        assertEquals("http://example.com/page/19", pending.get(pending.size() - 1));
+        recovered.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.webscraper.engines;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlBudgetTest {
+
+    @Test
+    void testPageLimitStopsNewPagesOnly() {
+        CrawlBudget budget = new CrawlBudget(2, 0, 0, 0);
+        assertTrue(budget.tryAcquirePage());
+        assertTrue(budget.tryAcquirePage());
+        assertFalse(budget.tryAcquirePage(), "Після ліміту сторінок нові сторінки не мають плануватися");
+        assertFalse(budget.isExhausted(), "Ліміт сторінок не повинен зупиняти вже заплановані сторінки");
+        assertEquals("page limit", budget.getLimitReached());
+        assertEquals(2, budget.getPages());
+    }
+
+    @Test
+    void testByteLimitExhaustsBudget() {
+        CrawlBudget budget = new CrawlBudget(0, 1000, 0, 0);
+        budget.onBytes(600);
+        assertFalse(budget.isExhausted());
+        budget.onBytes(600);
+        assertTrue(budget.isExhausted(), "Після ліміту байтів обхід має зупинитися");
+        assertFalse(budget.tryAcquireImage(), "Вичерпаний бюджет не повинен пропускати зображення");
+        assertEquals("byte limit", budget.getLimitReached());
+    }
+
+    @Test
+    void testDeadlineExhaustsBudget() throws InterruptedException {
+        CrawlBudget budget = new CrawlBudget(0, 0, 0, 30);
+        assertTrue(budget.tryAcquirePage());
+        Thread.sleep(50);
+        assertFalse(budget.tryAcquirePage(), "Після дедлайну нові сторінки не мають плануватися");
+        assertTrue(budget.isExhausted());
+        assertEquals("deadline", budget.getLimitReached());
+    }
+
+    @Test
+    void testUnlimitedBudget() {
+        CrawlBudget budget = CrawlBudget.unlimited();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(budget.tryAcquirePage());
+        }
+        budget.onBytes(Long.MAX_VALUE / 2);
+        assertFalse(budget.isExhausted());
+        assertNull(budget.getLimitReached());
+    }
+}
@@ -0,0 +1,119 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.CrawlEvent;
+import com.webscraper.entities.CrawlJobStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlEventStreamTest {
+
+    @Test
+    void testPublish_FullBufferDropsAndCountsEvents() throws InterruptedException {
+        CrawlEventStream stream = new CrawlEventStream(2);
+
+        stream.publish(CrawlEvent.page("a"));
+        stream.publish(CrawlEvent.page("b"));
+        stream.publish(CrawlEvent.page("c"));
+        stream.publish(CrawlEvent.page("d"));
+
+        CrawlEvent dropped = stream.poll(0);
+        assertEquals(CrawlEvent.Type.DROPPED, dropped.type(), "Клієнт має дізнатися про втрачені події першим");
+        assertEquals(2L, dropped.count());
+        assertEquals("a", stream.poll(0).url());
+        assertEquals("b", stream.poll(0).url());
+        assertNull(stream.poll(0), "Втрачені події не мають з'являтися в буфері");
+        assertFalse(stream.hasPending());
+    }
+
+    @Test
+    void testPoll_DroppedCountIsReportedOnce() throws InterruptedException {
+        CrawlEventStream stream = new CrawlEventStream(1);
+        stream.publish(CrawlEvent.page("a"));
+        stream.publish(CrawlEvent.page("b"));
+        assertTrue(stream.hasPending());
+
+        assertEquals(CrawlEvent.Type.DROPPED, stream.poll(0).type());
+        assertEquals("a", stream.poll(0).url());
+        stream.publish(CrawlEvent.page("c"));
+
+        assertEquals("c", stream.poll(0).url(), "Лічильник втрачених подій має скидатися після звіту");
+    }
+
+    @Test
+    void testPoll_WaitsForNextEvent() throws Exception {
+        CrawlEventStream stream = new CrawlEventStream(10);
+        CompletableFuture<CrawlEvent> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream.poll(5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        stream.publish(CrawlEvent.page("a"));
+
+        assertEquals("a", next.get(5, TimeUnit.SECONDS).url());
+    }
+
+    @Test
+    void testPoll_TimesOutWithoutEvents() throws InterruptedException {
+        assertNull(new CrawlEventStream(10).poll(10));
+    }
+
+    @Test
+    void testClose_EndFollowsBufferedEvents() throws InterruptedException {
+        CrawlEventStream stream = new CrawlEventStream(10);
+        stream.publish(CrawlEvent.page("a"));
+
+        stream.close(CrawlEvent.end(CrawlJobStatus.State.COMPLETED));
+        stream.publish(CrawlEvent.page("b"));
+
+        assertEquals("a", stream.poll(0).url());
+        CrawlEvent end = stream.poll(0);
+        assertEquals(CrawlEvent.Type.END, end.type());
+        assertEquals("COMPLETED", end.message());
+        assertEquals(CrawlEvent.Type.END, stream.poll(0).type(), "Завершений потік має повертати END без очікування");
+    }
+
+    @Test
+    void testClose_FullBufferStillEnds() throws InterruptedException {
+        CrawlEventStream stream = new CrawlEventStream(1);
+        stream.publish(CrawlEvent.page("a"));
+
+        stream.close(CrawlEvent.end(CrawlJobStatus.State.FAILED));
+
+        assertEquals("a", stream.poll(0).url());
+        assertEquals(CrawlEvent.Type.END, stream.poll(5000).type(), "END не має губитися через повний буфер");
+    }
+
+    @Test
+    void testClose_WakesUpWaitingClient() throws Exception {
+        CrawlEventStream stream = new CrawlEventStream(10);
+        CompletableFuture<CrawlEvent> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream.poll(5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        stream.close(CrawlEvent.end(CrawlJobStatus.State.CANCELLED));
+
+        assertEquals(CrawlEvent.Type.END, next.get(5, TimeUnit.SECONDS).type());
+    }
+
+    @Test
+    void testSubscribe_AllowsOneClientAtATime() {
+        CrawlEventStream stream = new CrawlEventStream(10);
+
+        assertTrue(stream.subscribe());
+        assertFalse(stream.subscribe(), "Другий клієнт не може читати зайнятий потік");
+
+        stream.unsubscribe();
+        assertTrue(stream.subscribe(), "Після відключення клієнта потік можна читати знову");
+    }
+}
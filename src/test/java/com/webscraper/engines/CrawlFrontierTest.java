@@ -0,0 +1,172 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.CrawlTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlFrontierTest {
+
+    private final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    void testReserve_CountsReservationsAgainstCapacity() {
+        CrawlFrontier frontier = new CrawlFrontier(2, 1, this::runUntilCompleted);
+        assertTrue(frontier.reserve());
+        assertTrue(frontier.offer(new CrawlTask("a", 0)));
+        assertEquals(1, frontier.inFlight(), "Перше завдання має одразу виконуватися");
+
+        assertTrue(frontier.reserve());
+        assertTrue(frontier.reserve());
+        assertFalse(frontier.reserve(), "Резервування мають враховуватися в місткості черги");
+        assertEquals(1, frontier.droppedTasks());
+
+        frontier.release();
+        assertTrue(frontier.reserve(), "Повернене резервування звільняє місце");
+        assertTrue(frontier.offer(new CrawlTask("b", 1)));
+        assertEquals(1, frontier.queueDepth());
+        assertFalse(frontier.reserve());
+    }
+
+    @Test
+    void testStart_CompletesOnlyWhenNothingIsInFlightReservedOrDelayed() {
+        CrawlFrontier frontier = new CrawlFrontier(10, 2, this::runUntilCompleted);
+        assertTrue(frontier.reserve());
+        assertTrue(frontier.reserve());
+        frontier.offer(new CrawlTask("a", 0));
+        CompletableFuture<Void> completion = frontier.start();
+
+        running.get("a").complete(null);
+        assertFalse(completion.isDone(), "Незавершене резервування має тримати обхід");
+
+        frontier.release();
+        assertTrue(completion.isDone(), "Обхід має завершитися, коли не лишилося роботи");
+        assertEquals(0, frontier.inFlight());
+    }
+
+    @Test
+    void testRequeue_RunsTaskAgainAfterDelay() {
+        AtomicInteger attempts = new AtomicInteger();
+        CrawlFrontier[] frontier = new CrawlFrontier[1];
+        frontier[0] = new CrawlFrontier(10, 1, task -> {
+            if (attempts.incrementAndGet() == 1) {
+                frontier[0].requeue(task, 50, timer);
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+        frontier[0].reserve();
+        frontier[0].offer(new CrawlTask("a", 0));
+        CompletableFuture<Void> completion = frontier[0].start();
+        assertFalse(completion.isDone(), "Відкладене завдання має тримати обхід");
+
+        completion.orTimeout(5, TimeUnit.SECONDS).join();
+        assertEquals(2, attempts.get(), "Відкладене завдання має виконатися ще раз");
+    }
+
+    @Test
+    void testRequeue_RequeuedTaskIsDroppedAfterStop() throws InterruptedException {
+        List<String> started = new ArrayList<>();
+        CrawlFrontier frontier = new CrawlFrontier(10, 1, task -> {
+            synchronized (started) {
+                started.add(task.url());
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+        frontier.requeue(new CrawlTask("a", 0), 50, timer);
+        frontier.stop("test");
+        CompletableFuture<Void> completion = frontier.start();
+
+        completion.orTimeout(5, TimeUnit.SECONDS).join();
+        Thread.sleep(100);
+        synchronized (started) {
+            assertTrue(started.isEmpty(), "Після зупинки відкладені завдання не виконуються");
+        }
+    }
+
+    @Test
+    void testStop_FinishesInFlightTasksAndSkipsQueuedOnes() {
+        CrawlFrontier frontier = new CrawlFrontier(10, 1, this::runUntilCompleted);
+        frontier.reserve();
+        frontier.reserve();
+        frontier.offer(new CrawlTask("a", 0));
+        frontier.offer(new CrawlTask("b", 0));
+        CompletableFuture<Void> completion = frontier.start();
+
+        frontier.stop("page limit");
+        assertFalse(frontier.reserve(), "Зупинений обхід не приймає нові адреси");
+        assertFalse(completion.isDone(), "Зупинка чекає на завдання у польоті");
+
+        running.get("a").complete(null);
+        assertNull(completion.join(), "Зупинений обхід завершується нормально");
+        assertFalse(running.containsKey("b"), "Завдання з черги не мають запускатися після зупинки");
+    }
+
+    @Test
+    void testCancel_FailsCompletionAndKeepsInFlightTasksForResume() {
+        List<Long> completed = new ArrayList<>();
+        InMemoryFrontierQueue queue = new InMemoryFrontierQueue() {
+            @Override
+            public void complete(Entry entry) {
+                completed.add(entry.position());
+            }
+        };
+        CrawlFrontier frontier = new CrawlFrontier(queue, 10, 2, this::runUntilCompleted);
+        frontier.reserve();
+        frontier.reserve();
+        frontier.offer(new CrawlTask("a", 0));
+        frontier.offer(new CrawlTask("b", 0));
+        CompletableFuture<Void> completion = frontier.start();
+        running.get("a").complete(null);
+        assertEquals(List.of(0L), completed);
+
+        frontier.cancel();
+        assertFalse(completion.isDone(), "Скасування чекає на завдання у польоті");
+        running.get("b").completeExceptionally(new CancellationException("Fetch cancelled"));
+
+        assertThrows(CancellationException.class, completion::join);
+        assertEquals(List.of(0L), completed, "Скасовані завдання мають лишитися в черзі для відновлення");
+    }
+
+    @Test
+    void testDispatch_ImmediateTasksDoNotGrowTheStack() {
+        int pages = 100_000;
+        AtomicInteger processed = new AtomicInteger();
+        CrawlFrontier[] frontier = new CrawlFrontier[1];
+        frontier[0] = new CrawlFrontier(10, 4, task -> {
+            processed.incrementAndGet();
+            if (task.depth() < pages - 1 && frontier[0].reserve()) {
+                frontier[0].offer(new CrawlTask(task.url(), task.depth() + 1));
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+        frontier[0].reserve();
+        frontier[0].offer(new CrawlTask("a", 0));
+
+        frontier[0].start().join();
+        assertEquals(pages, processed.get(), "Кожне завдання ланцюжка має виконатися рівно один раз");
+    }
+
+    private CompletableFuture<Void> runUntilCompleted(CrawlTask task) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        running.put(task.url(), future);
+        return future;
+    }
+}
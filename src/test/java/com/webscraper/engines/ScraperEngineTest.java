@@ -0,0 +1,95 @@
+package com.webscraper.engines;
+
+import com.webscraper.entities.ScraperSession;
+import com.webscraper.repositories.PageValidatorRepository;
+import com.webscraper.services.AdaptiveConcurrencyLimiter;
+import com.webscraper.services.DocumentService;
+import com.webscraper.services.HostCircuitBreaker;
+import com.webscraper.services.PageValidatorCache;
+import com.webscraper.services.PolitenessScheduler;
+import com.webscraper.services.RetryScheduler;
+import com.webscraper.services.RobotsTxtService;
+import com.webscraper.services.impl.RoundRobinProxySelectorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ScraperEngineTest {
+
+    private static final String HOST = "example.com";
+    private static final String URL = "https://example.com/";
+
+    private final Executor rejectingExecutor = task -> {
+        throw new RejectedExecutionException("Executor is shut down");
+    };
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private PolitenessScheduler politenessScheduler;
+    private RetryScheduler retryScheduler;
+    private RobotsTxtService robotsTxtService;
+    private DocumentService documentService;
+
+    @BeforeEach
+    void setUp() {
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(1, 1, 0.5, 2.0, 10, new SimpleMeterRegistry());
+        politenessScheduler = new PolitenessScheduler(200, 1000, 10, 1440);
+        retryScheduler = new RetryScheduler(1, 100, 1000, 0.1, 0);
+        robotsTxtService = mock(RobotsTxtService.class);
+        when(robotsTxtService.getRules(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        when(robotsTxtService.isAllowed(anyString())).thenReturn(true);
+        when(robotsTxtService.isAllowed(anyString(), any())).thenReturn(true);
+        documentService = mock(DocumentService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        politenessScheduler.shutdown();
+        retryScheduler.shutdown();
+    }
+
+    @Test
+    void testCrawl_RejectedFetchReleasesHostSlot() {
+        ScraperEngine engine = engine(rejectingExecutor);
+
+        engine.start(session(0)).join();
+
+        verifyNoInteractions(documentService);
+        assertTrue(concurrencyLimiter.acquire(HOST).isDone(), "Слот хоста має звільнятися, якщо завантаження не почалося");
+    }
+
+    @Test
+    void testCrawl_FailedPolitenessWaitReleasesHostSlot() {
+        ScraperEngine engine = engine(Runnable::run);
+        politenessScheduler.acquire(HOST, 1000);
+        politenessScheduler.shutdown();
+
+        engine.start(session(1000)).join();
+
+        verifyNoInteractions(documentService);
+        assertTrue(concurrencyLimiter.acquire(HOST).isDone(), "Слот хоста має звільнятися, якщо очікування не вдалося");
+    }
+
+    private ScraperEngine engine(Executor linkExecutor) {
+        return new ScraperEngine(linkExecutor, documentService, robotsTxtService, new RoundRobinProxySelectorService(),
+                politenessScheduler, concurrencyLimiter, new HostCircuitBreaker(5, 1000), retryScheduler,
+                new PageValidatorCache(mock(PageValidatorRepository.class), false), List.of(), 10, 1);
+    }
+
+    private ScraperSession session(long crawlDelayMillis) {
+        ScraperSession session = new ScraperSession(URL, HOST, 1, null, List.of());
+        session.setCrawlDelayMillis(crawlDelayMillis);
+        return session;
+    }
+}
@@ -0,0 +1,72 @@
+package com.webscraper.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long LATENCY = 50_000_000L;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong ticker = new AtomicLong();
+    private final AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(2, 8, 0.5, 2.0, 10, registry, ticker::get);
+
+    @Test
+    void testAcquire_WaitsWhenLimitReached() {
+        assertTrue(limiter.acquire("example.com").isDone());
+        assertTrue(limiter.acquire("example.com").isDone());
+        CompletableFuture<Void> third = limiter.acquire("example.com");
+        assertFalse(third.isDone(), "Запит понад ліміт має чекати");
+
+        limiter.release("example.com", AdaptiveConcurrencyLimiter.Outcome.IGNORE, LATENCY);
+        assertTrue(third.isDone(), "Звільнений слот має передаватися наступному запиту");
+    }
+
+    @Test
+    void testRelease_GrowsWhileLatencyIsStable() {
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire("example.com");
+            limiter.release("example.com", AdaptiveConcurrencyLimiter.Outcome.SUCCESS, LATENCY);
+        }
+        assertTrue(limiter.currentLimit("example.com") > 2, "Ліміт має зростати при стабільній затримці");
+        assertEquals(limiter.currentLimit("example.com"),
+                registry.get("crawler.host.concurrency.limit").tag("host", "example.com").gauge().value(), 1.0);
+    }
+
+    @Test
+    void testRelease_CutsLimitOnOverload() {
+        for (int i = 0; i < 40; i++) {
+            limiter.acquire("example.com");
+            limiter.release("example.com", AdaptiveConcurrencyLimiter.Outcome.SUCCESS, LATENCY);
+        }
+        int before = limiter.currentLimit("example.com");
+        limiter.acquire("example.com");
+        limiter.release("example.com", AdaptiveConcurrencyLimiter.Outcome.OVERLOAD, LATENCY);
+        assertEquals(Math.max(1, before / 2), limiter.currentLimit("example.com"), 1,
+                "Перевантаження має різко зменшувати ліміт");
+    }
+
+    @Test
+    void testIdleHost_IsForgottenWithItsMeters() {
+        limiter.acquire("example.com");
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        assertEquals(1, limiter.trackedHosts(), "Хост із запитом у польоті не можна забувати");
+
+        limiter.release("example.com", AdaptiveConcurrencyLimiter.Outcome.SUCCESS, LATENCY);
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        assertEquals(0, limiter.trackedHosts(), "Неактивний хост має бути забутий");
+        assertNull(registry.find("crawler.host.concurrency.limit").tag("host", "example.com").gauge(),
+                "Метрики забутого хоста мають бути видалені");
+        assertNull(registry.find("crawler.host.overloads").tag("host", "example.com").counter());
+
+        assertTrue(limiter.acquire("example.com").isDone(), "Забутий хост починає з початкового ліміту");
+        assertEquals(1, registry.get("crawler.host.concurrency.inflight").tag("host", "example.com").gauge().value());
+    }
+}
@@ -0,0 +1,84 @@
+package com.webscraper.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webscraper.engines.CrawlEventStream;
+import com.webscraper.entities.CrawlEvent;
+import com.webscraper.entities.CrawlJobStatus;
+import com.webscraper.exceptions.StreamBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlEventStreamerTest {
+
+    private final CrawlEventStreamer streamer = new CrawlEventStreamer(new ObjectMapper(), 15000);
+
+    @Test
+    void testStream_SecondClientIsRejected() {
+        CrawlEventStream events = new CrawlEventStream(10);
+        streamer.ndjson(events);
+
+        assertThrows(StreamBusyException.class, () -> streamer.ndjson(events));
+        assertThrows(StreamBusyException.class, () -> streamer.serverSentEvents(events));
+    }
+
+    @Test
+    void testNdjson_WritesEventsUntilEnd() throws IOException {
+        CrawlEventStream events = new CrawlEventStream(2);
+        events.publish(CrawlEvent.page("https://example.com/"));
+        events.publish(CrawlEvent.page("https://example.com/a"));
+        events.publish(CrawlEvent.page("https://example.com/b"));
+        events.close(CrawlEvent.end(CrawlJobStatus.State.COMPLETED));
+
+        String[] lines = write(streamer.ndjson(events)).split("\n");
+
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("\"type\":\"DROPPED\"") && lines[0].contains("\"count\":1"), lines[0]);
+        assertTrue(lines[1].contains("\"url\":\"https://example.com/\""), lines[1]);
+        assertTrue(lines[2].contains("\"url\":\"https://example.com/a\""), lines[2]);
+        assertTrue(lines[3].contains("\"type\":\"END\""), "Відповідь має закінчуватися подією END");
+        assertTrue(events.subscribe(), "Після завершення відповіді потік має звільнятися");
+    }
+
+    @Test
+    void testServerSentEvents_WritesNamedEvents() throws IOException {
+        CrawlEventStream events = new CrawlEventStream(10);
+        events.publish(CrawlEvent.error("https://example.com/", "timeout"));
+        events.close(CrawlEvent.end(CrawlJobStatus.State.FAILED));
+
+        String body = write(streamer.serverSentEvents(events));
+
+        assertTrue(body.startsWith("event: error\ndata: {"), body);
+        assertTrue(body.contains("\"message\":\"FAILED\""), body);
+        assertTrue(body.contains("\n\nevent: end\ndata: "), body);
+        assertTrue(body.endsWith("}\n\n"), body);
+    }
+
+    @Test
+    void testStream_ClientErrorReleasesStream() {
+        CrawlEventStream events = new CrawlEventStream(10);
+        events.publish(CrawlEvent.page("https://example.com/"));
+        StreamingResponseBody body = streamer.ndjson(events);
+
+        assertThrows(IOException.class, () -> body.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        }));
+
+        assertTrue(events.subscribe(), "Відключений клієнт має звільняти потік");
+    }
+
+    private String write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
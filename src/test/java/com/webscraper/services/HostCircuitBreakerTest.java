@@ -0,0 +1,31 @@
+package com.webscraper.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostCircuitBreakerTest {
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker(3, 10_000);
+        breaker.onFailure("example.com");
+        breaker.onFailure("example.com");
+        assertEquals(0, breaker.tryAcquire("example.com"), "Ланцюг має залишатися закритим до порогу");
+        breaker.onFailure("example.com");
+        assertTrue(breaker.tryAcquire("example.com") > 0, "Після порогу відмов ланцюг має відкритися");
+        assertEquals(0, breaker.tryAcquire("other.com"), "Інші хости не повинні блокуватися");
+    }
+
+    @Test
+    void testHalfOpenTrialClosesOnSuccess() throws InterruptedException {
+        HostCircuitBreaker breaker = new HostCircuitBreaker(1, 50);
+        breaker.onFailure("example.com");
+        Thread.sleep(80);
+        assertEquals(0, breaker.tryAcquire("example.com"), "Після паузи має пропускатися пробний запит");
+        assertTrue(breaker.tryAcquire("example.com") > 0, "Поки триває пробний запит, інші мають чекати");
+        breaker.onSuccess("example.com");
+        assertEquals(0, breaker.tryAcquire("example.com"), "Успішний пробний запит має закривати ланцюг");
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.webscraper.services;
+
+import com.webscraper.entities.ImageEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageBatchWriterTest {
+
+    private final BlockingQueue<List<ImageEntity>> batches = new LinkedBlockingQueue<>();
+    private final Set<String> written = ConcurrentHashMap.newKeySet();
+    private final List<String> writerThreads = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private ImageBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(eq(ImageBatchWriter.INSERT_SQL), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            Collection<ImageEntity> batch = invocation.getArgument(1);
+            List<ImageEntity> copy = new ArrayList<>(batch);
+            synchronized (writerThreads) {
+                writerThreads.add(Thread.currentThread().getName());
+            }
+            copy.forEach(entity -> assertTrue(written.add(entity.getOriginalUrl()), "Рядок не має записуватися двічі"));
+            batches.add(copy);
+            return new int[][]{new int[copy.size()]};
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void testEnqueue_WritesFullBatch() throws InterruptedException {
+        writer = new ImageBatchWriter(jdbcTemplate, 100, 3, 60_000, 1000);
+
+        writer.enqueue(image(1));
+        writer.enqueue(image(2));
+        writer.enqueue(image(3));
+
+        List<ImageEntity> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch, "Повний пакет має записуватися без очікування інтервалу");
+        assertEquals(List.of("url-1", "url-2", "url-3"), batch.stream().map(ImageEntity::getOriginalUrl).toList());
+        assertEquals(List.of("image-writer"), writerThreads);
+    }
+
+    @Test
+    void testEnqueue_WritesPartialBatchAfterFlushInterval() throws InterruptedException {
+        writer = new ImageBatchWriter(jdbcTemplate, 100, 100, 50, 1000);
+
+        writer.enqueue(image(1));
+
+        List<ImageEntity> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch, "Неповний пакет має записуватися після інтервалу");
+        assertEquals(1, batch.size());
+    }
+
+    @Test
+    void testFindPending_ReturnsQueuedRowUntilWritten() throws InterruptedException {
+        writer = new ImageBatchWriter(jdbcTemplate, 100, 2, 60_000, 1000);
+        ImageEntity first = image(1);
+
+        writer.enqueue(first);
+        assertSame(first, writer.findPending("hash-1"), "Рядок у черзі має знаходитися за хешем");
+
+        writer.enqueue(image(2));
+        assertNotNull(batches.poll(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.findPending("hash-1") != null && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertNull(writer.findPending("hash-1"), "Записаний рядок має зникати з очікуваних");
+        assertNull(writer.findPending("hash-2"));
+    }
+
+    @Test
+    void testFindPending_FailedBatchIsForgotten() {
+        when(jdbcTemplate.batchUpdate(eq(ImageBatchWriter.INSERT_SQL), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        writer = new ImageBatchWriter(jdbcTemplate, 100, 100, 60_000, 1000);
+        writer.enqueue(image(1));
+
+        writer.shutdown();
+
+        assertNull(writer.findPending("hash-1"), "Рядок з невдалого пакета не має лишатися серед очікуваних");
+    }
+
+    @Test
+    void testFindPending_KeepsFirstRowOfHash() {
+        writer = new ImageBatchWriter(jdbcTemplate, 100, 100, 60_000, 1000);
+        ImageEntity first = image(1);
+        ImageEntity copy = new ImageEntity(0, "url-copy", first.getPath(), 8, 4, "hash-1", "webp");
+
+        writer.enqueue(first);
+        writer.enqueue(copy);
+
+        assertSame(first, writer.findPending("hash-1"), "Копія не має підміняти рядок зі стиснутим файлом");
+    }
+
+    @Test
+    void testShutdown_WritesQueuedRows() {
+        writer = new ImageBatchWriter(jdbcTemplate, 100, 100, 60_000, 1000);
+        for (int i = 0; i < 10; i++) {
+            writer.enqueue(image(i));
+        }
+
+        writer.shutdown();
+
+        assertEquals(10, written.size(), "Рядки з черги мають записуватися під час зупинки");
+    }
+
+    @Test
+    void testEnqueue_AfterShutdownWritesOnCallingThread() {
+        writer = new ImageBatchWriter(jdbcTemplate, 100, 100, 60_000, 1000);
+        writer.shutdown();
+
+        writer.enqueue(image(1));
+
+        assertEquals(Set.of("url-1"), written);
+        assertEquals(List.of(Thread.currentThread().getName()), writerThreads);
+        assertNull(writer.findPending("hash-1"), "Після зупинки рядки не мають ставати в чергу");
+    }
+
+    @Test
+    void testShutdown_RowsEnqueuedDuringShutdownAreNotLost() throws Exception {
+        int threads = 4;
+        int rowsPerThread = 500;
+        for (int round = 0; round < 20; round++) {
+            written.clear();
+            writer = new ImageBatchWriter(jdbcTemplate, 16, 8, 1, 1000);
+            ImageBatchWriter current = writer;
+            ExecutorService workers = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = round * threads * rowsPerThread + t * rowsPerThread;
+                futures.add(workers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < rowsPerThread; i++) {
+                        current.enqueue(image(offset + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            Thread.sleep(round % 3);
+            current.shutdown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            workers.shutdown();
+
+            assertEquals(threads * rowsPerThread, written.size(), "Жоден рядок не має губитися під час зупинки");
+        }
+    }
+
+    private static ImageEntity image(int i) {
+        return new ImageEntity(0, "url-" + i, "example.com/" + i + ".webp", 8, 4, "hash-" + i, "webp");
+    }
+}
@@ -0,0 +1,159 @@
+package com.webscraper.services;
+
+import com.webscraper.engines.PageCacheStats;
+import com.webscraper.entities.FetchedPage;
+import com.webscraper.entities.HttpValidators;
+import com.webscraper.entities.PageContent;
+import com.webscraper.entities.PageValidatorEntity;
+import com.webscraper.repositories.PageValidatorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PageValidatorCacheTest {
+
+    private static final String URL = "https://example.com/page";
+    private static final String ETAG = "\"v1\"";
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    private PageValidatorRepository repository;
+    private PageValidatorCache cache;
+    private PageCacheStats stats;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PageValidatorRepository.class);
+        cache = new PageValidatorCache(repository, true);
+        stats = new PageCacheStats();
+    }
+
+    @Test
+    void testConditionsFor_SendsStoredValidators() {
+        assertEquals(new HttpValidators(ETAG, LAST_MODIFIED), cache.conditionsFor(cached(ETAG, LAST_MODIFIED)));
+        assertEquals(new HttpValidators(null, LAST_MODIFIED), cache.conditionsFor(cached(null, LAST_MODIFIED)));
+    }
+
+    @Test
+    void testConditionsFor_NoConditionsWithoutValidators() {
+        assertNull(cache.conditionsFor(null));
+        assertNull(cache.conditionsFor(cached(null, null)), "Без валідаторів запит не може бути умовним");
+    }
+
+    @Test
+    void testFind_DisabledCacheSkipsRepository() {
+        PageValidatorCache disabled = new PageValidatorCache(repository, false);
+
+        assertNull(disabled.find(URL));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testFind_RepositoryFailureDisablesCacheForPage() {
+        when(repository.findByUrl(URL)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertNull(cache.find(URL), "Збій сховища не має зупиняти обхід");
+    }
+
+    @Test
+    void testResolve_NotModifiedReusesCachedLinksAndImages() {
+        PageValidatorEntity cached = cached(ETAG, LAST_MODIFIED);
+
+        PageContent content = cache.resolve(URL, cached, FetchedPage.notModified(new HttpValidators(ETAG, null)), stats);
+
+        assertEquals(URL, content.url());
+        assertEquals(Set.of("https://example.com/a", "https://example.com/b"), content.links());
+        assertEquals(Set.of("https://example.com/logo.png"), content.images());
+        assertNull(content.document());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void testResolve_NotModifiedWithoutCachedEntryIsEmpty() {
+        PageContent content = cache.resolve(URL, null, FetchedPage.notModified(null), stats);
+
+        assertTrue(content.links().isEmpty());
+        assertTrue(content.images().isEmpty());
+        assertEquals(0, stats.getNotModified());
+    }
+
+    @Test
+    void testResolve_StoresNewBody() {
+        FetchedPage fetched = fetched(new HttpValidators(ETAG, LAST_MODIFIED), "hash-1");
+
+        assertSame(fetched.content(), cache.resolve(URL, null, fetched, stats));
+
+        verify(repository).save(any(PageValidatorEntity.class));
+    }
+
+    @Test
+    void testResolve_UnchangedPageIsNotStoredAgain() {
+        PageValidatorEntity cached = cached(ETAG, LAST_MODIFIED);
+
+        cache.resolve(URL, cached, fetched(new HttpValidators(ETAG, LAST_MODIFIED), "hash-1"), stats);
+
+        verify(repository, never()).save(any());
+        assertEquals(1, stats.getUnchanged(), "Тіло з тим самим хешем має рахуватися як незмінене");
+    }
+
+    @Test
+    void testResolve_NewValidatorsAreStored() {
+        PageValidatorEntity cached = cached(ETAG, LAST_MODIFIED);
+
+        cache.resolve(URL, cached, fetched(new HttpValidators("\"v2\"", LAST_MODIFIED), "hash-1"), stats);
+
+        verify(repository).save(cached);
+        assertEquals("\"v2\"", cached.getEtag(), "Нові валідатори мають замінювати збережені");
+    }
+
+    @Test
+    void testStats_HitRateAndBytesSaved() {
+        PageValidatorEntity cached = cached(ETAG, LAST_MODIFIED);
+
+        cache.resolve(URL, cached, FetchedPage.notModified(null), stats);
+        cache.resolve(URL, cached, FetchedPage.notModified(null), stats);
+        cache.resolve(URL, cached, FetchedPage.notModified(null), stats);
+        cache.resolve(URL, cached, fetched(new HttpValidators(ETAG, LAST_MODIFIED), "hash-2"), stats);
+
+        assertEquals(3, stats.getNotModified());
+        assertEquals(1, stats.getFetched());
+        assertEquals(0.75, stats.hitRate(), 1e-9);
+        assertEquals(3 * 2048, stats.getBytesSaved(), "Зекономлені байти - розмір збереженого тіла на кожне 304");
+        assertEquals(512, stats.getBytesRead());
+        assertEquals(0, stats.getUnchanged());
+    }
+
+    @Test
+    void testStats_EmptyHitRate() {
+        assertEquals(0, stats.hitRate());
+    }
+
+    private PageValidatorEntity cached(String etag, String lastModified) {
+        PageValidatorEntity entity = new PageValidatorEntity();
+        entity.setUrl(URL);
+        entity.setEtag(etag);
+        entity.setLastModified(lastModified);
+        entity.setContentHash("hash-1");
+        entity.setBodyBytes(2048);
+        entity.setLinks(List.of("https://example.com/a", "https://example.com/b"));
+        entity.setImages(List.of("https://example.com/logo.png"));
+        when(repository.findByUrl(URL)).thenReturn(Optional.of(entity));
+        return entity;
+    }
+
+    private FetchedPage fetched(HttpValidators validators, String hash) {
+        PageContent content = new PageContent(URL, Set.of("https://example.com/c"), Set.of(), null);
+        return new FetchedPage(content, validators, 512, hash);
+    }
+}
@@ -0,0 +1,67 @@
+package com.webscraper.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolitenessSchedulerTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final PolitenessScheduler scheduler = new PolitenessScheduler(200, 1000, 10, 1440, ticker::get);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testAcquire_SpacesRequestsToSameHost() {
+        long start = System.nanoTime();
+        CompletableFuture<Void> first = scheduler.acquire("example.com", 100);
+        CompletableFuture<Void> second = scheduler.acquire("example.com", 100);
+        CompletableFuture<Void> third = scheduler.acquire("example.com", 100);
+
+        assertTrue(first.isDone(), "Перший запит має виконуватися без очікування");
+        assertFalse(second.isDone(), "Другий запит має чекати на свій слот");
+        third.join();
+        assertTrue(System.nanoTime() - start >= 190_000_000L, "Третій запит має чекати щонайменше дві затримки");
+    }
+
+    @Test
+    void testAcquire_HostsAreIndependent() {
+        scheduler.acquire("a.example.com", 1000);
+        assertTrue(scheduler.acquire("b.example.com", 1000).isDone(), "Різні хости не повинні чекати один на одного");
+    }
+
+    @Test
+    void testOnThrottled_DelaysNextRequest() {
+        scheduler.acquire("example.com", 0).join();
+        scheduler.onThrottled("example.com", 0);
+        long start = System.nanoTime();
+        scheduler.acquire("example.com", 0).join();
+        assertTrue(System.nanoTime() - start >= 150_000_000L, "Після 429 хост має отримати затримку");
+    }
+
+    @Test
+    void testIdleHost_IsForgotten() {
+        scheduler.acquire("a.example.com", 0).join();
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(11));
+
+        assertEquals(0, scheduler.trackedHosts(), "Неактивний хост має бути забутий");
+    }
+
+    @Test
+    void testCrawlDelay_KeepsHostWhileRulesAreCached() {
+        scheduler.setCrawlDelay("a.example.com", 100);
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(11));
+        assertEquals(1, scheduler.trackedHosts(), "Хост із crawl-delay має зберігатися, поки кешовані правила robots.txt");
+
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(1440));
+        assertEquals(0, scheduler.trackedHosts());
+    }
+}
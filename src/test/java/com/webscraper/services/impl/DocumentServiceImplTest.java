@@ -0,0 +1,115 @@
+package com.webscraper.services.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import com.webscraper.entities.FetchedPage;
+import com.webscraper.entities.HttpValidators;
+import com.webscraper.providers.HttpClientProvider;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentServiceImplTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+    private static final String PAGE = "<html><body><a href=\"intro.html\">Intro</a><img src=\"logo.png\"></body></html>";
+
+    private HttpServer server;
+    private HttpClientProvider httpClientProvider;
+    private DocumentServiceImpl documentService;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/docs", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/docs")) {
+                exchange.getResponseHeaders().set("Location", "/docs/");
+                exchange.sendResponseHeaders(301, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/cached", exchange -> {
+            boolean matches = ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))
+                    && LAST_MODIFIED.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+            if (matches) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        httpClientProvider = new HttpClientProvider(HttpClient.Version.HTTP_1_1, 5000, 60, 0);
+        documentService = new DocumentServiceImpl(httpClientProvider, 5000, 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClientProvider.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testFetchPage_ResolvesLinksAgainstRedirectTarget() throws IOException {
+        FetchedPage page = documentService.fetchPage(baseUrl + "/docs", null, false, null);
+
+        assertEquals(baseUrl + "/docs/", page.content().url(), "Сторінка має отримати URL після переадресації");
+        assertTrue(page.content().links().contains(baseUrl + "/docs/intro.html"),
+                "Відносне посилання має розв'язуватися відносно кінцевого URL");
+        assertTrue(page.content().images().contains(baseUrl + "/docs/logo.png"),
+                "Відносне зображення має розв'язуватися відносно кінцевого URL");
+    }
+
+    @Test
+    void testFetchPage_DocumentResolvesLinksAgainstRedirectTarget() throws IOException {
+        FetchedPage page = documentService.fetchPage(baseUrl + "/docs", null, true, null);
+
+        assertTrue(page.content().links().contains(baseUrl + "/docs/intro.html"),
+                "Відносне посилання має розв'язуватися відносно кінцевого URL");
+    }
+
+    @Test
+    void testFetchDocument_UsesRedirectTargetAsLocation() throws IOException {
+        Document document = documentService.fetchDocument(baseUrl + "/docs", null);
+
+        assertEquals(baseUrl + "/docs/", document.location());
+        assertEquals(baseUrl + "/docs/intro.html", document.selectFirst("a").absUrl("href"));
+    }
+
+    @Test
+    void testFetchPage_SendsConditionalHeaders() throws IOException {
+        FetchedPage first = documentService.fetchPage(baseUrl + "/cached", null, false, null);
+        assertEquals(new HttpValidators(ETAG, LAST_MODIFIED), first.validators());
+        assertFalse(first.isNotModified());
+
+        FetchedPage second = documentService.fetchPage(baseUrl + "/cached", null, false, first.validators());
+
+        assertTrue(second.isNotModified(), "Умовний запит зі збереженими валідаторами має отримати 304");
+        assertEquals(0, second.bodyBytes());
+    }
+}
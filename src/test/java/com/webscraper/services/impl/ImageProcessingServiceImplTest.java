@@ -0,0 +1,148 @@
+package com.webscraper.services.impl;
+
+import com.google.common.hash.Hashing;
+import com.webscraper.entities.CompressionResult;
+import com.webscraper.entities.ImageData;
+import com.webscraper.entities.ImageEntity;
+import com.webscraper.repositories.ImageRepository;
+import com.webscraper.services.ImageBatchWriter;
+import com.webscraper.services.ImageOutputSelector;
+import com.webscraper.services.strategy.ImageFetchStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageProcessingServiceImplTest {
+
+    private static final String URL = "https://example.com/images/logo.png";
+    private static final String MIRROR_URL = "https://cdn.example.com/assets/logo.png";
+    private static final byte[] BYTES = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    @TempDir
+    Path outputDirectory;
+
+    private ImageRepository imageRepository;
+    private ImageBatchWriter imageBatchWriter;
+    private ImageOutputSelector imageOutputSelector;
+    private ImageFetchStrategy fetchStrategy;
+    private ImageProcessingServiceImpl imageProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        imageRepository = mock(ImageRepository.class);
+        imageBatchWriter = mock(ImageBatchWriter.class);
+        imageOutputSelector = mock(ImageOutputSelector.class);
+        fetchStrategy = mock(ImageFetchStrategy.class);
+        when(fetchStrategy.supports(anyString())).thenReturn(true);
+        when(fetchStrategy.fetchImageData(anyString(), any(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> ImageData.of(BYTES.clone()));
+        when(imageRepository.findByOriginalUrl(anyString())).thenReturn(Optional.empty());
+        when(imageRepository.findFirstByContentHash(anyString())).thenReturn(Optional.empty());
+
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("images.output.directory", outputDirectory.toString())
+                .withProperty("images.download.minBytes", "0");
+        imageProcessingService = new ImageProcessingServiceImpl(mock(RestTemplateBuilder.class), imageRepository,
+                imageBatchWriter, imageOutputSelector, List.of(fetchStrategy), env, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testProcessImage_StoredUrlIsNotDownloaded() {
+        when(imageRepository.findByOriginalUrl(URL)).thenReturn(Optional.of(
+                new ImageEntity(1, URL, "example.com/logo.webp", BYTES.length, 4, "hash", "webp")));
+
+        assertNull(imageProcessingService.processImage(URL, "example.com"));
+        assertNull(imageProcessingService.processImage(URL, "example.com"));
+
+        verify(fetchStrategy, never()).fetchImageData(anyString(), any(), anyLong(), anyLong());
+        verify(imageRepository, times(1)).findByOriginalUrl(URL);
+    }
+
+    @Test
+    void testProcessImage_UrlWithoutRowIsDownloadedOnce() throws IOException {
+        CompressionResult compressed = new CompressionResult(4, "example.com/logo.webp", "webp");
+        when(imageOutputSelector.compressAndSave(any(), anyInt(), any())).thenReturn(compressed);
+
+        assertEquals(compressed, imageProcessingService.processImage(URL, "example.com"));
+        assertNull(imageProcessingService.processImage(URL, "example.com"), "Оброблений URL не завантажується вдруге");
+
+        verify(fetchStrategy, times(1)).fetchImageData(anyString(), any(), anyLong(), anyLong());
+        verify(imageBatchWriter, times(1)).enqueue(any());
+    }
+
+    @Test
+    void testProcessImage_FailedDownloadReleasesClaim() throws IOException {
+        when(fetchStrategy.fetchImageData(anyString(), any(), anyLong(), anyLong()))
+                .thenReturn(null)
+                .thenAnswer(invocation -> ImageData.of(BYTES.clone()));
+        CompressionResult compressed = new CompressionResult(4, "example.com/logo.webp", "webp");
+        when(imageOutputSelector.compressAndSave(any(), anyInt(), any())).thenReturn(compressed);
+
+        assertNull(imageProcessingService.processImage(URL, "example.com"));
+        assertEquals(compressed, imageProcessingService.processImage(URL, "example.com"),
+                "Після невдалого завантаження URL можна обробити знову");
+        verify(imageRepository, times(2)).findByOriginalUrl(URL);
+    }
+
+    @Test
+    void testProcessImage_SameBytesUnderPendingRowAreNotCompressedAgain() throws IOException {
+        CompressionResult compressed = new CompressionResult(4, "example.com/logo.webp", "webp");
+        when(imageOutputSelector.compressAndSave(any(), anyInt(), any())).thenReturn(compressed);
+        imageProcessingService.processImage(URL, "example.com");
+        ArgumentCaptor<ImageEntity> queued = ArgumentCaptor.forClass(ImageEntity.class);
+        verify(imageBatchWriter).enqueue(queued.capture());
+        ImageEntity pending = queued.getValue();
+        when(imageBatchWriter.findPending(pending.getContentHash())).thenReturn(pending);
+
+        assertEquals(compressed, imageProcessingService.processImage(MIRROR_URL, "cdn.example.com"),
+                "Копія має отримати результат уже стиснутого зображення");
+
+        verify(imageOutputSelector, times(1)).compressAndSave(any(), anyInt(), any());
+        verify(imageRepository, times(1)).findFirstByContentHash(anyString());
+        verify(imageBatchWriter, times(2)).enqueue(queued.capture());
+        assertMappingRow(queued.getValue(), pending);
+    }
+
+    @Test
+    void testProcessImage_SameBytesUnderStoredRowAreNotCompressedAgain() throws IOException {
+        ImageEntity stored = new ImageEntity(1, URL, "example.com/logo.webp", BYTES.length, 4,
+                Hashing.sha256().hashBytes(BYTES).toString(), "webp");
+        when(imageRepository.findFirstByContentHash(stored.getContentHash())).thenReturn(Optional.of(stored));
+
+        CompressionResult result = imageProcessingService.processImage(MIRROR_URL, "cdn.example.com");
+
+        assertEquals(new CompressionResult(4, "example.com/logo.webp", "webp"), result);
+        verify(imageOutputSelector, never()).compressAndSave(any(), anyInt(), any());
+        ArgumentCaptor<ImageEntity> queued = ArgumentCaptor.forClass(ImageEntity.class);
+        verify(imageBatchWriter).enqueue(queued.capture());
+        assertMappingRow(queued.getValue(), stored);
+    }
+
+    private void assertMappingRow(ImageEntity row, ImageEntity original) {
+        assertEquals(MIRROR_URL, row.getOriginalUrl());
+        assertEquals(original.getPath(), row.getPath(), "Копія має посилатися на вже збережений файл");
+        assertEquals(original.getContentHash(), row.getContentHash());
+        assertEquals(original.getSizeAfterCompression(), row.getSizeAfterCompression());
+        assertEquals(original.getFormat(), row.getFormat());
+    }
+}
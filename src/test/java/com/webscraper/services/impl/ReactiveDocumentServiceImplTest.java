@@ -0,0 +1,104 @@
+package com.webscraper.services.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import com.webscraper.entities.FetchedPage;
+import com.webscraper.providers.WebClientProvider;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveDocumentServiceImplTest {
+
+    private static final String PAGE = "<html><body><a href=\"intro.html\">Intro</a><img src=\"logo.png\"></body></html>";
+
+    private HttpServer server;
+    private WebClientProvider webClientProvider;
+    private ReactiveDocumentServiceImpl documentService;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/docs", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/docs")) {
+                exchange.getResponseHeaders().set("Location", "/docs/");
+                exchange.sendResponseHeaders(301, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/empty", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        webClientProvider = new WebClientProvider(1, 4, 5000);
+        documentService = new ReactiveDocumentServiceImpl(webClientProvider, 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        webClientProvider.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testFetchPage_ResolvesLinksAgainstRedirectTarget() throws IOException {
+        FetchedPage page = documentService.fetchPage(baseUrl + "/docs", null, false, null);
+
+        assertEquals(baseUrl + "/docs/", page.content().url(), "Сторінка має отримати URL після переадресації");
+        assertTrue(page.content().links().contains(baseUrl + "/docs/intro.html"),
+                "Відносне посилання має розв'язуватися відносно кінцевого URL");
+        assertTrue(page.content().images().contains(baseUrl + "/docs/logo.png"),
+                "Відносне зображення має розв'язуватися відносно кінцевого URL");
+    }
+
+    @Test
+    void testFetchDocument_UsesRedirectTargetAsLocation() throws IOException {
+        Document document = documentService.fetchDocument(baseUrl + "/docs", null);
+
+        assertEquals(baseUrl + "/docs/", document.location());
+        assertEquals(baseUrl + "/docs/intro.html", document.selectFirst("a").absUrl("href"));
+    }
+
+    @Test
+    void testFetchPage_EmptyBodyYieldsEmptyPage() throws IOException {
+        FetchedPage page = documentService.fetchPage(baseUrl + "/empty", null, false, null);
+
+        assertEquals(0, page.bodyBytes());
+        assertTrue(page.content().links().isEmpty(), "Порожня сторінка не містить посилань");
+
+        FetchedPage document = documentService.fetchPage(baseUrl + "/empty", null, true, null);
+        assertTrue(document.content().links().isEmpty(), "Порожній документ не містить посилань");
+    }
+
+    @Test
+    void testFetchPageAsync_RejectedParseFailsTheFetch() {
+        CompletableFuture<FetchedPage> page = documentService.fetchPageAsync(baseUrl + "/docs/", null, false, null,
+                task -> {
+                    throw new RejectedExecutionException("Executor is shut down");
+                });
+
+        CompletionException e = assertThrows(CompletionException.class, page::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+}
@@ -0,0 +1,84 @@
+package com.webscraper.services.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import com.webscraper.services.PolitenessScheduler;
+import com.webscraper.utils.URLUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RobotsTxtServiceImplTest {
+
+    private final AtomicReference<String> robotsTxt = new AtomicReference<>();
+    private HttpServer server;
+    private PolitenessScheduler politenessScheduler;
+    private RobotsTxtServiceImpl robotsTxtService;
+    private String baseUrl;
+    private String host;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/robots.txt", exchange -> {
+            String body = robotsTxt.get();
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        host = URLUtils.extractHost(baseUrl);
+        politenessScheduler = mock(PolitenessScheduler.class);
+        robotsTxtService = new RobotsTxtServiceImpl(politenessScheduler, new SimpleMeterRegistry(), 60, 60, 60, 100, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        robotsTxtService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testGetRules_AppliesCrawlDelay() {
+        robotsTxt.set("User-agent: *\nCrawl-delay: 2\n");
+
+        robotsTxtService.getRules(baseUrl + "/page").join();
+
+        verify(politenessScheduler).setCrawlDelay(eq(host), eq(2000L));
+    }
+
+    @Test
+    void testGetRules_ClearsCrawlDelayWhenRulesHaveNone() {
+        robotsTxt.set("User-agent: *\nDisallow: /private\n");
+
+        robotsTxtService.getRules(baseUrl + "/page").join();
+
+        verify(politenessScheduler).setCrawlDelay(eq(host), eq(0L));
+    }
+
+    @Test
+    void testGetRules_ClearsCrawlDelayWithoutRobotsTxt() {
+        robotsTxtService.getRules(baseUrl + "/page").join();
+
+        verify(politenessScheduler).setCrawlDelay(eq(host), eq(0L));
+    }
+}
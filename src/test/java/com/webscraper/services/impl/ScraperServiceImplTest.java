@@ -0,0 +1,156 @@
+package com.webscraper.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.webscraper.durable.CrawlStateStore;
+import com.webscraper.engines.CrawlJob;
+import com.webscraper.engines.ScraperEngine;
+import com.webscraper.entities.CrawlJobStatus;
+import com.webscraper.providers.HttpClientProvider;
+import com.webscraper.repositories.PageValidatorRepository;
+import com.webscraper.services.AdaptiveConcurrencyLimiter;
+import com.webscraper.services.CrawlBudgetPolicy;
+import com.webscraper.services.HostCircuitBreaker;
+import com.webscraper.services.PageValidatorCache;
+import com.webscraper.services.PolitenessScheduler;
+import com.webscraper.services.RetryScheduler;
+import com.webscraper.services.RobotsTxtService;
+import com.webscraper.services.handlers.ContentHandler;
+import com.webscraper.services.handlers.LinkHandler;
+import com.webscraper.visited.VisitedSetFactory;
+import com.webscraper.visited.VisitedSetMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScraperServiceImplTest {
+
+    private static final int PAGES = 20;
+    private static final long PAGE_DELAY_MILLIS = 100;
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private ExecutorService linkExecutor;
+    private HttpClientProvider httpClientProvider;
+    private PolitenessScheduler politenessScheduler;
+    private RetryScheduler retryScheduler;
+    private ScraperServiceImpl scraperService;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/page/", exchange -> {
+            int index = Integer.parseInt(exchange.getRequestURI().getPath().substring("/page/".length()));
+            String next = index + 1 < PAGES ? "<a href=\"/page/" + (index + 1) + "\">next</a>" : "";
+            byte[] body = ("<html><body>" + next + "</body></html>").getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(PAGE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        linkExecutor = Executors.newFixedThreadPool(4);
+        httpClientProvider = new HttpClientProvider(HttpClient.Version.HTTP_1_1, 5000, 60, 0);
+        politenessScheduler = new PolitenessScheduler(200, 1000, 10, 1440);
+        retryScheduler = new RetryScheduler(3, 100, 1000, 0.5, 10);
+
+        RobotsTxtService robotsTxtService = mock(RobotsTxtService.class);
+        when(robotsTxtService.getRules(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        when(robotsTxtService.isAllowed(anyString())).thenReturn(true);
+        when(robotsTxtService.isAllowed(anyString(), any())).thenReturn(true);
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(2, 4, 0.5, 2.0, 10, new SimpleMeterRegistry());
+        HostCircuitBreaker circuitBreaker = new HostCircuitBreaker(5, 1000);
+        PageValidatorCache pageValidatorCache = new PageValidatorCache(mock(PageValidatorRepository.class), false);
+        DocumentServiceImpl documentService = new DocumentServiceImpl(httpClientProvider, 5000, 1024 * 1024);
+
+        AtomicReference<ScraperEngine> engine = new AtomicReference<>();
+        List<ContentHandler> contentHandlers = List.of(
+                new LinkHandler((url, session, depth) -> engine.get().crawl(url, session, depth)));
+        RoundRobinProxySelectorService proxySelectorService = new RoundRobinProxySelectorService();
+        engine.set(new ScraperEngine(linkExecutor, documentService, robotsTxtService, proxySelectorService,
+                politenessScheduler, concurrencyLimiter, circuitBreaker, retryScheduler, pageValidatorCache,
+                contentHandlers, 100, 2));
+
+        scraperService = new ScraperServiceImpl(linkExecutor, robotsTxtService, proxySelectorService, politenessScheduler,
+                concurrencyLimiter, circuitBreaker, retryScheduler, new CrawlBudgetPolicy(0, 0, 0, 0), pageValidatorCache,
+                documentService, contentHandlers,
+                new VisitedSetFactory(VisitedSetMode.EXACT, 64, 1000, 0.001, directory.resolve("results").toString()),
+                new CrawlStateStore(true, directory.resolve("state").toString(), 64 * 1024, 1, new ObjectMapper()),
+                100, 2, 60, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        linkExecutor.shutdownNow();
+        httpClientProvider.shutdown();
+        politenessScheduler.shutdown();
+        retryScheduler.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testCancelMidCrawlThenResume_VisitsEveryPageOnce() throws Exception {
+        CrawlJob job = scraperService.startScraping(baseUrl + "/page/0", PAGES, null, List.of(), null);
+        String sessionId = job.getSessionId();
+        await(() -> scraperService.getStatus(sessionId).pages() >= 3);
+
+        scraperService.cancel(sessionId);
+        await(() -> scraperService.getResumableSessions().stream().anyMatch(state -> state.id().equals(sessionId)));
+        assertEquals(CrawlJobStatus.State.CANCELLED, scraperService.getStatus(sessionId).state());
+        Set<String> cancelledResult = new HashSet<>(scraperService.getResult(sessionId));
+        assertTrue(cancelledResult.contains(baseUrl + "/page/0"), "Файл результатів має пережити скасування");
+        assertTrue(cancelledResult.size() < PAGES, "Скасування має зупинити обхід до його завершення");
+
+        scraperService.resumeScraping(sessionId);
+        await(() -> scraperService.getStatus(sessionId).state() == CrawlJobStatus.State.COMPLETED);
+
+        Set<String> result = scraperService.getResult(sessionId);
+        for (int i = 0; i < PAGES; i++) {
+            assertTrue(result.contains(baseUrl + "/page/" + i), "Відновлений обхід має дійти до сторінки " + i);
+        }
+        assertEquals(PAGES, result.size(), "Кожна сторінка має бути записана один раз");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Умова не виконалася вчасно");
+            Thread.sleep(20);
+        }
+    }
+}
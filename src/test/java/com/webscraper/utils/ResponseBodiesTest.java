@@ -0,0 +1,200 @@
+package com.webscraper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseBodiesTest {
+
+    private static final byte[] PAGE = "<html><body><a href=\"intro.html\">Intro</a></body></html>"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testDecode_Gzip() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(PAGE);
+        }
+
+        assertArrayEquals(PAGE, ResponseBodies.decode(new ByteArrayInputStream(compressed.toByteArray()), "gzip")
+                .readAllBytes());
+        assertArrayEquals(PAGE, ResponseBodies.decode(new ByteArrayInputStream(compressed.toByteArray()), " X-GZIP ")
+                .readAllBytes(), "Назва кодування не залежить від регістру та пробілів");
+    }
+
+    @Test
+    void testDecode_Deflate() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed)) {
+            out.write(PAGE);
+        }
+
+        assertArrayEquals(PAGE, ResponseBodies.decode(new ByteArrayInputStream(compressed.toByteArray()), "deflate")
+                .readAllBytes());
+    }
+
+    @Test
+    void testDecode_Brotli() throws IOException {
+        assertArrayEquals(PAGE, ResponseBodies.decode(new ByteArrayInputStream(brotli(PAGE)), "br").readAllBytes());
+    }
+
+    @Test
+    void testDecode_IdentityReturnsBody() throws IOException {
+        InputStream body = new ByteArrayInputStream(PAGE);
+
+        assertSame(body, ResponseBodies.decode(body, null));
+        assertSame(body, ResponseBodies.decode(body, "identity"));
+    }
+
+    @Test
+    void testDecode_UnsupportedEncodingClosesBody() {
+        CountingInputStream body = new CountingInputStream(new ByteArrayInputStream(PAGE));
+
+        assertThrows(IOException.class, () -> ResponseBodies.decode(body, "zstd"));
+        assertTrue(body.closed, "Тіло з непідтримуваним кодуванням має закриватися");
+    }
+
+    @Test
+    void testLimit_TruncatesBodyOverLimit() throws IOException {
+        CountingInputStream body = new CountingInputStream(new ByteArrayInputStream(PAGE));
+
+        byte[] read = ResponseBodies.limit(body, 10).readAllBytes();
+
+        assertArrayEquals(new String(PAGE, StandardCharsets.UTF_8).substring(0, 10).getBytes(StandardCharsets.UTF_8),
+                read);
+        assertEquals(10, body.bytesRead, "Після ліміту тіло не має читатися далі");
+    }
+
+    @Test
+    void testLimit_SingleByteReadsAndSkipStopAtLimit() throws IOException {
+        InputStream limited = ResponseBodies.limit(new ByteArrayInputStream(PAGE), 3);
+
+        assertEquals(PAGE[0], limited.read());
+        assertEquals(2, limited.skip(10), "Пропуск не може виходити за ліміт");
+        assertEquals(-1, limited.read());
+        assertEquals(-1, limited.read(new byte[4], 0, 4));
+    }
+
+    @Test
+    void testLimit_BodyUnderLimitIsReadWhole() throws IOException {
+        assertArrayEquals(PAGE, ResponseBodies.limit(new ByteArrayInputStream(PAGE), PAGE.length + 1L).readAllBytes());
+    }
+
+    @Test
+    void testWithDeadline_StalledBodyTimesOut() {
+        StalledInputStream body = new StalledInputStream();
+        InputStream bounded = ResponseBodies.withDeadline(body, Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        HttpTimeoutException e = assertThrows(HttpTimeoutException.class, () -> bounded.read(new byte[16], 0, 16));
+
+        assertEquals(0, body.closed.getCount(), "Після дедлайну сире тіло має закриватися");
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "Заблоковане читання має прокидатися");
+        assertNotNull(e.getCause());
+        assertThrows(HttpTimeoutException.class, bounded::read, "Після дедлайну тіло більше не читається");
+    }
+
+    @Test
+    void testWithDeadline_ClosedBodyCancelsDeadline() throws Exception {
+        StalledInputStream body = new StalledInputStream();
+        InputStream bounded = ResponseBodies.withDeadline(body, Duration.ofMillis(100));
+
+        bounded.close();
+        Thread.sleep(300);
+
+        assertEquals(1, body.closeCount.get(), "Закрите тіло не має закриватися вдруге після дедлайну");
+    }
+
+    @Test
+    void testWithDeadline_BodyReadInTime() throws IOException {
+        try (InputStream bounded = ResponseBodies.withDeadline(new ByteArrayInputStream(PAGE), Duration.ofSeconds(5))) {
+            assertArrayEquals(PAGE, bounded.readAllBytes());
+        }
+    }
+
+    /**
+     * Encodes the bytes as a brotli stream of one uncompressed meta-block followed by an empty last one.
+     */
+    private static byte[] brotli(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // WBITS 16 (0), ISLAST 0, MNIBBLES 4 (00), MLEN - 1 in 16 bits, ISUNCOMPRESSED 1, padded to 3 bytes
+        int header = ((data.length - 1) << 4) | (1 << 20);
+        out.write(header & 0xFF);
+        out.write((header >>> 8) & 0xFF);
+        out.write((header >>> 16) & 0xFF);
+        out.writeBytes(data);
+        // ISLAST 1, ISLASTEMPTY 1
+        out.write(0x03);
+        return out.toByteArray();
+    }
+
+    private static final class CountingInputStream extends InputStream {
+        private final InputStream in;
+        private long bytesRead;
+        private boolean closed;
+
+        private CountingInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                bytesRead += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * A body whose reads block until it is closed, like a connection that stopped sending.
+     */
+    private static final class StalledInputStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private final AtomicInteger closeCount = new AtomicInteger();
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Stream closed");
+        }
+
+        @Override
+        public void close() {
+            closeCount.incrementAndGet();
+            closed.countDown();
+        }
+    }
+}
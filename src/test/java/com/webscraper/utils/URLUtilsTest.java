@@ -1,5 +1,6 @@
 package com.webscraper.utils;
 
+import com.webscraper.entities.NormalizedUrl;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -52,6 +53,49 @@ class URLUtilsTest {
         assertEquals(expected, URLUtils.normalizeUrl(input));
     }
 
+    @Test
+    void testNormalizeUrl_RemoveDotSegments() {
+        assertEquals("http://example.com/a/c", URLUtils.normalizeUrl("http://example.com/a/./b/../c"));
+        assertEquals("http://example.com/a/", URLUtils.normalizeUrl("http://example.com/a/b/.."));
+        assertEquals("http://example.com/a/b", URLUtils.normalizeUrl("http://example.com/a//b"),
+                "Повторні слеші мають згортатися так само, як у URI.normalize()");
+    }
+
+    @Test
+    void testNormalizeUrl_KeepQueryAndPathCase() {
+        String input = "HTTPS://Sub.Example.COM/Path/Page?Q=1&r=/x#frag";
+        String expected = "https://sub.example.com/Path/Page?Q=1&r=/x";
+        assertEquals(expected, URLUtils.normalizeUrl(input));
+    }
+
+    @Test
+    void testNormalize_ReturnsHost() {
+        NormalizedUrl normalized = URLUtils.normalize("http://WWW.Example.com:8080/page");
+        assertNotNull(normalized);
+        assertEquals("http://www.example.com:8080/page", normalized.url());
+        assertEquals("www.example.com", normalized.host(), "Хост має повертатися в нижньому регістрі без порту");
+    }
+
+    @Test
+    void testNormalize_FallbackMatchesUriBuilder() {
+        String[] inputs = {
+                "http://user@example.com/page",
+                "http://127.0.0.1:8080/a/../b",
+                "http://example.com/%7Euser/./index.html",
+                "http://example.com?q=1",
+                "http://example.com/a/b/./"
+        };
+        for (String input : inputs) {
+            assertEquals(URLUtils.normalizeWithUriBuilder(input), URLUtils.normalizeUrl(input),
+                    "Швидка нормалізація має збігатися з URIBuilder для " + input);
+        }
+    }
+
+    @Test
+    void testIsSameDomainHost_NullHost() {
+        assertFalse(URLUtils.isSameDomainHost(null, "example.com"), "null-хост не повинен співпадати");
+    }
+
     @Test
     void testNormalizeUrl_InvalidUrl() {
         String input = "ht@tp://invalid-url";
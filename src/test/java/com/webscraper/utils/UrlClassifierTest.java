@@ -0,0 +1,44 @@
+package com.webscraper.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlClassifierTest {
+
+    @Test
+    void testClassify_ImageExtensionCaseInsensitive() {
+        assertEquals(UrlClassifier.UrlKind.IMAGE, UrlClassifier.classify("http://example.com/img/photo.JPG"),
+                "Розширення зображення має розпізнаватися без врахування регістру");
+    }
+
+    @Test
+    void testClassify_ImageWithQueryAndFragment() {
+        assertEquals(UrlClassifier.UrlKind.IMAGE, UrlClassifier.classify("http://example.com/a.png?w=100"),
+                "Параметри запиту не повинні впливати на класифікацію");
+        assertEquals(UrlClassifier.UrlKind.IMAGE, UrlClassifier.classify("http://example.com/a.jpeg#top"),
+                "Фрагмент не повинен впливати на класифікацію");
+    }
+
+    @Test
+    void testClassify_PageLinks() {
+        assertEquals(UrlClassifier.UrlKind.PAGE, UrlClassifier.classify("http://example.com/page.html"));
+        assertEquals(UrlClassifier.UrlKind.PAGE, UrlClassifier.classify("http://example.com/png"));
+        assertEquals(UrlClassifier.UrlKind.PAGE, UrlClassifier.classify("http://example.com/a.png/details"),
+                "Розширення має перевірятися лише в останньому сегменті шляху");
+        assertEquals(UrlClassifier.UrlKind.PAGE, UrlClassifier.classify("http://example.com/view?file=a.png"),
+                "Розширення в параметрах запиту не робить посилання зображенням");
+    }
+
+    @Test
+    void testClassify_DataUri() {
+        assertEquals(UrlClassifier.UrlKind.DATA_URI, UrlClassifier.classify("data:image/png;base64,iVBORw0KGgo="));
+        assertEquals(UrlClassifier.UrlKind.DATA_URI, UrlClassifier.classify("DATA:image/gif;base64,R0lGOD"));
+    }
+
+    @Test
+    void testClassify_EmptyString() {
+        assertEquals(UrlClassifier.UrlKind.PAGE, UrlClassifier.classify(""),
+                "Порожній рядок має класифікуватися як сторінка");
+    }
+}
@@ -0,0 +1,53 @@
+package com.webscraper.visited;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisitedSetTest {
+
+    private static final int URL_COUNT = 50_000;
+
+    @Test
+    void testFingerprint_AddReportsDuplicates() {
+        VisitedSet visited = new FingerprintVisitedSet(64, 16);
+        VisitedSet exact = new ExactVisitedSet();
+        for (int i = 0; i < URL_COUNT; i++) {
+            assertTrue(visited.add("http://example.com/page/" + i), "Новий URL має бути доданий");
+            exact.add("http://example.com/page/" + i);
+        }
+        for (int i = 0; i < URL_COUNT; i++) {
+            assertFalse(visited.add("http://example.com/page/" + i), "Повторний URL не повинен додаватися");
+        }
+        assertEquals(URL_COUNT, visited.size(), "Розмір має дорівнювати кількості унікальних URL");
+        assertTrue(visited.memoryBytes() < exact.memoryBytes(),
+                "Відбитки мають займати менше пам'яті, ніж рядки");
+    }
+
+    @Test
+    void testFingerprint_InvalidWidth() {
+        assertThrows(IllegalArgumentException.class, () -> new FingerprintVisitedSet(32, 16));
+    }
+
+    @Test
+    void testBloom_NoFalseNegativesAndBoundedFpr() {
+        double target = 0.01;
+        VisitedSet visited = new BloomVisitedSet(1000, target);
+        for (int i = 0; i < URL_COUNT; i++) {
+            visited.add("http://example.com/page/" + i);
+        }
+        for (int i = 0; i < URL_COUNT; i++) {
+            assertTrue(visited.contains("http://example.com/page/" + i), "Bloom-фільтр не повинен мати хибно негативних");
+        }
+        assertTrue(visited.falsePositiveRate() <= target,
+                "Сумарна ймовірність хибно позитивних має залишатися в межах цілі");
+
+        int falsePositives = 0;
+        for (int i = 0; i < URL_COUNT; i++) {
+            if (visited.contains("http://other.com/page/" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < URL_COUNT * target * 2, "Фактична частка хибно позитивних завелика");
+    }
+}